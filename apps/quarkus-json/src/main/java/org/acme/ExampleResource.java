@@ -1,18 +1,37 @@
 package org.acme;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.inject.Inject;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -21,6 +40,11 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 @Path("/")
 public class ExampleResource {
 
+    private static final List<String> SHAPES = List.of("full", "flat", "tiny");
+
+    @Inject
+    ObjectMapper mapper;
+
     @GET
     @Path("/ready")
     @Produces(MediaType.TEXT_PLAIN)
@@ -28,38 +52,52 @@ public class ExampleResource {
         return Response.ok().entity("Yes.").build();
     }
 
+    /**
+     * @param records number of records in the map
+     * @param shape   full: all fields, ~25 kB of JSON per record,
+     *                flat: empty l0 and m0, ~1 kB per record,
+     *                tiny: also 1 char strings and a small bi0, ~150 B per record
+     */
     @GET
     @Path("/dump")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response hello() {
+    public Response hello(@QueryParam("records") @DefaultValue("10000") int records,
+                          @QueryParam("shape") @DefaultValue("full") String shape) {
+        if (records < 0 || !SHAPES.contains(shape)) {
+            return badRequest();
+        }
         final Map<Integer, Record> m = new HashMap<>();
-        for (int i = 0; i < 10_000; i++) {
-            final Record r = new Record();
-            r.s0 = "A".repeat(100);
-            r.s1 = "B".repeat(200);
-            r.s2 = "C".repeat(300);
-            r.s3 = "D".repeat(10);
-            r.s4 = "E".repeat(20);
-            r.s5 = "F".repeat(30);
-            r.s6 = "G".repeat(40);
-            r.s7 = "H".repeat(50);
-            r.s8 = "I".repeat(60);
-            r.s9 = "J".repeat(60);
-            r.i0 = Integer.MAX_VALUE;
-            r.i1 = Integer.MIN_VALUE;
-            r.i2 = 0;
-            r.i3 = 10;
-            r.i4 = 20;
-            r.i5 = 30;
-            r.i6 = 40;
-            r.l0 = Stream.of(lorem).collect(Collectors.toList());
-            r.m0 = Stream.of(lorem).collect(Collectors.toMap(String::toLowerCase, String::toUpperCase, (x, y) -> y));
-            m.put(i, r);
-            r.bi0 = new BigInteger("1".repeat(128));
+        for (int i = 0; i < records; i++) {
+            m.put(i, record(shape));
         }
         return Response.ok().entity(m).build();
     }
 
+    /**
+     * The same records as /dump, written one by one with JsonGenerator instead of serialising a whole map.
+     */
+    @GET
+    @Path("/stream/dump")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response streamDump(@QueryParam("records") @DefaultValue("10000") int records,
+                               @QueryParam("shape") @DefaultValue("full") String shape) {
+        if (records < 0 || !SHAPES.contains(shape)) {
+            return badRequest();
+        }
+        final ObjectWriter writer = mapper.writerFor(Record.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final StreamingOutput body = os -> {
+            try (JsonGenerator g = mapper.getFactory().createGenerator(os)) {
+                g.writeStartObject();
+                for (int i = 0; i < records; i++) {
+                    g.writeFieldName(Integer.toString(i));
+                    writer.writeValue(g, record(shape));
+                }
+                g.writeEndObject();
+            }
+        };
+        return Response.ok().entity(body).build();
+    }
+
     @POST
     @Path("/load")
     @Produces(MediaType.TEXT_PLAIN)
@@ -68,44 +106,132 @@ public class ExampleResource {
         return Response.ok().entity("Hashcode: " + m.hashCode() + "\nSize: " + m.size()).build();
     }
 
+    /**
+     * Like /load, but only one record at a time is held in memory. The hashcode is computed
+     * the way Map#hashCode does it.
+     */
+    @POST
+    @Path("/stream/load")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response streamLoad(InputStream body) throws IOException {
+        final int[] hashCode = new int[1];
+        final int size = stream(body, (k, v) -> hashCode[0] += k.hashCode() ^ v.hashCode());
+        return Response.ok().entity("Hashcode: " + hashCode[0] + "\nSize: " + size).build();
+    }
+
     @POST
     @Path("/load/hash")
     @Produces(MediaType.TEXT_PLAIN)
     @Consumes(MediaType.APPLICATION_JSON)
     public Response loadHash(Map<Integer, Record> m) throws NoSuchAlgorithmException {
-        final ByteArrayOutputStream ba = new ByteArrayOutputStream(100_000_000);
-        m.forEach((k, v) -> {
-                    ba.writeBytes(k.toString().getBytes(UTF_8));
-                    ba.writeBytes(v.s0.getBytes(UTF_8));
-                    ba.writeBytes(v.s1.getBytes(UTF_8));
-                    ba.writeBytes(v.s2.getBytes(UTF_8));
-                    ba.writeBytes(v.s3.getBytes(UTF_8));
-                    ba.writeBytes(v.s4.getBytes(UTF_8));
-                    ba.writeBytes(v.s5.getBytes(UTF_8));
-                    ba.writeBytes(v.s6.getBytes(UTF_8));
-                    ba.writeBytes(v.s7.getBytes(UTF_8));
-                    ba.writeBytes(v.s8.getBytes(UTF_8));
-                    ba.writeBytes(v.s9.getBytes(UTF_8));
-                    ba.writeBytes(Integer.toString(v.i0).getBytes(UTF_8));
-                    ba.writeBytes(Integer.toString(v.i1).getBytes(UTF_8));
-                    ba.writeBytes(Integer.toString(v.i2).getBytes(UTF_8));
-                    ba.writeBytes(Integer.toString(v.i3).getBytes(UTF_8));
-                    ba.writeBytes(Integer.toString(v.i4).getBytes(UTF_8));
-                    ba.writeBytes(Integer.toString(v.i5).getBytes(UTF_8));
-                    ba.writeBytes(Integer.toString(v.i6).getBytes(UTF_8));
-                    v.l0.forEach(s -> ba.writeBytes(s.getBytes(UTF_8)));
-                    v.m0.forEach((x, y) -> {
-                        ba.writeBytes(x.getBytes(UTF_8));
-                        ba.writeBytes(y.getBytes(UTF_8));
-                    });
-                    ba.writeBytes(v.bi0.toByteArray());
-                }
-        );
+        // 100 MB for the default 10_000 records, do not charge small payloads for a huge buffer.
+        final ByteArrayOutputStream ba = new ByteArrayOutputStream((int) Math.min(100_000_000L, Math.max(1024L, m.size() * 10_000L)));
+        m.forEach((k, v) -> write(k, v, ba::writeBytes));
         final MessageDigest digest = MessageDigest.getInstance("SHA-256");
         digest.update(ba.toByteArray());
         return Response.ok().entity(String.format("%064x%n", new BigInteger(1, digest.digest()))).build();
     }
 
+    /**
+     * The same hash as /load/hash for the same body, the digest is updated record by record
+     * as they are parsed, i.e. neither the map nor the bytes to hash are ever held in memory.
+     */
+    @POST
+    @Path("/stream/load/hash")
+    @Produces(MediaType.TEXT_PLAIN)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response streamLoadHash(InputStream body) throws IOException, NoSuchAlgorithmException {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        stream(body, (k, v) -> write(k, v, digest::update));
+        return Response.ok().entity(String.format("%064x%n", new BigInteger(1, digest.digest()))).build();
+    }
+
+    /**
+     * Parses a JSON object of records, e.g. the /dump output, and hands each record
+     * to the consumer in the document order, the order Jackson's LinkedHashMap would have.
+     *
+     * @return number of records
+     */
+    private int stream(InputStream body, BiConsumer<Integer, Record> consumer) throws IOException {
+        final ObjectReader reader = mapper.readerFor(Record.class);
+        int size = 0;
+        try (JsonParser p = mapper.getFactory().createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(p, "Expected a JSON object of records");
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                final Integer k = Integer.valueOf(p.getCurrentName());
+                p.nextToken();
+                consumer.accept(k, reader.readValue(p));
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Bytes of a record that are hashed, in the order they are hashed.
+     */
+    private static void write(Integer k, Record v, Consumer<byte[]> out) {
+        out.accept(k.toString().getBytes(UTF_8));
+        out.accept(v.s0.getBytes(UTF_8));
+        out.accept(v.s1.getBytes(UTF_8));
+        out.accept(v.s2.getBytes(UTF_8));
+        out.accept(v.s3.getBytes(UTF_8));
+        out.accept(v.s4.getBytes(UTF_8));
+        out.accept(v.s5.getBytes(UTF_8));
+        out.accept(v.s6.getBytes(UTF_8));
+        out.accept(v.s7.getBytes(UTF_8));
+        out.accept(v.s8.getBytes(UTF_8));
+        out.accept(v.s9.getBytes(UTF_8));
+        out.accept(Integer.toString(v.i0).getBytes(UTF_8));
+        out.accept(Integer.toString(v.i1).getBytes(UTF_8));
+        out.accept(Integer.toString(v.i2).getBytes(UTF_8));
+        out.accept(Integer.toString(v.i3).getBytes(UTF_8));
+        out.accept(Integer.toString(v.i4).getBytes(UTF_8));
+        out.accept(Integer.toString(v.i5).getBytes(UTF_8));
+        out.accept(Integer.toString(v.i6).getBytes(UTF_8));
+        v.l0.forEach(s -> out.accept(s.getBytes(UTF_8)));
+        v.m0.forEach((x, y) -> {
+            out.accept(x.getBytes(UTF_8));
+            out.accept(y.getBytes(UTF_8));
+        });
+        out.accept(v.bi0.toByteArray());
+    }
+
+    private static Record record(String shape) {
+        final boolean full = "full".equals(shape);
+        final boolean tiny = "tiny".equals(shape);
+        final Record r = new Record();
+        r.s0 = "A".repeat(tiny ? 1 : 100);
+        r.s1 = "B".repeat(tiny ? 1 : 200);
+        r.s2 = "C".repeat(tiny ? 1 : 300);
+        r.s3 = "D".repeat(tiny ? 1 : 10);
+        r.s4 = "E".repeat(tiny ? 1 : 20);
+        r.s5 = "F".repeat(tiny ? 1 : 30);
+        r.s6 = "G".repeat(tiny ? 1 : 40);
+        r.s7 = "H".repeat(tiny ? 1 : 50);
+        r.s8 = "I".repeat(tiny ? 1 : 60);
+        r.s9 = "J".repeat(tiny ? 1 : 60);
+        r.i0 = Integer.MAX_VALUE;
+        r.i1 = Integer.MIN_VALUE;
+        r.i2 = 0;
+        r.i3 = 10;
+        r.i4 = 20;
+        r.i5 = 30;
+        r.i6 = 40;
+        r.l0 = full ? Stream.of(lorem).collect(Collectors.toList()) : Collections.emptyList();
+        r.m0 = full ? Stream.of(lorem).collect(Collectors.toMap(String::toLowerCase, String::toUpperCase, (x, y) -> y)) : Collections.emptyMap();
+        r.bi0 = new BigInteger("1".repeat(tiny ? 1 : 128));
+        return r;
+    }
+
+    private static Response badRequest() {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity("records must not be negative, shape must be one of " + String.join(", ", SHAPES)).build();
+    }
+
     public static final String[] lorem = new String[]{
             "Lorem", "ipsum", "dolor", "sit", "amet,", "consectetur", "adipiscing", "elit.", "Nulla", "lacinia", "mollis",
             "rutrum.", "Orci", "varius", "natoque", "penatibus", "et", "magnis", "dis", "parturient", "montes,", "nascetur",
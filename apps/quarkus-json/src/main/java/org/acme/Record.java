@@ -1,9 +1,13 @@
 package org.acme;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
 
+// The /stream endpoints bind records with an ObjectReader, Quarkus would not see them in a resource method signature.
+@RegisterForReflection
 public class Record {
     public String s0;
     public String s1;
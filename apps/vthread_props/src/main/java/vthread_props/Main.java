@@ -19,22 +19,37 @@
  */
 package vthread_props;
 
+import jdk.jfr.consumer.RecordingStream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 public class Main {
 
     private static long TIMEOUT_MS = 100;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0 && "bench".equals(args[0])) {
+            bench(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         final String r = String.format("%s %s %s %s %s %s",
                 runTest("System Properties Access", Main::testSystemPropertiesAccess),
                 runTest("LocalDateTime.now()", Main::testLocalDateTimeNow),
@@ -228,6 +243,139 @@ public class Main {
         }
     }
 
+    /**
+     * Benchmark mode, e.g. bench threads=10000,100000,1000000 park=0.5 pin=0.01 parkMs=1 jfr=true
+     *
+     * Each virtual thread does the operations checked above, i.e. System properties, LocalDateTime.now()
+     * and ZoneId, a park ratio of them then parks for parkMs and a pin ratio of them parks holding a monitor,
+     * which pins the carrier thread where synchronized is not unmounted, JDK 21 to 23. Scheduling latency is
+     * the time from starting a thread to its first instruction. pinnedEvents counts jdk.VirtualThreadPinned
+     * JFR events, -1 where JFR is not available, e.g. native-image built without --enable-monitoring=jfr.
+     * peakRssKb is VmHWM, i.e. the peak of the process so far, -1 where there is no /proc.
+     * One line per thread count: === BENCH key=value ... ===
+     */
+    private static void bench(String[] args) throws InterruptedException {
+        final Map<String, String> conf = new HashMap<>();
+        for (String arg : args) {
+            final int eq = arg.indexOf('=');
+            if (eq > 0) {
+                conf.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        final int[] counts = Arrays.stream(conf.getOrDefault("threads", "10000,100000,1000000").split(","))
+                .map(String::trim).filter(c -> !c.isEmpty()).mapToInt(Integer::parseInt).toArray();
+        final double park = Double.parseDouble(conf.getOrDefault("park", "0.5"));
+        final double pin = Double.parseDouble(conf.getOrDefault("pin", "0.01"));
+        final long parkNs = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(conf.getOrDefault("parkMs", "1")));
+        final boolean jfr = Boolean.parseBoolean(conf.getOrDefault("jfr", "true"));
+        // Warm up, JIT in JVM mode, lazily initialised zone and properties in both
+        benchRound(Math.min(counts[0], 10000), park, pin, parkNs, false);
+        for (int threads : counts) {
+            final Map<String, Object> r = benchRound(threads, park, pin, parkNs, jfr);
+            final StringBuilder line = new StringBuilder("=== BENCH threads=" + threads + " park=" + park + " pin=" + pin);
+            r.forEach((k, v) -> line.append(' ').append(k).append('=').append(v));
+            System.out.println(line.append(" ==="));
+        }
+    }
+
+    private static Map<String, Object> benchRound(int threads, double park, double pin, long parkNs, boolean jfr) throws InterruptedException {
+        final long[] schedulingNs = new long[threads];
+        final Object[] monitors = new Object[1024];
+        for (int i = 0; i < monitors.length; i++) {
+            monitors[i] = new Object();
+        }
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong monitorParks = new AtomicLong();
+        final AtomicLong pinnedEvents = new AtomicLong(-1);
+        final AtomicLong sink = new AtomicLong();
+        RecordingStream rs = null;
+        if (jfr) {
+            try {
+                rs = new RecordingStream();
+                rs.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+                rs.onEvent("jdk.VirtualThreadPinned", e -> pinnedEvents.incrementAndGet());
+                rs.startAsync();
+                pinnedEvents.set(0);
+            } catch (Throwable t) {
+                System.out.println("JFR is not available, pinned events are not counted: " + t);
+                rs = null;
+            }
+        }
+        final Thread.Builder builder = Thread.ofVirtual();
+        final long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final int n = i;
+            // Spread parking and pinning threads evenly
+            final boolean pins = (long) ((n + 1) * pin) > (long) (n * pin);
+            final boolean parks = !pins && (long) ((n + 1) * park) > (long) (n * park);
+            final long started = System.nanoTime();
+            builder.start(() -> {
+                schedulingNs[n] = System.nanoTime() - started;
+                try {
+                    if (pins) {
+                        synchronized (monitors[n % monitors.length]) {
+                            sink.addAndGet(operations());
+                            monitorParks.incrementAndGet();
+                            LockSupport.parkNanos(parkNs);
+                        }
+                    } else {
+                        sink.addAndGet(operations());
+                        if (parks) {
+                            LockSupport.parkNanos(parkNs);
+                        }
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        final long elapsedNs = System.nanoTime() - start;
+        if (rs != null) {
+            // Waits for the events recorded so far to be consumed
+            rs.stop();
+            rs.close();
+        }
+        Arrays.sort(schedulingNs);
+        final Map<String, Object> r = new LinkedHashMap<>();
+        r.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNs));
+        r.put("throughputPerS", Math.round(threads / (elapsedNs / 1e9)));
+        r.put("schedP50Us", percentileUs(schedulingNs, 50));
+        r.put("schedP90Us", percentileUs(schedulingNs, 90));
+        r.put("schedP99Us", percentileUs(schedulingNs, 99));
+        r.put("schedMaxUs", TimeUnit.NANOSECONDS.toMicros(schedulingNs[threads - 1]));
+        r.put("monitorParks", monitorParks.get());
+        r.put("pinnedEvents", pinnedEvents.get());
+        r.put("peakRssKb", peakRssKb());
+        r.put("errors", errors.get() + (sink.get() == 0 ? 1 : 0));
+        return r;
+    }
+
+    private static long operations() {
+        return System.getProperties().size() + LocalDateTime.now().getNano() + ZoneId.systemDefault().getId().length();
+    }
+
+    private static long percentileUs(long[] sorted, int percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)]);
+    }
+
+    private static long peakRssKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
     @FunctionalInterface
     private interface TestRunnable {
         boolean run() throws Exception;
@@ -0,0 +1,56 @@
+#!/bin/bash
+
+# Runs the testsuite split into SHARDS shard processes on this box, each in its own git worktree
+# so as they do not share apps/*/target, then merges their logs. On CI, each node runs one
+# "mvn ... -Dshard=i/N -Dshard.plan=..." and the merge step runs where the archived-logs are collected.
+
+SHARDS=${SHARDS:-2}
+# Extra mvn args, e.g. -DexcludeTags=all -DincludeTags=reproducers
+MVN_ARGS=${MVN_ARGS:-}
+# Apps of the default tags bind fixed ports, run the shards one after another unless the selection is port free
+PARALLEL=${PARALLEL:-false}
+WORK=${WORK:-/tmp/mandrel-shards}
+
+if [[ ! -f testsuite/pom.xml ]]; then
+  echo "Fatal error. This script is meant to be executed in the mandrel-integration-tests repo root dir"
+  exit 1
+fi
+REPO="$(pwd)"
+
+mvn -q -f testsuite/pom.xml test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt ${MVN_ARGS} || exit 1
+CP="testsuite/target/test-classes:$(cat testsuite/cp.txt)"
+
+java -Dbasedir="${REPO}/testsuite" -cp "${CP}" org.graalvm.tests.integration.utils.Shards plan \
+  --shards "${SHARDS}" --out "${WORK}/shard-plan.properties" || exit 1
+
+for i in $(seq 1 "${SHARDS}"); do
+  rm -rf "${WORK}/shard${i}"
+  git worktree add --detach "${WORK}/shard${i}" HEAD || exit 1
+  # Same durations for everyone, the plan is computed once anyway
+  (cd "${WORK}/shard${i}" && mvn clean verify -Ptestsuite ${MVN_ARGS} \
+     -Dshard="${i}/${SHARDS}" -Dshard.plan="${WORK}/shard-plan.properties" \
+     -DRESULTS_STORE="${WORK}/shard${i}/results-store/results.jsonl" > "${WORK}/shard${i}.log" 2>&1) &
+  if [[ "${PARALLEL}" != "true" ]]; then
+    wait
+  fi
+done
+wait
+
+LOGS=""
+STORES=""
+DURATIONS=""
+for i in $(seq 1 "${SHARDS}"); do
+  LOGS="${LOGS} ${WORK}/shard${i}/testsuite/target/archived-logs"
+  STORES="${STORES} ${WORK}/shard${i}/results-store/results.jsonl"
+  DURATIONS="${DURATIONS} ${WORK}/shard${i}/results-store/test-durations.csv"
+done
+java -Dbasedir="${REPO}/testsuite" -cp "${CP}" org.graalvm.tests.integration.utils.Shards merge-lines \
+  --out "${REPO}/results-store/results.jsonl" ${STORES}
+java -Dbasedir="${REPO}/testsuite" -cp "${CP}" org.graalvm.tests.integration.utils.Shards merge-lines \
+  --out "${REPO}/results-store/test-durations.csv" ${DURATIONS}
+java -Dbasedir="${REPO}/testsuite" -cp "${CP}" org.graalvm.tests.integration.utils.Shards merge \
+  --out "${WORK}/archived-logs" --store "${REPO}/results-store/results.jsonl" ${LOGS}
+
+for i in $(seq 1 "${SHARDS}"); do
+  git worktree remove --force "${WORK}/shard${i}"
+done
@@ -85,6 +85,7 @@ import org.graalvm.tests.integration.utils.Apps;
 import org.graalvm.tests.integration.utils.ContainerNames;
 import org.graalvm.tests.integration.utils.LogBuilder;
 import org.graalvm.tests.integration.utils.Logs;
+import org.graalvm.tests.integration.utils.Workspace;
 import org.graalvm.tests.integration.utils.versions.IfMandrelVersion;
 import org.graalvm.tests.integration.utils.versions.UsedVersion;
 import org.jboss.logging.Logger;
@@ -93,6 +94,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 /**
  * Tests for build and start of applications with some real source code.
@@ -134,6 +138,7 @@ public class AppReproducersTest {
     public static final String[] RUNTIME_IMAGE_BASE = new String[] { "ubi8", "ubi9", "cnts10", "amzn2", "amzn2023", "ubnt2204", "ubnt2404" };
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @Tag("randomNumbers")
     public void randomNumbersReinit(TestInfo testInfo) throws IOException, InterruptedException {
         final Apps app = Apps.RANDOM_NUMBERS;
@@ -141,12 +146,13 @@ public class AppReproducersTest {
         Process process = null;
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             Files.createDirectories(Paths.get(appDir.getAbsolutePath() + File.separator + "logs"));
 
             // Build
@@ -190,7 +196,7 @@ public class AppReproducersTest {
             processStopper(process, false);
             Logs.checkLog(cn, mn, app, processLog);
         } finally {
-            cleanup(process, cn, mn, report, app, processLog);
+            cleanup(process, cn, mn, report, ws, processLog);
         }
     }
 
@@ -205,6 +211,7 @@ public class AppReproducersTest {
      * @throws InterruptedException
      */
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @Tag("resources")
     @IfMandrelVersion(min = "22.3", max = "22.3")
     public void resLocationsD(TestInfo testInfo) throws IOException, InterruptedException {
@@ -269,6 +276,7 @@ public class AppReproducersTest {
      * @throws InterruptedException
      */
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @Tag("resources")
     @IfMandrelVersion(min = "23.0")
     public void resLocationsE(TestInfo testInfo) throws IOException, InterruptedException {
@@ -327,12 +335,13 @@ public class AppReproducersTest {
         LOGGER.info("Testing app: " + app);
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             Files.createDirectories(Paths.get(appDir.getAbsolutePath() + File.separator + "logs"));
 
             // Build
@@ -362,7 +371,7 @@ public class AppReproducersTest {
                     .collect(Collectors.joining("\n", "\n", "\n")));
             Logs.checkLog(cn, mn, app, processLog);
         } finally {
-            cleanup(null, cn, mn, report, app, processLog);
+            cleanup(null, cn, mn, report, ws, processLog);
         }
     }
 
@@ -701,6 +710,7 @@ public class AppReproducersTest {
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @Tag("timezones")
     public void timezonesBakedIn(TestInfo testInfo) throws IOException, InterruptedException {
         final Apps app = Apps.TIMEZONES;
@@ -708,12 +718,13 @@ public class AppReproducersTest {
         Process process = null;
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             Files.createDirectories(Paths.get(appDir.getAbsolutePath() + File.separator + "logs"));
 
             // Build
@@ -785,7 +796,7 @@ public class AppReproducersTest {
             processStopper(process, false);
             Logs.checkLog(cn, mn, app, processLog);
         } finally {
-            cleanup(process, cn, mn, report, app, processLog);
+            cleanup(process, cn, mn, report, ws, processLog);
         }
     }
 
@@ -798,6 +809,7 @@ public class AppReproducersTest {
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @IfMandrelVersion(minJDK = "21.0.3")
     public void monitorFieldOffsetTest(TestInfo testInfo) throws IOException, InterruptedException {
         monitorFieldOffsetOK(testInfo, Apps.MONITOR_OFFSET_OK);
@@ -809,13 +821,14 @@ public class AppReproducersTest {
         Process process = null;
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         final boolean inContainer = app.runtimeContainer != ContainerNames.NONE;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             if (inContainer) {
                 removeContainers(app.runtimeContainer.name);
             }
@@ -837,7 +850,7 @@ public class AppReproducersTest {
             assertTrue(searchLogLines(pok, processLog, Charset.defaultCharset()), "Expected pattern " + pok + " was not found in the log." +
                     "Perhaps ContendedPaddingWidth default has changed from 128 bytes to something else?");
         } finally {
-            cleanup(process, cn, mn, report, app, processLog);
+            cleanup(process, cn, mn, report, ws, processLog);
         }
     }
 
@@ -846,13 +859,14 @@ public class AppReproducersTest {
         Process process = null;
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         final boolean inContainer = app.runtimeContainer != ContainerNames.NONE;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             if (inContainer) {
                 removeContainers(app.runtimeContainer.name);
             }
@@ -865,7 +879,7 @@ public class AppReproducersTest {
             final Pattern pnok = Pattern.compile(".*Class monitor_field_offset.Main480 has an invalid monitor field offset.*");
             assertTrue(searchLogLines(pnok, processLog, Charset.defaultCharset()), "Expected pattern " + pnok + " was not found in the log.");
         } finally {
-            cleanup(process, cn, mn, report, app, processLog);
+            cleanup(process, cn, mn, report, ws, processLog);
         }
     }
 
@@ -877,6 +891,7 @@ public class AppReproducersTest {
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @IfMandrelVersion(min = "23.1.6")
     public void jdkReflectionsTest(TestInfo testInfo) throws IOException, InterruptedException {
         jdkReflections(testInfo, Apps.JDK_REFLECTIONS);
@@ -888,13 +903,14 @@ public class AppReproducersTest {
         File buildLog = null;
         File runLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         final boolean inContainer = app.runtimeContainer != ContainerNames.NONE;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             if (inContainer) {
                 removeContainers(app.runtimeContainer.name);
             }
@@ -922,11 +938,12 @@ public class AppReproducersTest {
                     "Expected pattern " + p1 + " was not found in the log. Check " + getLogsDir(cn, mn) + File.separator + runLog.getName() +
                             ". The method getNextThreadIdOffset is deleted from native-image intentionally.");
         } finally {
-            cleanup(process, cn, mn, report, app, buildLog, runLog);
+            cleanup(process, cn, mn, report, ws, buildLog, runLog);
         }
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @IfMandrelVersion(min = "23.1.7")
     public void cacertsTest(TestInfo testInfo) throws IOException, InterruptedException {
         cacerts(testInfo, Apps.CACERTS);
@@ -938,13 +955,14 @@ public class AppReproducersTest {
         File buildLog = null;
         File runLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         final boolean inContainer = app.runtimeContainer != ContainerNames.NONE;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             if (inContainer) {
                 removeContainers(app.runtimeContainer.name);
             }
@@ -969,7 +987,7 @@ public class AppReproducersTest {
             assertTrue(searchLogLines(p, runLog, Charset.defaultCharset()),
                     "Expected pattern " + p2 + " was not found in the log. Check " + getLogsDir(cn, mn) + File.separator + runLog.getName());
         } finally {
-            cleanup(process, cn, mn, report, app, buildLog, runLog);
+            cleanup(process, cn, mn, report, ws, buildLog, runLog);
         }
     }
 
@@ -981,6 +999,8 @@ public class AppReproducersTest {
     @Test
     @Tag("builder-image")
     @IfMandrelVersion(min = "23.1.8", max = "23.1.999", inContainer = true)
+    // PerfCheckTest#testVThreadsScalability builds in apps/vthread_props too
+    @ResourceLock("apps/vthread_props")
     public void vthreadsPropsContainer23_1Test(TestInfo testInfo) throws IOException, InterruptedException {
         vthreadsProps(testInfo, Apps.VTHREADS_PROPS_BUILDER_IMAGE);
     }
@@ -995,11 +1015,14 @@ public class AppReproducersTest {
     @Test
     @Tag("builder-image")
     @IfMandrelVersion(min = "24.2.0", inContainer = true)
+    // PerfCheckTest#testVThreadsScalability builds in apps/vthread_props too
+    @ResourceLock("apps/vthread_props")
     public void vthreadsPropsContainer24_2Test(TestInfo testInfo) throws IOException, InterruptedException {
         vthreadsProps(testInfo, Apps.VTHREADS_PROPS_BUILDER_IMAGE);
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @IfMandrelVersion(min = "24.2.0")
     public void vthreadsProps24_2Test(TestInfo testInfo) throws IOException, InterruptedException {
         vthreadsProps(testInfo, Apps.VTHREADS_PROPS);
@@ -1014,9 +1037,10 @@ public class AppReproducersTest {
         Process process = null;
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         final boolean inContainer = app.runtimeContainer != ContainerNames.NONE;
         Map<String, String> env = null;
         // Linux/Mac only for now when not run in a container and on a JDK < 21 (e.g. 17)
@@ -1031,7 +1055,7 @@ public class AppReproducersTest {
         final Pattern p = Pattern.compile(".*=== RESULT: true true true true true true ===.*");
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             if (inContainer) {
                 for (String base : RUNTIME_IMAGE_BASE) {
                     removeContainer(app.runtimeContainer.name + "_" + base);
@@ -1087,7 +1111,7 @@ public class AppReproducersTest {
                             }
                         });
             }
-            cleanup(process, cn, mn, report, app, processLog);
+            cleanup(process, cn, mn, report, ws, processLog);
             if (inContainer) {
                 for (String base : RUNTIME_IMAGE_BASE) {
                     removeContainer(app.runtimeContainer.name + "_" + base);
@@ -1104,6 +1128,7 @@ public class AppReproducersTest {
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @IfMandrelVersion(min = "23.1.5", max = "23.1.999")
     public void forSerialization23_1Test(TestInfo testInfo) throws IOException, InterruptedException {
         forSerialization(testInfo, Apps.FOR_SERIALIZATION);
@@ -1117,6 +1142,7 @@ public class AppReproducersTest {
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @IfMandrelVersion(min = "24.2.0")
     public void forSerializationPost24_2Test(TestInfo testInfo) throws IOException, InterruptedException {
         forSerialization(testInfo, Apps.FOR_SERIALIZATION);
@@ -1126,14 +1152,15 @@ public class AppReproducersTest {
         LOGGER.info("Testing app: " + app);
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
-        final File metaINF = Path.of(BASE_DIR, app.dir, "src", "main", "resources", "META-INF", "native-image").toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
+        final File metaINF = Path.of(appDir.getAbsolutePath(), "src", "main", "resources", "META-INF", "native-image").toFile();
         final boolean inContainer = app.runtimeContainer != ContainerNames.NONE;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             if (metaINF.exists()) {
                 FileUtils.cleanDirectory(metaINF);
             }
@@ -1164,7 +1191,7 @@ public class AppReproducersTest {
             }
 
         } finally {
-            cleanup(null, cn, mn, report, app, processLog);
+            cleanup(null, cn, mn, report, ws, processLog);
             if (metaINF.exists()) {
                 FileUtils.cleanDirectory(metaINF);
             }
@@ -1172,6 +1199,7 @@ public class AppReproducersTest {
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @Tag("calendars")
     @IfMandrelVersion(min = "22.3.5") // The fix for this test is in 22.3.5 and better
     public void calendarsBakedIn(TestInfo testInfo) throws IOException, InterruptedException {
@@ -1180,12 +1208,13 @@ public class AppReproducersTest {
         Process process = null;
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             Files.createDirectories(Paths.get(appDir.getAbsolutePath() + File.separator + "logs"));
 
             // Build
@@ -1207,11 +1236,12 @@ public class AppReproducersTest {
             processStopper(process, false);
             Logs.checkLog(cn, mn, app, processLog);
         } finally {
-            cleanup(process, cn, mn, report, app, processLog);
+            cleanup(process, cn, mn, report, ws, processLog);
         }
     }
 
     @Test
+    @Execution(ExecutionMode.CONCURRENT)
     @Tag("jdk-17")
     @Tag("recordannotations")
     @IfMandrelVersion(min = "22.1", minJDK = "17")
@@ -1225,12 +1255,13 @@ public class AppReproducersTest {
         Process process = null;
         File processLog = null;
         final StringBuilder report = new StringBuilder();
-        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
         try {
             // Cleanup
-            cleanTarget(app);
+            ws.clean();
             Files.createDirectories(Paths.get(appDir.getAbsolutePath() + File.separator + "logs"));
 
             // Build
@@ -1256,12 +1287,14 @@ public class AppReproducersTest {
             processStopper(process, false);
             Logs.checkLog(cn, mn, app, processLog);
         } finally {
-            cleanup(process, cn, mn, report, app, processLog);
+            cleanup(process, cn, mn, report, ws, processLog);
         }
     }
 
     @Test
     @Tag("nativeJVMTextProcessing")
+    // DebugSymbolsTest#debugSymbolsSmokeGDB and JFRTest#jfrSmoke build in apps/debug-symbols-smoke too
+    @ResourceLock("apps/debug-symbols-smoke")
     public void nativeJVMTextProcessing(TestInfo testInfo) throws IOException, InterruptedException {
         final Apps app = Apps.DEBUG_SYMBOLS_SMOKE;
         LOGGER.info("Testing app: " + app);
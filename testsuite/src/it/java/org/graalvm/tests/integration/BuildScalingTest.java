@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration;
+
+import org.graalvm.home.Version;
+import org.graalvm.tests.integration.utils.Apps;
+import org.graalvm.tests.integration.utils.BuildProfiler;
+import org.graalvm.tests.integration.utils.JSONWriter;
+import org.graalvm.tests.integration.utils.Logs;
+import org.graalvm.tests.integration.utils.ResultsStore;
+import org.graalvm.tests.integration.utils.Maven;
+import org.graalvm.tests.integration.utils.versions.IfMandrelVersion;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.AppReproducersTest.BASE_DIR;
+import static org.graalvm.tests.integration.PerfCheckTest.populateHeader;
+import static org.graalvm.tests.integration.utils.Commands.builderRoutine;
+import static org.graalvm.tests.integration.utils.Commands.cleanTarget;
+import static org.graalvm.tests.integration.utils.Commands.findExecutable;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
+import static org.graalvm.tests.integration.utils.Commands.quarkusPatch;
+import static org.graalvm.tests.integration.utils.Commands.runCommand;
+import static org.graalvm.tests.integration.utils.versions.UsedVersion.getVersion;
+
+/**
+ * Rebuilds one app with each combination of builder threads, i.e. --parallelism, and builder heap, i.e. -J-Xmx,
+ * so as it is known how native-image scales with cores and memory on a given runner. Stage times,
+ * CPU utilisation and peak RSS come from BuildProfiler, speedup and efficiency are relative to the
+ * first BUILD_SCALING_THREADS value with the same heap.
+ *
+ * The options are passed to native-image in NATIVE_IMAGE_OPTIONS, so as any app's build command can be used as is.
+ * The run takes threads * heaps full builds, hence its own tag.
+ */
+@Tag("build-scaling")
+@DisabledOnOs({ OS.WINDOWS, OS.MAC })
+// DebugSymbolsTest, PerfCheckTest and RuntimesSmokeTest build in apps/quarkus-full-microprofile too
+@ResourceLock("apps/quarkus-full-microprofile")
+public class BuildScalingTest {
+
+    private static final Logger LOGGER = Logger.getLogger(BuildScalingTest.class.getName());
+
+    public static final Apps APP = Apps.valueOf(getProperty("BUILD_SCALING_APP", Apps.QUARKUS_FULL_MICROPROFILE.name()));
+    public static final List<Integer> THREADS = Arrays.stream(getProperty("BUILD_SCALING_THREADS", "1,2,4,8").split(","))
+            .map(String::trim).filter(t -> !t.isEmpty()).map(Integer::parseInt).collect(Collectors.toList());
+    // -J-Xmx values, e.g. 4g,8g
+    public static final List<String> HEAPS = Arrays.stream(getProperty("BUILD_SCALING_HEAPS", "4g,8g").split(","))
+            .map(String::trim).filter(h -> !h.isEmpty()).collect(Collectors.toList());
+
+    @Test
+    @IfMandrelVersion(min = "23.0")
+    public void testBuildScaling(TestInfo testInfo) throws IOException, InterruptedException {
+        final Apps app = APP;
+        LOGGER.info("Testing app: " + app);
+        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
+        final String cn = testInfo.getTestClass().get().getCanonicalName();
+        final String mn = testInfo.getTestMethod().get().getName();
+        final List<File> buildLogs = new ArrayList<>();
+        final List<Map<String, Object>> reports = new ArrayList<>();
+        final StringBuilder markdown = new StringBuilder();
+        final String patch = quarkusPatch(appDir);
+        // Same as RuntimesSmokeTest, harmless for apps without the option.
+        final Map<String, String> switches = getVersion(false).compareTo(Version.create(23, 1, 0)) >= 0 ?
+                Map.of("-H:Log=registerResource:", "-H:+UnlockExperimentalVMOptions,-H:Log=registerResource:,-H:-UnlockExperimentalVMOptions") :
+                Map.of();
+
+        try {
+            Files.createDirectories(Paths.get(appDir.getAbsolutePath(), "logs"));
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", patch), appDir);
+            }
+
+            Maven.warmUp(app);
+            final List<String> stageNames = new ArrayList<>();
+            for (String heap : HEAPS) {
+                long baselineWallMs = -1;
+                int baselineThreads = -1;
+                for (int threads : THREADS) {
+                    cleanTarget(app);
+                    final File buildLog = Path.of(appDir.getAbsolutePath(), "logs", "build-" + threads + "-" + heap + ".log").toFile();
+                    buildLogs.add(buildLog);
+                    final String options = "--parallelism=" + threads + " -J-Xmx" + heap;
+                    LOGGER.info("Building " + app + " with NATIVE_IMAGE_OPTIONS=" + options);
+                    final BuildProfiler profile = BuildProfiler.start(buildLog);
+                    builderRoutine(app, null, null, null, appDir, buildLog, Map.of("NATIVE_IMAGE_OPTIONS", options), switches);
+                    profile.stop();
+                    findExecutable(Path.of(appDir.getAbsolutePath(), "target"), Pattern.compile(".*"));
+                    if (baselineWallMs == -1) {
+                        baselineWallMs = profile.wallMs;
+                        baselineThreads = threads;
+                    }
+                    final double speedup = (double) baselineWallMs / profile.wallMs;
+                    final double efficiency = speedup / ((double) threads / baselineThreads);
+                    final Map<String, Double> stageSeconds = new LinkedHashMap<>();
+                    for (BuildProfiler.Stage stage : profile.stages) {
+                        stageSeconds.merge(stage.name, stage.seconds, Double::sum);
+                        if (!stageNames.contains(stage.name)) {
+                            stageNames.add(stage.name);
+                        }
+                    }
+                    final Map<String, Object> report = populateHeader(new TreeMap<>());
+                    report.put("app", app.toString());
+                    report.put("mode", Logs.Mode.NATIVE.toString());
+                    report.put("parallelism", threads);
+                    report.put("builderXmx", heap);
+                    report.put("builderXmxMbSeen", profile.builderXmxMb);
+                    report.put("buildTimeMs", profile.wallMs);
+                    report.put("cpuMs", profile.cpuMs);
+                    report.put("cpuUtilisation", profile.cpuUtilisation());
+                    report.put("peakRssKb", profile.peakRssKb);
+                    report.put("peakBuilderRssKb", profile.peakBuilderRssKb);
+                    report.put("reportedPeakRssKb", profile.reportedPeakRssKb);
+                    report.put("speedup", speedup);
+                    report.put("efficiency", efficiency);
+                    stageSeconds.forEach((name, seconds) -> report.put(stageKey(name), seconds));
+                    report.put("testMethod", cn + "#" + mn);
+                    reports.add(report);
+                }
+            }
+
+            final StringBuilder table = new StringBuilder("| threads | -J-Xmx | build s | speedup | efficiency | CPU utilisation | " +
+                    "builder peak RSS kB | reported peak RSS kB |");
+            stageNames.forEach(name -> table.append(' ').append(name).append(" s |"));
+            table.append("\n|---|---|---|---|---|---|---|---|").append("---|".repeat(stageNames.size())).append('\n');
+            for (Map<String, Object> r : reports) {
+                table.append(String.format("| %s | %s | %.1f | %.2f | %.2f | %.2f | %s | %s |", r.get("parallelism"), r.get("builderXmx"),
+                        (long) r.get("buildTimeMs") / 1000.0, r.get("speedup"), r.get("efficiency"), r.get("cpuUtilisation"),
+                        r.get("peakBuilderRssKb"), r.get("reportedPeakRssKb")));
+                stageNames.forEach(name -> table.append(' ').append(r.containsKey(stageKey(name)) ?
+                        String.format("%.1f", r.get(stageKey(name))) : "n/a").append(" |"));
+                table.append('\n');
+            }
+            Logs.appendln(markdown, "Native image build scaling of " + app + ", " + getVersion(false) + ", speedup and efficiency " +
+                    "relative to " + THREADS.get(0) + " threads with the same heap:");
+            Logs.appendln(markdown, table.toString());
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
+            LOGGER.info(reportPayload);
+            Files.createDirectories(Logs.getLogsDir(cn, mn));
+            Files.writeString(Path.of(Logs.getLogsDir(cn, mn).toString(), "build-scaling.json"), reportPayload, UTF_8);
+            for (File buildLog : buildLogs) {
+                Logs.checkLog(cn, mn, app, buildLog);
+            }
+        } finally {
+            for (File buildLog : buildLogs) {
+                Logs.archiveLog(cn, mn, buildLog);
+            }
+            Logs.writeReport(cn, mn, markdown.toString());
+            cleanTarget(app);
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", "-R", patch), appDir);
+            }
+        }
+    }
+
+    // e.g. Compiling methods -> stageCompilingMethodsS
+    private static String stageKey(String stage) {
+        return "stage" + stage.replace(" ", "") + "S";
+    }
+}
@@ -33,6 +33,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -102,6 +103,8 @@ public class DebugSymbolsTest {
     @Test
     @Tag("debugSymbolsSmoke")
     @DisabledOnOs({OS.WINDOWS, OS.MAC}) // This targets GCC/GDB toolchain specifically.
+    // AppReproducersTest#nativeJVMTextProcessing and JFRTest#jfrSmoke build in apps/debug-symbols-smoke too
+    @ResourceLock("apps/debug-symbols-smoke")
     public void debugSymbolsSmokeGDB(TestInfo testInfo) throws IOException, InterruptedException {
         final Apps app = Apps.DEBUG_SYMBOLS_SMOKE;
         LOGGER.info("Testing app: " + app);
@@ -197,6 +200,8 @@ public class DebugSymbolsTest {
     @Test
     @Tag("debugSymbolsQuarkus")
     @DisabledOnOs({OS.WINDOWS, OS.MAC}) // This targets GCC/GDB toolchain specifically.
+    // BuildScalingTest, PerfCheckTest and RuntimesSmokeTest build in apps/quarkus-full-microprofile too
+    @ResourceLock("apps/quarkus-full-microprofile")
     public void debugSymbolsQuarkus(TestInfo testInfo) throws IOException, InterruptedException {
         final Apps app = Apps.DEBUG_QUARKUS_FULL_MICROPROFILE;
         LOGGER.info("Testing app: " + app);
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration;
+
+import org.graalvm.tests.integration.utils.Apps;
+import org.graalvm.tests.integration.utils.LoadGenerator;
+import org.graalvm.tests.integration.utils.JSONWriter;
+import org.graalvm.tests.integration.utils.Logs;
+import org.graalvm.tests.integration.utils.ResultsStore;
+import org.graalvm.tests.integration.utils.PayloadCache;
+import org.graalvm.tests.integration.utils.WebpageTester;
+import org.graalvm.tests.integration.utils.versions.IfMandrelVersion;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.AppReproducersTest.BASE_DIR;
+import static org.graalvm.tests.integration.PerfCheckTest.THROUGHPUT_CONCURRENCY;
+import static org.graalvm.tests.integration.PerfCheckTest.populateHeader;
+import static org.graalvm.tests.integration.utils.Commands.builderRoutine;
+import static org.graalvm.tests.integration.utils.Commands.cleanTarget;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.graalvm.tests.integration.utils.Commands.getRSSkB;
+import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
+import static org.graalvm.tests.integration.utils.Commands.parsePausesUs;
+import static org.graalvm.tests.integration.utils.Commands.parsePort;
+import static org.graalvm.tests.integration.utils.Commands.processStopper;
+import static org.graalvm.tests.integration.utils.Commands.quarkusPatch;
+import static org.graalvm.tests.integration.utils.Commands.readLinesFrom;
+import static org.graalvm.tests.integration.utils.Commands.replaceSwitchesInCmd;
+import static org.graalvm.tests.integration.utils.Commands.runCommand;
+import static org.graalvm.tests.integration.utils.Commands.waitForTcpClosed;
+import static org.graalvm.tests.integration.utils.versions.UsedVersion.getVersion;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs quarkus-json under sustained /load/hash load across a grid of GCs and heap sizes,
+ * so as production GC settings can be picked from data, i.e. throughput, pause percentiles
+ * and RSS per cell. The jar is run with each GC_MATRIX_JVM_GCS, the native executable is built
+ * once per GC_MATRIX_NATIVE_GCS as the GC is a build time option. Native GCs the distribution
+ * does not support, e.g. G1 on Mandrel, are skipped when native-image says so, any other failed
+ * build fails the test. Each cell runs with each GC_MATRIX_HEAPS.
+ *
+ * The run takes cells * GC_MATRIX_DURATION_S plus builds, hence its own tag.
+ */
+@Tag("gc-matrix")
+@DisabledOnOs({ OS.WINDOWS, OS.MAC })
+public class GCMatrixTest {
+
+    private static final Logger LOGGER = Logger.getLogger(GCMatrixTest.class.getName());
+
+    public static final String JVM_GC_TOKEN = "<JVM_GC>";
+    public static final String NATIVE_GC_TOKEN = "<NATIVE_GC>";
+    public static final String XMX_TOKEN = "<XMX>";
+    public static final String XMN_TOKEN = "<XMN>";
+
+    // -XX:+Use<GC>GC
+    public static final List<String> JVM_GCS = list(getProperty("GC_MATRIX_JVM_GCS", "Serial,G1,Parallel,Z"));
+    // --gc=<GC>
+    public static final List<String> NATIVE_GCS = list(getProperty("GC_MATRIX_NATIVE_GCS", "serial,epsilon,G1"));
+    // Xmx[:Xmn], e.g. 512m,2560m:256m
+    public static final List<String> HEAPS = list(getProperty("GC_MATRIX_HEAPS", "512m,2560m,2560m:256m"));
+    public static final int DURATION_S = Integer.parseInt(getProperty("GC_MATRIX_DURATION_S", "20"));
+    // /dump?records=...&shape=... is the request body, see ExampleResource#hello
+    public static final int RECORDS = Integer.parseInt(getProperty("GC_MATRIX_RECORDS", "1000"));
+    public static final String SHAPE = getProperty("GC_MATRIX_SHAPE", "flat");
+
+    @Test
+    @IfMandrelVersion(min = "21.3")
+    public void testQuarkusJSONGCMatrix(TestInfo testInfo) throws IOException, InterruptedException, URISyntaxException {
+        final Apps app = Apps.QUARKUS_JSON_PERF_GC_MATRIX;
+        LOGGER.info("Testing app: " + app);
+        Process process = null;
+        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
+        final File processLog = Path.of(appDir.getAbsolutePath(), "logs", "run.log").toFile();
+        final String cn = testInfo.getTestClass().get().getCanonicalName();
+        final String mn = testInfo.getTestMethod().get().getName();
+        final List<File> buildLogs = new ArrayList<>();
+        final List<Map<String, Object>> reports = new ArrayList<>();
+        final StringBuilder markdown = new StringBuilder();
+        final File json = Path.of(appDir.getAbsolutePath(), "logs", "record.json").toFile();
+        final String patch = quarkusPatch(appDir);
+
+        try {
+            // Cleanup
+            cleanTarget(app);
+            Files.createDirectories(Paths.get(appDir.getAbsolutePath(), "logs"));
+
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", patch), appDir);
+            }
+
+            // Build executables, the jar is rebuilt along with each native GC, it takes seconds.
+            final List<String> nativeGCs = new ArrayList<>();
+            for (String gc : NATIVE_GCS) {
+                final File buildLog = Path.of(appDir.getAbsolutePath(), "logs", "build-" + gc + ".log").toFile();
+                builderRoutine(app, null, null, null, appDir, buildLog, null, Map.of(NATIVE_GC_TOKEN, gc));
+                if (Files.exists(Path.of(appDir.getAbsolutePath(), "target", "quarkus-json_" + gc + "-runner"))) {
+                    nativeGCs.add(gc);
+                    buildLogs.add(buildLog);
+                } else if (readLinesFrom(buildLog, 0).stream().anyMatch(unsupportedGC(gc).asMatchPredicate())) {
+                    LOGGER.warn("Native GC " + gc + " is not supported by " + getVersion(false) + ", see " + buildLog.getName() + ". Skipping its cells.");
+                    Logs.archiveLog(cn, mn, buildLog);
+                } else {
+                    // Archived in the finally block below
+                    buildLogs.add(buildLog);
+                    Logs.checkLog(cn, mn, app, buildLog);
+                    fail("Native build with --gc=" + gc + " failed, see " + buildLog.getName() + ".");
+                }
+            }
+
+            final StringBuilder table = new StringBuilder(
+                    "| mode | GC | Xmx | Xmn | req/s | errors | p50 latency ms | p99 latency ms | pauses | " +
+                            "p50 pause ms | p90 pause ms | p99 pause ms | max pause ms | total pauses ms | RSS peak kB |\n" +
+                            "|---|---|---|---|---|---|---|---|---|---|---|---|---|---|---|\n");
+            final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
+            for (int i = 0; i < app.buildAndRunCmds.runCommands.length; i++) {
+                final boolean isJVM = i == 0;
+                for (String gc : isJVM ? JVM_GCS : nativeGCs) {
+                    for (String heap : HEAPS) {
+                        final String[] xmxXmn = heap.split(":");
+                        final Map<String, String> switches = new HashMap<>();
+                        switches.put(JVM_GC_TOKEN, "-XX:+Use" + gc + "GC");
+                        switches.put(NATIVE_GC_TOKEN, gc);
+                        switches.put(XMX_TOKEN, "-Xmx" + xmxXmn[0]);
+                        switches.put(XMN_TOKEN, xmxXmn.length > 1 ? "-Xmn" + xmxXmn[1] : "");
+                        final List<String> cmd = replaceSwitchesInCmd(getRunCommand(app.buildAndRunCmds.runCommands[i]), switches);
+                        Files.writeString(processLog.toPath(), String.join(" ", cmd) + '\n', StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+                        process = runCommand(cmd, appDir, processLog, app);
+                        final long timeToFirstOKRequestMs = WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
+                        PayloadCache.evict(json.toPath());
+                        try (final ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(
+                                app.urlContent.urlContent[1][0] + "?records=" + RECORDS + "&shape=" + SHAPE).openStream());
+                                final FileOutputStream fileOutputStream = new FileOutputStream(json)) {
+                            fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
+                        }
+                        final HttpRequest request = HttpRequest.newBuilder()
+                                .method("POST", PayloadCache.publisher(json.toPath()))
+                                .version(HttpClient.Version.HTTP_1_1)
+                                .uri(new URI(app.urlContent.urlContent[3][0]))
+                                .headers("Content-Type", "application/json", "Accept", "text/plain")
+                                .build();
+                        // Pauses during startup and the body download are not interesting.
+                        final long logOffset = processLog.length();
+                        final LoadGenerator.LoadResult r = LoadGenerator.run(hc, () -> request, Files.size(json.toPath()),
+                                THROUGHPUT_CONCURRENCY, DURATION_S, process.pid());
+                        final long rssKb = getRSSkB(process.pid());
+                        final long[] pauses = parsePausesUs(readLinesFrom(processLog, logOffset), isJVM).stream()
+                                .mapToLong(Long::longValue).sorted().toArray();
+                        processStopper(process, false);
+                        assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
+                                "Main port is still open");
+                        final Map<String, Object> report = populateHeader(new TreeMap<>());
+                        report.put("mode", isJVM ? Logs.Mode.JVM.toString() : Logs.Mode.NATIVE.toString());
+                        report.put("gc", gc);
+                        report.put("xmx", xmxXmn[0]);
+                        report.put("xmn", xmxXmn.length > 1 ? xmxXmn[1] : "");
+                        report.put("file", String.join(" ", cmd));
+                        report.put("timeToFirstOKRequestMs", timeToFirstOKRequestMs);
+                        report.put("requestsPerS", r.requestsPerS());
+                        report.put("errors", r.errors);
+                        report.put("p50LatencyNs", r.p50LatencyNs);
+                        report.put("p99LatencyNs", r.p99LatencyNs);
+                        report.put("pauses", pauses.length);
+                        report.put("p50PauseUs", LoadGenerator.percentile(pauses, 50));
+                        report.put("p90PauseUs", LoadGenerator.percentile(pauses, 90));
+                        report.put("p99PauseUs", LoadGenerator.percentile(pauses, 99));
+                        report.put("maxPauseUs", LoadGenerator.percentile(pauses, 100));
+                        report.put("totalPausesUs", Arrays.stream(pauses).sum());
+                        report.put("pauseHistogramUs", JSONWriter.Histogram.of(pauses));
+                        report.put("rssPeakKb", r.rssPeakKb);
+                        report.put("rssKb", rssKb);
+                        report.put("testMethod", cn + "#" + mn);
+                        reports.add(report);
+                        table.append(String.format("| %s | %s | %s | %s | %d | %d | %.1f | %.1f | %d | %.3f | %.3f | %.3f | %.3f | %.1f | %d |%n",
+                                report.get("mode"), gc, xmxXmn[0], report.get("xmn"), r.requestsPerS(), r.errors,
+                                r.p50LatencyNs / 1e6, r.p99LatencyNs / 1e6, pauses.length,
+                                LoadGenerator.percentile(pauses, 50) / 1e3, LoadGenerator.percentile(pauses, 90) / 1e3,
+                                LoadGenerator.percentile(pauses, 99) / 1e3, LoadGenerator.percentile(pauses, 100) / 1e3,
+                                Arrays.stream(pauses).sum() / 1e3, r.rssPeakKb));
+                        if (r.errors > 0) {
+                            LOGGER.warn("Cell " + report.get("mode") + " " + gc + " " + heap + " had " + r.errors + " failed requests, e.g. it ran out of heap.");
+                        }
+                    }
+                }
+            }
+            Logs.appendln(markdown, "GC matrix, " + THROUGHPUT_CONCURRENCY + " clients for " + DURATION_S + "s per cell, /load/hash with " +
+                    RECORDS + " " + SHAPE + " records:");
+            Logs.appendln(markdown, table.toString());
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
+            LOGGER.info(reportPayload);
+            Files.createDirectories(Logs.getLogsDir(cn, mn));
+            Files.writeString(Path.of(Logs.getLogsDir(cn, mn).toString(), "gc-matrix.json"), reportPayload, UTF_8);
+            for (File buildLog : buildLogs) {
+                Logs.checkLog(cn, mn, app, buildLog);
+            }
+            Logs.checkLog(cn, mn, app, processLog);
+        } finally {
+            PayloadCache.clear();
+            Files.deleteIfExists(json.toPath());
+            if (process != null) {
+                processStopper(process, true);
+            }
+            for (File buildLog : buildLogs) {
+                Logs.archiveLog(cn, mn, buildLog);
+            }
+            Logs.archiveLog(cn, mn, processLog);
+            Logs.writeReport(cn, mn, markdown.toString());
+            cleanTarget(app);
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", "-R", patch), appDir);
+            }
+        }
+    }
+
+    /**
+     * The error native-image stops with on a GC the distribution does not have, i.e. the GC option is unknown, e.g.
+     *
+     * Error: Could not find option 'UseG1GC'. Use -H:PrintFlags= to list all available options.
+     *
+     * or an error naming the GC as not supported or only available elsewhere.
+     */
+    public static Pattern unsupportedGC(String gc) {
+        return Pattern.compile("(?i).*Error: .*(Could not find option 'Use\\Q" + gc + "\\EGC'|\\b\\Q" + gc +
+                "\\E\\b.*(not supported|unsupported|only supported|only available)).*");
+    }
+
+    private static List<String> list(String commaSeparated) {
+        return Arrays.stream(commaSeparated.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toList());
+    }
+}
@@ -23,8 +23,11 @@ import org.graalvm.home.Version;
 import org.graalvm.tests.integration.utils.Apps;
 import org.graalvm.tests.integration.utils.Commands;
 import org.graalvm.tests.integration.utils.ContainerNames;
+import org.graalvm.tests.integration.utils.CpuSets;
 import org.graalvm.tests.integration.utils.LogBuilder;
 import org.graalvm.tests.integration.utils.Logs;
+import org.graalvm.tests.integration.utils.NoiseMonitor;
+import org.graalvm.tests.integration.utils.StartupPhases;
 import org.graalvm.tests.integration.utils.WebpageTester;
 import org.graalvm.tests.integration.utils.versions.IfMandrelVersion;
 import org.graalvm.tests.integration.utils.versions.IfQuarkusVersion;
@@ -37,6 +40,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -51,12 +55,15 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 import java.util.regex.Matcher;
@@ -140,6 +147,8 @@ public class JFRTest {
     @Tag("builder-image")
     @Tag("jfr")
     @IfMandrelVersion(min = "21.2", inContainer = true)
+    // AppReproducersTest#nativeJVMTextProcessing and DebugSymbolsTest#debugSymbolsSmokeGDB build in apps/debug-symbols-smoke too
+    @ResourceLock("apps/debug-symbols-smoke")
     public void jfrSmokeContainerTest(TestInfo testInfo) throws IOException, InterruptedException {
         jfrSmoke(testInfo, Apps.JFR_SMOKE_BUILDER_IMAGE);
     }
@@ -147,6 +156,8 @@ public class JFRTest {
     @Test
     @Tag("jfr")
     @IfMandrelVersion(min = "21.2")
+    // AppReproducersTest#nativeJVMTextProcessing and DebugSymbolsTest#debugSymbolsSmokeGDB build in apps/debug-symbols-smoke too
+    @ResourceLock("apps/debug-symbols-smoke")
     public void jfrSmokeTest(TestInfo testInfo) throws IOException, InterruptedException {
         jfrSmoke(testInfo, Apps.JFR_SMOKE);
     }
@@ -269,9 +280,9 @@ public class JFRTest {
                                              StringBuilder report, Path measurementsLog, File appDir, Apps appJfr, Apps appNoJfr,
                                              boolean inContainer) throws IOException, InterruptedException {
 
-        final Map<String, Integer> measurementsJfr = runBenchmarkForApp(endpoint, 5, appJfr, appDir, processLog,
+        final Map<String, Integer> measurementsJfr = runQuietBenchmarkForApp(endpoint, 5, appJfr, appDir, processLog,
                 cn, mn, report, measurementsLog, inContainer, "jfr-perf-runner");
-        final Map<String, Integer> measurementsNoJfr = runBenchmarkForApp(endpoint, 5, appNoJfr, appDir, processLog,
+        final Map<String, Integer> measurementsNoJfr = runQuietBenchmarkForApp(endpoint, 5, appNoJfr, appDir, processLog,
                 cn, mn, report, measurementsLog, inContainer,  "jfr-plaintext-runner");
 
         LOGGER.info("JFR measurementsJfr records: " + measurementsJfr.size() + ", measurementsNoJfr records: " + measurementsNoJfr.size());
@@ -343,14 +354,34 @@ public class JFRTest {
         }
     }
 
-    private Map<String, Integer> runBenchmarkForApp(Endpoint endpoint, int trials, Apps app, File appDir, File processLog,
+    /**
+     * Re-runs the benchmark while NoiseMonitor finds the Hyperfoil run noisy, up to NOISE_RETRIES times,
+     * so as thresholds are applied to a quiet run if there was one. Only the last run is logged to measurements.
+     */
+    private Map<String, Integer> runQuietBenchmarkForApp(Endpoint endpoint, int trials, Apps app, File appDir, File processLog,
             String cn, String mn, StringBuilder report, Path measurementsLog,
             boolean inContainer, String binaryName) throws IOException, InterruptedException {
+        for (int retry = 0; ; retry++) {
+            final boolean last = retry >= NoiseMonitor.RETRIES;
+            final Map<String, Integer> measurements = runBenchmarkForApp(endpoint, trials, app, appDir, processLog,
+                    cn, mn, report, measurementsLog, inContainer, binaryName, last);
+            if (last || measurements.get("noisy") == 0) {
+                return measurements;
+            }
+            LOGGER.warn(endpoint + " benchmark of " + app + " was noisy, re-running it, retry " + (retry + 1) + " of " + NoiseMonitor.RETRIES);
+            Logs.appendln(report, endpoint + " benchmark of " + app + " was noisy, discarded and re-run.");
+        }
+    }
+
+    private Map<String, Integer> runBenchmarkForApp(Endpoint endpoint, int trials, Apps app, File appDir, File processLog,
+            String cn, String mn, StringBuilder report, Path measurementsLog,
+            boolean inContainer, String binaryName, boolean logMeasurements) throws IOException, InterruptedException {
 
         Process process = null;
         Process hyperfoilProcess = null;
         int rssSum = 0;
         int startupSum = 0;
+        final List<StartupPhases> startupPhases = new ArrayList<>(trials);
         final long[] tunnelPIDs = new long[] { -1L, -1L };
 
         try {
@@ -369,9 +400,14 @@ public class JFRTest {
                 clearCaches(); //TODO consider using warm up instead of clearing caches
                 Logs.appendln(report, "Trial " + i + " in " + appDir.getAbsolutePath());
                 Logs.appendlnSection(report, String.join(" ", cmd));
+                final StartupPhases phases = StartupPhases.beforeSpawn(processLog);
                 process = runCommand(cmd, appDir, processLog, app);
                 assertNotNull(process, "The test application failed to run. Check " + getLogsDir(cn, mn) + File.separator + processLog.getName());
+                if (!inContainer) {
+                    phases.monitor(process, processLog, 8080);
+                }
                 startupSum += WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
+                startupPhases.add(phases.stop());
                 if (inContainer) {
                     rssSum += getContainerMemoryKb(app.runtimeContainer.name);
                 } else {
@@ -390,7 +426,7 @@ public class JFRTest {
             }
 
             // Run Hyperfoil controller in container and expose port for test
-            final List<String> getAndStartHyperfoil = getRunCommand(app.buildAndRunCmds.runCommands[1]);
+            final List<String> getAndStartHyperfoil = CpuSets.pinLoad(getRunCommand(app.buildAndRunCmds.runCommands[1]));
             hyperfoilProcess = runCommand(getAndStartHyperfoil, appDir, processLog, app);
             Logs.appendln(report, appDir.getAbsolutePath());
             Logs.appendlnSection(report, String.join(" ", getAndStartHyperfoil));
@@ -415,6 +451,8 @@ public class JFRTest {
 
             // Run the benchmark
             disableTurbo();
+            final NoiseMonitor noise = inContainer ?
+                    NoiseMonitor.start(ContainerNames.HYPERFOIL.name, app.runtimeContainer.name) : NoiseMonitor.start(ContainerNames.HYPERFOIL.name);
             final HttpRequest benchmarkRequest = HttpRequest.newBuilder()
                     .uri(new URI(app.urlContent.urlContent[3][0] + "?templateParam=ENDPOINT=" + endpoint))
                     .GET()
@@ -426,7 +464,14 @@ public class JFRTest {
             // Wait for benchmark to complete
             Commands.waitForContainerLogToMatch(ContainerNames.HYPERFOIL.name,
                     Pattern.compile(".*Successfully persisted run.*", Pattern.DOTALL), 30, 2, TimeUnit.SECONDS);
+            final NoiseMonitor.Verdict verdict = noise.stop();
             enableTurbo();
+            Logs.appendln(report, endpoint + " benchmark of " + app.name() + " measurement window: " + verdict);
+            if (!inContainer) {
+                final Map<String, Object> cpus = new TreeMap<>();
+                CpuSets.record(cpus, process.pid());
+                Logs.appendln(report, "CPUs of the app and of Hyperfoil: " + cpus);
+            }
 
             // Get the results
             final HttpRequest resultsRequest = HttpRequest.newBuilder()
@@ -440,7 +485,7 @@ public class JFRTest {
 
             // Persist the benchmark result in case a human needs to see it.
             Files.writeString(Paths.get(appDir.getAbsolutePath(), "logs", endpoint + "-" + app.name().toLowerCase() + "-hyperfoil-result.json"),
-                    resultsResponseJson.toString(2), StandardOpenOption.CREATE_NEW);
+                    resultsResponseJson.toString(2), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 
             // Get image size in KB, safe to be within int.
             final int imageSizeKB = (int) (findExecutable(Path.of(appDir.getAbsolutePath(), "target"),
@@ -461,6 +506,7 @@ public class JFRTest {
             measurements.put("responseCount", resultsResponseJson.getJSONArray("stats").getJSONObject(0).getJSONObject("total").getJSONObject("summary").getInt("responseCount"));
             measurements.put("requestTimeouts", resultsResponseJson.getJSONArray("stats").getJSONObject(0).getJSONObject("total").getJSONObject("summary").getInt("requestTimeouts"));
             measurements.put("internalErrors", resultsResponseJson.getJSONArray("stats").getJSONObject(0).getJSONObject("total").getJSONObject("summary").getInt("internalErrors"));
+            measurements.put("noisy", verdict.noisy ? 1 : 0);
 
             LOGGER.info("mean:" + measurements.get("mean")
                     + ", max:" + measurements.get("max")
@@ -474,9 +520,10 @@ public class JFRTest {
                     + ", responseCount:" + measurements.get("responseCount")
                     + ", requestTimeouts:" + measurements.get("requestTimeouts")
                     + ", internalErrors:" + measurements.get("internalErrors")
+                    + ", noisy:" + measurements.get("noisy")
             );
 
-            final LogBuilder logBuilder = new LogBuilder();
+            final LogBuilder logBuilder = StartupPhases.aggregate(startupPhases).toLogBuilder(new LogBuilder());
             final LogBuilder.Log log = logBuilder.app(app)
                     .executableSizeKb(imageSizeKB)
                     .timeToFirstOKRequestMs(measurements.get("startup"))
@@ -487,8 +534,10 @@ public class JFRTest {
                     .responseTime90Percentile(measurements.get("p90"))
                     .responseTime99Percentile(measurements.get("p99"))
                     .build();
-            Logs.logMeasurements(log, measurementsLog);
-            Logs.appendln(report, endpoint + " Measurements " + app.name() + ":");
+            if (logMeasurements || !verdict.noisy) {
+                Logs.logMeasurements(log, measurementsLog);
+            }
+            Logs.appendln(report, endpoint + " Measurements " + app.name() + (verdict.noisy ? ", noisy" : "") + ":");
             Logs.appendln(report, log.headerMarkdown + "\n" + log.lineMarkdown);
             return measurements;
         } catch (URISyntaxException e) {
@@ -507,7 +556,8 @@ public class JFRTest {
             final Path recording = Paths.get(appDir.getAbsolutePath(), "logs", "flight-native.jfr");
             if (Files.exists(recording)) {
                 Files.move(recording,
-                        Paths.get(appDir.getAbsolutePath(), "logs", endpoint + "-" + app.name().toLowerCase() + "-flight-native.jfr"));
+                        Paths.get(appDir.getAbsolutePath(), "logs", endpoint + "-" + app.name().toLowerCase() + "-flight-native.jfr"),
+                        StandardCopyOption.REPLACE_EXISTING);
             }
             // Bury the tunnels
             if (IS_THIS_MACOS) {
@@ -22,9 +22,19 @@ package org.graalvm.tests.integration;
 import com.sun.management.OperatingSystemMXBean;
 import org.graalvm.home.Version;
 import org.graalvm.tests.integration.utils.Apps;
+import org.graalvm.tests.integration.utils.BuildProfiler;
 import org.graalvm.tests.integration.utils.Commands;
+import org.graalvm.tests.integration.utils.CpuSets;
+import org.graalvm.tests.integration.utils.LoadGenerator;
+import org.graalvm.tests.integration.utils.JSONWriter;
 import org.graalvm.tests.integration.utils.Logs;
+import org.graalvm.tests.integration.utils.ResultsStore;
+import org.graalvm.tests.integration.utils.Maven;
+import org.graalvm.tests.integration.utils.NoiseMonitor;
+import org.graalvm.tests.integration.utils.PayloadCache;
+import org.graalvm.tests.integration.utils.VThreadsBench;
 import org.graalvm.tests.integration.utils.WebpageTester;
+import org.graalvm.tests.integration.utils.Workspace;
 import org.graalvm.tests.integration.utils.versions.IfMandrelVersion;
 import org.graalvm.tests.integration.utils.versions.IfQuarkusVersion;
 import org.graalvm.tests.integration.utils.versions.QuarkusVersion;
@@ -35,6 +45,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -77,25 +88,29 @@ import static org.graalvm.tests.integration.utils.Commands.findFiles;
 import static org.graalvm.tests.integration.utils.Commands.getProperty;
 import static org.graalvm.tests.integration.utils.Commands.getRSSkB;
 import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
-import static org.graalvm.tests.integration.utils.Commands.mapToJSON;
+import static org.graalvm.tests.integration.utils.Commands.measureShutdown;
+import static org.graalvm.tests.integration.utils.Commands.parseGCWindow;
 import static org.graalvm.tests.integration.utils.Commands.parsePerfRecord;
 import static org.graalvm.tests.integration.utils.Commands.parsePort;
 import static org.graalvm.tests.integration.utils.Commands.parseSerialGCLog;
 import static org.graalvm.tests.integration.utils.Commands.processStopper;
+import static org.graalvm.tests.integration.utils.Commands.quarkusPatch;
+import static org.graalvm.tests.integration.utils.Commands.readLinesFrom;
 import static org.graalvm.tests.integration.utils.Commands.removeContainer;
 import static org.graalvm.tests.integration.utils.Commands.runCommand;
 import static org.graalvm.tests.integration.utils.Commands.runJaegerContainer;
 import static org.graalvm.tests.integration.utils.Commands.waitForFileToMatch;
 import static org.graalvm.tests.integration.utils.Commands.waitForTcpClosed;
 import static org.graalvm.tests.integration.utils.Uploader.PERF_APP_REPORT;
-import static org.graalvm.tests.integration.utils.Uploader.postBuildtimePayload;
-import static org.graalvm.tests.integration.utils.Uploader.postRuntimePayload;
+import static org.graalvm.tests.integration.utils.Uploader.enqueueBuildtimePayload;
+import static org.graalvm.tests.integration.utils.Uploader.enqueueRuntimePayload;
 import static org.graalvm.tests.integration.utils.versions.UsedVersion.getVersion;
-import static org.jboss.resteasy.spi.HttpResponseCodes.SC_ACCEPTED;
-import static org.jboss.resteasy.spi.HttpResponseCodes.SC_CREATED;
-import static org.jboss.resteasy.spi.HttpResponseCodes.SC_OK;
+import static org.graalvm.tests.integration.utils.versions.UsedVersion.isOracleGraalVM;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * @author Michal Karm Babacek <karm@redhat.com>
@@ -111,16 +126,39 @@ public class PerfCheckTest {
     public static final int LIGHT_REQUESTS = Integer.parseInt(getProperty("PERFCHECK_TEST_LIGHT_REQUESTS", "100"));
     public static final int HEAVY_REQUESTS = Integer.parseInt(getProperty("PERFCHECK_TEST_HEAVY_REQUESTS", "2"));
     public static final int MX_HEAP_MB = Integer.parseInt(getProperty("PERFCHECK_TEST_REQUESTS_MX_HEAP_MB", "2560"));
+    // Throughput mode for /load and /load/hash, switched off with 0 duration
+    public static final int THROUGHPUT_CONCURRENCY = Integer.parseInt(getProperty("PERFCHECK_TEST_THROUGHPUT_CONCURRENCY", "8"));
+    public static final int THROUGHPUT_DURATION_S = Integer.parseInt(getProperty("PERFCHECK_TEST_THROUGHPUT_DURATION_S", "0"));
+    // Comma separated request body sizes for /load, e.g. 1,1024,102400, empty to skip
+    public static final List<Long> PAYLOAD_SIZES_KB = Arrays.stream(getProperty("PERFCHECK_TEST_PAYLOAD_SIZES_KB", "").split(","))
+            .map(String::trim).filter(sz -> !sz.isEmpty()).map(Long::parseLong).collect(Collectors.toList());
+    // Comma separated record counts for the quarkus-json scaling sweep and the shape of the records, see ExampleResource#hello.
+    // The sweep takes long, it runs only when the counts are set, e.g. 100,1000,10000,100000,1000000.
+    public static final List<Integer> SCALING_RECORDS = Arrays.stream(getProperty("PERFCHECK_TEST_SCALING_RECORDS", "").split(","))
+            .map(String::trim).filter(r -> !r.isEmpty()).map(Integer::parseInt).collect(Collectors.toList());
+    public static final String SCALING_SHAPE = getProperty("PERFCHECK_TEST_SCALING_SHAPE", "tiny");
+    // 1.0 is linear, latency of 10x the records may take at most 10^SCALING_MAX_EXPONENT times longer
+    public static final double SCALING_MAX_EXPONENT = Double.parseDouble(getProperty("PERFCHECK_TEST_SCALING_MAX_EXPONENT", "1.25"));
+    private static final long SCALING_MIN_LATENCY_NS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Virtual threads benchmark, see apps/vthread_props Main#bench
+    public static final String VTHREADS_THREADS = getProperty("PERFCHECK_TEST_VTHREADS_THREADS", "10000,100000,1000000");
+    public static final String VTHREADS_PARK_RATIO = getProperty("PERFCHECK_TEST_VTHREADS_PARK_RATIO", "0.5");
+    public static final String VTHREADS_PIN_RATIO = getProperty("PERFCHECK_TEST_VTHREADS_PIN_RATIO", "0.01");
+    public static final String VTHREADS_PARK_MS = getProperty("PERFCHECK_TEST_VTHREADS_PARK_MS", "1");
+    public static final int VTHREADS_TIMEOUT_S = Integer.parseInt(getProperty("PERFCHECK_TEST_VTHREADS_TIMEOUT_S", "600"));
     // Build time constraint
     public static final int NATIVE_IMAGE_XMX_GB = Integer.parseInt(getProperty("PERFCHECK_TEST_NATIVE_IMAGE_XMX_GB", "8"));
 
     public static final String FINAL_NAME_TOKEN = "<FINAL_NAME>";
+    public static final String PGO_TOKEN = "<PGO>";
+    // How long the instrumented executable is trained on each of /load/hash and /stream/load/hash
+    public static final int PGO_TRAINING_DURATION_S = Integer.parseInt(getProperty("PERFCHECK_TEST_PGO_TRAINING_DURATION_S", "30"));
 
     // Reporting
     public static final String APP_RUNTIME_CONTEXT = "api/v1/perfstats/perf";
     public static final String APP_BUILDTIME_CONTEXT = "api/v1/image-stats";
 
-    public static Map<String, String> populateHeader(Map<String, String> report) {
+    public static Map<String, Object> populateHeader(Map<String, Object> report) {
         report.put("arch", getProperty("perf.app.arch", ARCH));
         report.put("os", getProperty("perf.app.os", System.getProperty("os.name")));
         report.put("quarkusVersion", QUARKUS_VERSION.isSnapshot() ?
@@ -128,18 +166,25 @@ public class PerfCheckTest {
         report.put("mandrelVersion", getVersion(false).toString());
         report.put("jdkVersion", String.format("%s.%s.%s", UsedVersion.jdkFeature(false),
                 UsedVersion.jdkInterim(false), UsedVersion.jdkUpdate(false)));
-        report.put("ramAvailableMB", Long.toString(
+        report.put("ramAvailableMB",
                 ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getFreePhysicalMemorySize()
-                        / 1024 / 1024));
-        report.put("coresAvailable", Integer.toString(
-                ManagementFactory.getOperatingSystemMXBean().getAvailableProcessors()));
+                        / 1024 / 1024);
+        report.put("coresAvailable",
+                ManagementFactory.getOperatingSystemMXBean().getAvailableProcessors());
         report.put("runnerDescription",
                 getProperty("PERF_APP_RUNNER_DESCRIPTION", ""));
         report.put("testApp", "https://github.com/Karm/mandrel-integration-tests/apps/quarkus-json/");
-        report.put("maxHeapSizeMB", String.valueOf(MX_HEAP_MB));
+        report.put("maxHeapSizeMB", MX_HEAP_MB);
         return report;
     }
 
+    /**
+     * @return JVM for a run command with -jar, NATIVE otherwise, i.e. the mode of the run's report
+     */
+    public static Logs.Mode modeOf(String[] runCommand) {
+        return Arrays.asList(runCommand).contains("-jar") ? Logs.Mode.JVM : Logs.Mode.NATIVE;
+    }
+
     @Test
     @IfMandrelVersion(min = "21.3", max = "23.999")
     public void testQuarkusJSONParseOnce(TestInfo testInfo) throws IOException, InterruptedException, URISyntaxException {
@@ -150,7 +195,7 @@ public class PerfCheckTest {
         final File processLog = Path.of(appDir.getAbsolutePath(), "logs", "build-and-run.log").toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
-        final List<Map<String, String>> reports = new ArrayList<>(3);
+        final List<Map<String, Object>> reports = new ArrayList<>(3);
         // Test data tmp storage
         final File json = Path.of(appDir.getAbsolutePath(), "logs", "record.json").toFile();
         String patch = null;
@@ -176,37 +221,48 @@ public class PerfCheckTest {
 
             int line = 0;
             for (int i = 0; i < app.buildAndRunCmds.runCommands.length; i++) {
-                final Map<String, String> report = populateHeader(new TreeMap<>());
+                final Map<String, Object> report = populateHeader(new TreeMap<>());
                 final List<String> cmd = getRunCommand(app.buildAndRunCmds.runCommands[i]);
+                report.put("mode", modeOf(app.buildAndRunCmds.runCommands[i]).toString());
                 Files.writeString(processLog.toPath(), String.join(" ", cmd) + '\n', StandardOpenOption.APPEND, StandardOpenOption.CREATE);
                 process = runCommand(cmd, appDir, processLog, app);
                 line = waitForFileToMatch(Pattern.compile(".*Events enabled.*"), processLog.toPath(), line, 20, 1, TimeUnit.SECONDS);
                 final long timeToFirstOKRequestMs = WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
-                report.put("timeToFirstOKRequestMs", String.valueOf(timeToFirstOKRequestMs));
-                // Test web pages
-                try (final ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(app.urlContent.urlContent[1][0]).openStream());
-                        final FileOutputStream fileOutputStream = new FileOutputStream(json)) {
-                    fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
-                }
-                final String[] headers = new String[] {
-                        "Content-Type", "application/json",
-                        "Accept", "text/plain"
-                };
-                final HttpRequest releaseRequest = HttpRequest.newBuilder()
-                        .method("POST", HttpRequest.BodyPublishers.ofFile(json.toPath()))
-                        .version(HttpClient.Version.HTTP_1_1)
-                        //[3][0] - uses sha-256, [2][0] just deserialization
-                        .uri(new URI(app.urlContent.urlContent[3][0]))
-                        .headers(headers)
-                        .build();
-                final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
-                for (int j = 0; j < HEAVY_REQUESTS; j++) {
-                    final HttpResponse<String> releaseResponse = hc.send(releaseRequest, HttpResponse.BodyHandlers.ofString());
-                    System.out.print(".");
-                    assertEquals(200, releaseResponse.statusCode(), "App returned a non HTTP 200 response. The perf report is invalid.");
+                report.put("timeToFirstOKRequestMs", timeToFirstOKRequestMs);
+                try (NoiseMonitor.Window ignored = NoiseMonitor.window(report)) {
+                    // Test web pages
+                    PayloadCache.evict(json.toPath());
+                    try (final ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(app.urlContent.urlContent[1][0]).openStream());
+                            final FileOutputStream fileOutputStream = new FileOutputStream(json)) {
+                        fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
+                    }
+                    final String[] headers = new String[] {
+                            "Content-Type", "application/json",
+                            "Accept", "text/plain"
+                    };
+                    final HttpRequest releaseRequest = HttpRequest.newBuilder()
+                            .method("POST", PayloadCache.publisher(json.toPath()))
+                            .version(HttpClient.Version.HTTP_1_1)
+                            //[3][0] - uses sha-256, [2][0] just deserialization
+                            .uri(new URI(app.urlContent.urlContent[3][0]))
+                            .headers(headers)
+                            .build();
+                    final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
+                    for (int j = 0; j < HEAVY_REQUESTS; j++) {
+                        final HttpResponse<String> releaseResponse = hc.send(releaseRequest, HttpResponse.BodyHandlers.ofString());
+                        System.out.print(".");
+                        assertEquals(200, releaseResponse.statusCode(), "App returned a non HTTP 200 response. The perf report is invalid.");
+                    }
+                    System.out.println();
+                    if (THROUGHPUT_DURATION_S > 0) {
+                        throughput(report, hc, app, json.toPath(), headers, process.children().sorted().findFirst().get().pid());
+                    }
+                    if (!PAYLOAD_SIZES_KB.isEmpty()) {
+                        payloadSizes(report, hc, app, json.toPath(), headers);
+                    }
                 }
-                System.out.println();
-                report.put("rssKb", Long.toString(getRSSkB(process.children().sorted().findFirst().get().pid())));
+                CpuSets.record(report, process.children().sorted().findFirst().get().pid());
+                report.put("rssKb", getRSSkB(process.children().sorted().findFirst().get().pid()));
                 processStopper(process, false, true);
                 final String statsFor = Arrays.stream(app.buildAndRunCmds.runCommands[i])
                         // skipping first 4 perf tool conf
@@ -214,54 +270,49 @@ public class PerfCheckTest {
                 waitForFileToMatch(Pattern.compile(".*Performance counter stats for\\s+'\\Q" + statsFor + "\\E':.*"), processLog.toPath(), 0, 5, 1, TimeUnit.SECONDS);
                 final Commands.PerfRecord pr = parsePerfRecord(processLog.toPath(), statsFor);
                 report.put("file", statsFor);
-                report.put("taskClock", String.valueOf(pr.taskClock));
-                report.put("contextSwitches", String.valueOf(pr.contextSwitches));
-                report.put("cpuMigrations", String.valueOf(pr.cpuMigrations));
-                report.put("pageFaults", String.valueOf(pr.pageFaults));
-                report.put("cycles", String.valueOf(pr.cycles));
-                report.put("instructions", String.valueOf(pr.instructions));
-                report.put("branches", String.valueOf(pr.branches));
-                report.put("branchMisses", String.valueOf(pr.branchMisses));
-                report.put("secondsTimeElapsed", String.valueOf(pr.secondsTimeElapsed));
+                report.put("taskClock", pr.taskClock);
+                report.put("contextSwitches", pr.contextSwitches);
+                report.put("cpuMigrations", pr.cpuMigrations);
+                report.put("pageFaults", pr.pageFaults);
+                report.put("cycles", pr.cycles);
+                report.put("instructions", pr.instructions);
+                report.put("branches", pr.branches);
+                report.put("branchMisses", pr.branchMisses);
+                report.put("secondsTimeElapsed", pr.secondsTimeElapsed);
                 assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
                         "Main port is still open");
                 final Commands.SerialGCLog l;
                 if (!statsFor.contains("-jar")) {
                     long executableSizeKb = Files.size(Path.of(appDir.getAbsolutePath(), statsFor.split(" ")[0])) / 1024L;
-                    report.put("executableSizeKb", String.valueOf(executableSizeKb));
-                    report.put("parseOnce", statsFor.contains("+ParseOnce") ? "true" : "false");
+                    report.put("executableSizeKb", executableSizeKb);
+                    report.put("parseOnce", statsFor.contains("+ParseOnce"));
                     l = parseSerialGCLog(processLog.toPath(), statsFor, false);
-                    report.put("incrementalGCevents", String.valueOf(l.incrementalGCevents));
-                    report.put("fullGCevents", String.valueOf(l.fullGCevents));
+                    report.put("incrementalGCevents", l.incrementalGCevents);
+                    report.put("fullGCevents", l.fullGCevents);
                 } else {
                     l = parseSerialGCLog(processLog.toPath(), statsFor, true);
-                    report.put("incrementalGCevents", "-1");
-                    report.put("fullGCevents", "-1");
-                    report.put("executableSizeKb", "-1");
-                    report.put("parseOnce", "null");
+                    report.put("incrementalGCevents", -1L);
+                    report.put("fullGCevents", -1L);
+                    report.put("executableSizeKb", -1L);
+                    report.put("parseOnce", null);
                 }
-                report.put("timeSpentInGCs", String.valueOf(l.timeSpentInGCs));
+                report.put("timeSpentInGCs", l.timeSpentInGCs);
                 report.put("testMethod", cn + "#" + mn);
-                report.put("requestsExecuted", String.valueOf(HEAVY_REQUESTS));
+                report.put("requestsExecuted", HEAVY_REQUESTS);
                 reports.add(report);
             }
-            final String reportPayload = mapToJSON(reports);
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
             LOGGER.info(reportPayload);
             if (PERF_APP_REPORT) {
-                final HttpResponse<String> response = postRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
-                if (response != null) {
-                    LOGGER.info("Response code:" + response.statusCode());
-                    LOGGER.info("Response body:" + response.body());
-                    if (response.statusCode() != SC_CREATED) {
-                        LOGGER.error("Payload was NOT uploaded tot the collector server!");
-                    }
-                }
+                enqueueRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
             }
             LOGGER.info("Gonna wait for ports closed...");
             assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
                     "Main port is still open");
             Logs.checkLog(cn, mn, app, processLog);
         } finally {
+            PayloadCache.clear();
             Files.deleteIfExists(json.toPath());
             if (process != null) {
                 processStopper(process, true);
@@ -279,6 +330,194 @@ public class PerfCheckTest {
         }
     }
 
+    /**
+     * Profile-guided optimisation: the executable is built with --pgo-instrument and trained with the quarkus-json
+     * URL workloads, the profile it dumps on exit is fed to a --pgo rebuild. Executables built without and with
+     * the profile are then measured the same way and compared. PGO is an Oracle GraalVM feature, the test
+     * is skipped with other distributions, e.g. Mandrel or GraalVM CE.
+     */
+    @Test
+    @IfMandrelVersion(min = "22.3")
+    public void testQuarkusJSONPGO(TestInfo testInfo) throws IOException, InterruptedException, URISyntaxException {
+        assumeTrue(isOracleGraalVM(false), getVersion(false) + " is not Oracle GraalVM, it has no PGO.");
+        final Apps app = Apps.QUARKUS_JSON_PERF_PGO;
+        LOGGER.info("Testing app: " + app);
+        Process process = null;
+        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
+        final File processLog = Path.of(appDir.getAbsolutePath(), "logs", "build-and-run.log").toFile();
+        final String cn = testInfo.getTestClass().get().getCanonicalName();
+        final String mn = testInfo.getTestMethod().get().getName();
+        final List<Map<String, Object>> reports = new ArrayList<>(2);
+        final StringBuilder markdown = new StringBuilder();
+        final Path profile = Path.of(appDir.getAbsolutePath(), "target", "quarkus-json.iprof");
+        // Test data tmp storage
+        final File json = Path.of(appDir.getAbsolutePath(), "logs", "record.json").toFile();
+        final String[] headers = new String[] {
+                "Content-Type", "application/json",
+                "Accept", "text/plain"
+        };
+        final String patch = quarkusPatch(appDir);
+
+        try {
+            // Cleanup
+            cleanTarget(app);
+            Files.createDirectories(Paths.get(appDir.getAbsolutePath(), "logs"));
+
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", patch), appDir);
+            }
+
+            // Instrumented build
+            builderRoutine(app, null, null, null, appDir, processLog, null,
+                    Map.of(PGO_TOKEN, ",--pgo-instrument", FINAL_NAME_TOKEN, "quarkus-json_pgo-instrumented"));
+            final List<String> trainingCmd = getRunCommand(app.buildAndRunCmds.runCommands[0]);
+            if (!Files.exists(Path.of(appDir.getAbsolutePath(), trainingCmd.get(0)))) {
+                Logs.checkLog(cn, mn, app, processLog);
+                fail("The instrumented build did not produce " + trainingCmd.get(0) + ", see " + processLog.getName() + ".");
+            }
+
+            // Training run
+            Files.writeString(processLog.toPath(), String.join(" ", trainingCmd) + '\n', StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+            process = runCommand(trainingCmd, appDir, processLog, app);
+            WebpageTester.testWeb(app.urlContent.urlContent[0][0], 30, app.urlContent.urlContent[0][1], true);
+            PayloadCache.evict(json.toPath());
+            try (final ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(app.urlContent.urlContent[1][0]).openStream());
+                    final FileOutputStream fileOutputStream = new FileOutputStream(json)) {
+                fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
+            }
+            final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
+            // [2][0] /load, [3][0] /load/hash, [5][0] /stream/load, [6][0] /stream/load/hash
+            for (int i : new int[] { 2, 5 }) {
+                final HttpResponse<String> r = hc.send(HttpRequest.newBuilder()
+                        .method("POST", PayloadCache.publisher(json.toPath()))
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .uri(new URI(app.urlContent.urlContent[i][0]))
+                        .headers(headers)
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                assertEquals(200, r.statusCode(), "Training request to " + app.urlContent.urlContent[i][0] + " failed.");
+            }
+            for (int i : new int[] { 3, 6 }) {
+                final HttpRequest request = HttpRequest.newBuilder()
+                        .method("POST", PayloadCache.publisher(json.toPath()))
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .uri(new URI(app.urlContent.urlContent[i][0]))
+                        .headers(headers)
+                        .build();
+                LOGGER.info("Training with " + app.urlContent.urlContent[i][0] + " for " + PGO_TRAINING_DURATION_S + "s...");
+                final LoadGenerator.LoadResult r = LoadGenerator.run(hc, () -> request, Files.size(json.toPath()),
+                        THROUGHPUT_CONCURRENCY, PGO_TRAINING_DURATION_S, -1);
+                assertEquals(0, r.errors, "Training requests to " + app.urlContent.urlContent[i][0] + " failed.");
+            }
+            // The profile is written on a graceful exit.
+            processStopper(process, false);
+            process = null;
+            assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
+                    "Main port is still open");
+            assertTrue(Files.exists(profile) && Files.size(profile) > 0, "The instrumented executable did not dump " + profile);
+            LOGGER.info("Profile " + profile + ", " + Files.size(profile) / 1024L + "kB");
+
+            // Builds to compare
+            builderRoutine(app, null, null, null, appDir, processLog, null,
+                    Map.of(PGO_TOKEN, "", FINAL_NAME_TOKEN, "quarkus-json_no-pgo"));
+            builderRoutine(app, null, null, null, appDir, processLog, null,
+                    Map.of(PGO_TOKEN, ",--pgo=" + profile.toAbsolutePath(), FINAL_NAME_TOKEN, "quarkus-json_pgo"));
+
+            for (int i = 1; i < app.buildAndRunCmds.runCommands.length; i++) {
+                final Map<String, Object> report = populateHeader(new TreeMap<>());
+                final List<String> cmd = getRunCommand(app.buildAndRunCmds.runCommands[i]);
+                report.put("mode", modeOf(app.buildAndRunCmds.runCommands[i]).toString());
+                Files.writeString(processLog.toPath(), String.join(" ", cmd) + '\n', StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+                process = runCommand(cmd, appDir, processLog, app);
+                final long timeToFirstOKRequestMs = WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
+                report.put("timeToFirstOKRequestMs", timeToFirstOKRequestMs);
+                try (NoiseMonitor.Window ignored = NoiseMonitor.window(report)) {
+                    final HttpRequest releaseRequest = HttpRequest.newBuilder()
+                            .method("POST", PayloadCache.publisher(json.toPath()))
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .uri(new URI(app.urlContent.urlContent[3][0]))
+                            .headers(headers)
+                            .build();
+                    for (int j = 0; j < HEAVY_REQUESTS; j++) {
+                        final HttpResponse<String> releaseResponse = hc.send(releaseRequest, HttpResponse.BodyHandlers.ofString());
+                        System.out.print(".");
+                        assertEquals(200, releaseResponse.statusCode(), "App returned a non HTTP 200 response. The perf report is invalid.");
+                    }
+                    System.out.println();
+                    if (THROUGHPUT_DURATION_S > 0) {
+                        throughput(report, hc, app, json.toPath(), headers, process.children().sorted().findFirst().get().pid());
+                    }
+                }
+                CpuSets.record(report, process.children().sorted().findFirst().get().pid());
+                report.put("rssKb", getRSSkB(process.children().sorted().findFirst().get().pid()));
+                processStopper(process, false, true);
+                final String statsFor = Arrays.stream(app.buildAndRunCmds.runCommands[i])
+                        // skipping first 4 perf tool conf
+                        .skip(4).collect(Collectors.joining(" ")).trim();
+                waitForFileToMatch(Pattern.compile(".*Performance counter stats for\\s+'\\Q" + statsFor + "\\E':.*"), processLog.toPath(), 0, 5, 1, TimeUnit.SECONDS);
+                final Commands.PerfRecord pr = parsePerfRecord(processLog.toPath(), statsFor);
+                report.put("file", statsFor);
+                report.put("taskClock", pr.taskClock);
+                report.put("contextSwitches", pr.contextSwitches);
+                report.put("cpuMigrations", pr.cpuMigrations);
+                report.put("pageFaults", pr.pageFaults);
+                report.put("cycles", pr.cycles);
+                report.put("instructions", pr.instructions);
+                report.put("branches", pr.branches);
+                report.put("branchMisses", pr.branchMisses);
+                report.put("secondsTimeElapsed", pr.secondsTimeElapsed);
+                assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
+                        "Main port is still open");
+                report.put("executableSizeKb", Files.size(Path.of(appDir.getAbsolutePath(), statsFor.split(" ")[0])) / 1024L);
+                report.put("pgo", !statsFor.contains("no-pgo"));
+                final Commands.SerialGCLog l = parseSerialGCLog(processLog.toPath(), statsFor, false);
+                report.put("incrementalGCevents", l.incrementalGCevents);
+                report.put("fullGCevents", l.fullGCevents);
+                report.put("timeSpentInGCs", l.timeSpentInGCs);
+                report.put("testMethod", cn + "#" + mn);
+                report.put("requestsExecuted", HEAVY_REQUESTS);
+                reports.add(report);
+            }
+
+            final Map<String, Object> noPGO = reports.get(0);
+            final Map<String, Object> pgo = reports.get(1);
+            final StringBuilder table = new StringBuilder("| metric | no PGO | PGO | change |\n|---|---|---|---|\n");
+            final List<String> metrics = new ArrayList<>(List.of("timeToFirstOKRequestMs", "taskClock", "cycles", "instructions",
+                    "branchMisses", "secondsTimeElapsed", "rssKb", "executableSizeKb", "timeSpentInGCs"));
+            if (THROUGHPUT_DURATION_S > 0) {
+                metrics.addAll(List.of("loadHashRequestsPerS", "loadHashP50LatencyNs", "loadHashP99LatencyNs"));
+            }
+            for (String metric : metrics) {
+                final double before = ((Number) noPGO.get(metric)).doubleValue();
+                final double after = ((Number) pgo.get(metric)).doubleValue();
+                table.append(String.format("| %s | %s | %s | %s |%n", metric, noPGO.get(metric), pgo.get(metric),
+                        before != 0 ? String.format("%+.1f%%", (after - before) * 100.0 / before) : "n/a"));
+            }
+            Logs.appendln(markdown, "PGO trained for " + PGO_TRAINING_DURATION_S + "s on each of /load/hash and /stream/load/hash, " +
+                    "profile " + Files.size(profile) / 1024L + "kB:");
+            Logs.appendln(markdown, table.toString());
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
+            LOGGER.info(reportPayload);
+            if (PERF_APP_REPORT) {
+                enqueueRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
+            }
+            Logs.checkLog(cn, mn, app, processLog);
+        } finally {
+            PayloadCache.clear();
+            Files.deleteIfExists(json.toPath());
+            if (process != null) {
+                processStopper(process, true);
+            }
+            Logs.archiveLog(cn, mn, processLog);
+            Logs.archiveLog(cn, mn, Path.of(appDir.getAbsolutePath(), "target", "quarkus.log").toFile());
+            Logs.writeReport(cn, mn, markdown.toString());
+            cleanTarget(app);
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", "-R", patch), appDir);
+            }
+        }
+    }
+
     @Test
     @IfMandrelVersion(min = "21.3")
     public void testQuarkusJSON(TestInfo testInfo) throws IOException, InterruptedException, URISyntaxException {
@@ -289,7 +528,7 @@ public class PerfCheckTest {
         final File processLog = Path.of(appDir.getAbsolutePath(), "logs", "build-and-run.log").toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
-        final List<Map<String, String>> reports = new ArrayList<>(2);
+        final List<Map<String, Object>> reports = new ArrayList<>(2);
         // Test data tmp storage
         final File json = Path.of(appDir.getAbsolutePath(), "logs", "record.json").toFile();
         String patch = null;
@@ -314,37 +553,48 @@ public class PerfCheckTest {
 
             int line = 0;
             for (int i = 0; i < app.buildAndRunCmds.runCommands.length; i++) {
-                final Map<String, String> report = populateHeader(new TreeMap<>());
+                final Map<String, Object> report = populateHeader(new TreeMap<>());
                 final List<String> cmd = getRunCommand(app.buildAndRunCmds.runCommands[i]);
+                report.put("mode", modeOf(app.buildAndRunCmds.runCommands[i]).toString());
                 Files.writeString(processLog.toPath(), String.join(" ", cmd) + '\n', StandardOpenOption.APPEND, StandardOpenOption.CREATE);
                 process = runCommand(cmd, appDir, processLog, app);
                 line = waitForFileToMatch(Pattern.compile(".*Events enabled.*"), processLog.toPath(), line, 20, 1, TimeUnit.SECONDS);
                 final long timeToFirstOKRequestMs = WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
-                report.put("timeToFirstOKRequestMs", String.valueOf(timeToFirstOKRequestMs));
-                // Test web pages
-                try (final ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(app.urlContent.urlContent[1][0]).openStream());
-                        final FileOutputStream fileOutputStream = new FileOutputStream(json)) {
-                    fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
-                }
-                final String[] headers = new String[] {
-                        "Content-Type", "application/json",
-                        "Accept", "text/plain"
-                };
-                final HttpRequest releaseRequest = HttpRequest.newBuilder()
-                        .method("POST", HttpRequest.BodyPublishers.ofFile(json.toPath()))
-                        .version(HttpClient.Version.HTTP_1_1)
-                        //[3][0] - uses sha-256, [2][0] just deserialization
-                        .uri(new URI(app.urlContent.urlContent[3][0]))
-                        .headers(headers)
-                        .build();
-                final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
-                for (int j = 0; j < HEAVY_REQUESTS; j++) {
-                    final HttpResponse<String> releaseResponse = hc.send(releaseRequest, HttpResponse.BodyHandlers.ofString());
-                    System.out.print(".");
-                    assertEquals(200, releaseResponse.statusCode(), "App returned a non HTTP 200 response. The perf report is invalid.");
+                report.put("timeToFirstOKRequestMs", timeToFirstOKRequestMs);
+                try (NoiseMonitor.Window ignored = NoiseMonitor.window(report)) {
+                    // Test web pages
+                    PayloadCache.evict(json.toPath());
+                    try (final ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(app.urlContent.urlContent[1][0]).openStream());
+                            final FileOutputStream fileOutputStream = new FileOutputStream(json)) {
+                        fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
+                    }
+                    final String[] headers = new String[] {
+                            "Content-Type", "application/json",
+                            "Accept", "text/plain"
+                    };
+                    final HttpRequest releaseRequest = HttpRequest.newBuilder()
+                            .method("POST", PayloadCache.publisher(json.toPath()))
+                            .version(HttpClient.Version.HTTP_1_1)
+                            //[3][0] - uses sha-256, [2][0] just deserialization
+                            .uri(new URI(app.urlContent.urlContent[3][0]))
+                            .headers(headers)
+                            .build();
+                    final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
+                    for (int j = 0; j < HEAVY_REQUESTS; j++) {
+                        final HttpResponse<String> releaseResponse = hc.send(releaseRequest, HttpResponse.BodyHandlers.ofString());
+                        System.out.print(".");
+                        assertEquals(200, releaseResponse.statusCode(), "App returned a non HTTP 200 response. The perf report is invalid.");
+                    }
+                    System.out.println();
+                    if (THROUGHPUT_DURATION_S > 0) {
+                        throughput(report, hc, app, json.toPath(), headers, process.children().sorted().findFirst().get().pid());
+                    }
+                    if (!PAYLOAD_SIZES_KB.isEmpty()) {
+                        payloadSizes(report, hc, app, json.toPath(), headers);
+                    }
                 }
-                System.out.println();
-                report.put("rssKb", Long.toString(getRSSkB(process.children().sorted().findFirst().get().pid())));
+                CpuSets.record(report, process.children().sorted().findFirst().get().pid());
+                report.put("rssKb", getRSSkB(process.children().sorted().findFirst().get().pid()));
                 processStopper(process, false, true);
                 final String statsFor = Arrays.stream(app.buildAndRunCmds.runCommands[i])
                         // skipping first 4 perf tool conf
@@ -352,53 +602,48 @@ public class PerfCheckTest {
                 waitForFileToMatch(Pattern.compile(".*Performance counter stats for\\s+'\\Q" + statsFor + "\\E':.*"), processLog.toPath(), 0, 5, 1, TimeUnit.SECONDS);
                 final Commands.PerfRecord pr = parsePerfRecord(processLog.toPath(), statsFor);
                 report.put("file", statsFor);
-                report.put("taskClock", String.valueOf(pr.taskClock));
-                report.put("contextSwitches", String.valueOf(pr.contextSwitches));
-                report.put("cpuMigrations", String.valueOf(pr.cpuMigrations));
-                report.put("pageFaults", String.valueOf(pr.pageFaults));
-                report.put("cycles", String.valueOf(pr.cycles));
-                report.put("instructions", String.valueOf(pr.instructions));
-                report.put("branches", String.valueOf(pr.branches));
-                report.put("branchMisses", String.valueOf(pr.branchMisses));
-                report.put("secondsTimeElapsed", String.valueOf(pr.secondsTimeElapsed));
+                report.put("taskClock", pr.taskClock);
+                report.put("contextSwitches", pr.contextSwitches);
+                report.put("cpuMigrations", pr.cpuMigrations);
+                report.put("pageFaults", pr.pageFaults);
+                report.put("cycles", pr.cycles);
+                report.put("instructions", pr.instructions);
+                report.put("branches", pr.branches);
+                report.put("branchMisses", pr.branchMisses);
+                report.put("secondsTimeElapsed", pr.secondsTimeElapsed);
                 assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
                         "Main port is still open");
                 final Commands.SerialGCLog l;
                 if (!statsFor.contains("-jar")) {
                     long executableSizeKb = Files.size(Path.of(appDir.getAbsolutePath(), statsFor.split(" ")[0])) / 1024L;
-                    report.put("executableSizeKb", String.valueOf(executableSizeKb));
+                    report.put("executableSizeKb", executableSizeKb);
                     l = parseSerialGCLog(processLog.toPath(), statsFor, false);
-                    report.put("incrementalGCevents", String.valueOf(l.incrementalGCevents));
-                    report.put("fullGCevents", String.valueOf(l.fullGCevents));
+                    report.put("incrementalGCevents", l.incrementalGCevents);
+                    report.put("fullGCevents", l.fullGCevents);
                 } else {
                     l = parseSerialGCLog(processLog.toPath(), statsFor, true);
-                    report.put("incrementalGCevents", "-1");
-                    report.put("fullGCevents", "-1");
-                    report.put("executableSizeKb", "-1");
-                    report.put("parseOnce", "null");
+                    report.put("incrementalGCevents", -1L);
+                    report.put("fullGCevents", -1L);
+                    report.put("executableSizeKb", -1L);
+                    report.put("parseOnce", null);
                 }
-                report.put("timeSpentInGCs", String.valueOf(l.timeSpentInGCs));
+                report.put("timeSpentInGCs", l.timeSpentInGCs);
                 report.put("testMethod", cn + "#" + mn);
-                report.put("requestsExecuted", String.valueOf(HEAVY_REQUESTS));
+                report.put("requestsExecuted", HEAVY_REQUESTS);
                 reports.add(report);
             }
-            final String reportPayload = mapToJSON(reports);
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
             LOGGER.info(reportPayload);
             if (PERF_APP_REPORT) {
-                final HttpResponse<String> response = postRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
-                if (response != null) {
-                    LOGGER.info("Response code:" + response.statusCode());
-                    LOGGER.info("Response body:" + response.body());
-                    if (response.statusCode() != SC_CREATED) {
-                        LOGGER.error("Payload was NOT uploaded tot the collector server!");
-                    }
-                }
+                enqueueRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
             }
             LOGGER.info("Gonna wait for ports closed...");
             assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
                     "Main port is still open");
             Logs.checkLog(cn, mn, app, processLog);
         } finally {
+            PayloadCache.clear();
             Files.deleteIfExists(json.toPath());
             if (process != null) {
                 processStopper(process, true);
@@ -414,8 +659,281 @@ public class PerfCheckTest {
         }
     }
 
+    /**
+     * Sweeps /dump?records=N and /load/hash over SCALING_RECORDS, records of SCALING_SHAPE,
+     * so as JVM and native Jackson (de)serialisation can be charted against the payload size.
+     * Each size is also sent to the /stream variants, JsonParser/JsonGenerator one record at a time,
+     * to compare their latency and GC pressure with the buffered ones.
+     * Latency that grows faster than records^SCALING_MAX_EXPONENT between two adjacent sizes
+     * is flagged as a regression. Skipped unless PERFCHECK_TEST_SCALING_RECORDS is set.
+     */
     @Test
     @IfMandrelVersion(min = "21.3")
+    public void testQuarkusJSONScaling(TestInfo testInfo) throws IOException, InterruptedException, URISyntaxException {
+        assumeTrue(!SCALING_RECORDS.isEmpty(), "Set PERFCHECK_TEST_SCALING_RECORDS, e.g. 100,1000,10000,100000,1000000, to run the scaling sweep.");
+        final Apps app = Apps.QUARKUS_JSON_PERF;
+        LOGGER.info("Testing app: " + app);
+        Process process = null;
+        final File appDir = Path.of(BASE_DIR, app.dir).toFile();
+        final File processLog = Path.of(appDir.getAbsolutePath(), "logs", "build-and-run.log").toFile();
+        final String cn = testInfo.getTestClass().get().getCanonicalName();
+        final String mn = testInfo.getTestMethod().get().getName();
+        final List<Map<String, Object>> reports = new ArrayList<>(2);
+        final StringBuilder markdown = new StringBuilder();
+        final List<String> failures = new ArrayList<>();
+        final File json = Path.of(appDir.getAbsolutePath(), "logs", "record.json").toFile();
+        final String patch = quarkusPatch(appDir);
+
+        try {
+            // Cleanup
+            cleanTarget(app);
+            Files.createDirectories(Paths.get(appDir.getAbsolutePath(), "logs"));
+
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", patch), appDir);
+            }
+
+            // Build executables
+            builderRoutine(app, null, null, null, appDir, processLog, null, getSwitches2());
+
+            int line = 0;
+            for (int i = 0; i < app.buildAndRunCmds.runCommands.length; i++) {
+                final Map<String, Object> report = populateHeader(new TreeMap<>());
+                final List<String> cmd = getRunCommand(app.buildAndRunCmds.runCommands[i]);
+                report.put("mode", modeOf(app.buildAndRunCmds.runCommands[i]).toString());
+                final String statsFor = Arrays.stream(app.buildAndRunCmds.runCommands[i])
+                        // skipping first 4 perf tool conf
+                        .skip(4).collect(Collectors.joining(" ")).trim();
+                final boolean isJVM = statsFor.contains("-jar");
+                Files.writeString(processLog.toPath(), String.join(" ", cmd) + '\n', StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+                process = runCommand(cmd, appDir, processLog, app);
+                line = waitForFileToMatch(Pattern.compile(".*Events enabled.*"), processLog.toPath(), line, 20, 1, TimeUnit.SECONDS);
+                final long timeToFirstOKRequestMs = WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
+                report.put("timeToFirstOKRequestMs", timeToFirstOKRequestMs);
+                final long pid = process.children().sorted().findFirst().get().pid();
+                final int requests = Math.max(1, HEAVY_REQUESTS);
+                final long[] loadHashLatencyNs = new long[SCALING_RECORDS.size()];
+                final StringBuilder table = new StringBuilder(
+                        "| records | body kB | dump ns | stream dump ns | load/hash mean ns | ns per record | stream load/hash mean ns | " +
+                                "allocated kB | stream allocated kB | peak heap kB | stream peak heap kB | GC pauses s | stream GC pauses s | RSS kB |\n" +
+                                "|---|---|---|---|---|---|---|---|---|---|---|---|---|---|\n");
+                try (NoiseMonitor.Window ignored = NoiseMonitor.window(report)) {
+                    final String[] headers = new String[] {
+                            "Content-Type", "application/json",
+                            "Accept", "text/plain"
+                    };
+                    final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
+                    long heapAfterKb = -1;
+                    for (int s = 0; s < SCALING_RECORDS.size(); s++) {
+                        final int records = SCALING_RECORDS.get(s);
+                        final String query = "?records=" + records + "&shape=" + SCALING_SHAPE;
+                        PayloadCache.evict(json.toPath());
+                        final long dumpStart = System.nanoTime();
+                        try (final ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(app.urlContent.urlContent[1][0] + query).openStream());
+                                final FileOutputStream fileOutputStream = new FileOutputStream(json)) {
+                            fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
+                        }
+                        final long dumpNs = System.nanoTime() - dumpStart;
+                        final long streamDumpStart = System.nanoTime();
+                        assertEquals(200, hc.send(HttpRequest.newBuilder().GET().uri(new URI(app.urlContent.urlContent[4][0] + query)).build(),
+                                HttpResponse.BodyHandlers.discarding()).statusCode(), "App returned a non HTTP 200 response for " + records + " records. The perf report is invalid.");
+                        final long streamDumpNs = System.nanoTime() - streamDumpStart;
+                        // [3][0] buffered /load/hash, [6][0] streaming /stream/load/hash
+                        long logOffset = processLog.length();
+                        final Timed buffered = post(hc, new URI(app.urlContent.urlContent[3][0]), json.toPath(), headers, requests);
+                        final Commands.GCWindow gc = parseGCWindow(readLinesFrom(processLog, logOffset), isJVM, heapAfterKb);
+                        logOffset = processLog.length();
+                        final Timed streamed = post(hc, new URI(app.urlContent.urlContent[6][0]), json.toPath(), headers, requests);
+                        final Commands.GCWindow streamGc = parseGCWindow(readLinesFrom(processLog, logOffset), isJVM, gc.heapAfterKb);
+                        heapAfterKb = streamGc.heapAfterKb;
+                        assertEquals(buffered.body, streamed.body, "Streaming and buffered hash of " + records + " records differ.");
+                        loadHashLatencyNs[s] = buffered.meanNs;
+                        final long rssKb = getRSSkB(pid);
+                        final long bodyKb = Files.size(json.toPath()) / 1024L;
+                        final String prefix = "scaling" + records;
+                        report.put(prefix + "BodyKb", bodyKb);
+                        report.put(prefix + "DumpLatencyNs", dumpNs);
+                        report.put(prefix + "StreamDumpLatencyNs", streamDumpNs);
+                        report.put(prefix + "LoadHashMeanLatencyNs", buffered.meanNs);
+                        report.put(prefix + "StreamLoadHashMeanLatencyNs", streamed.meanNs);
+                        report.put(prefix + "AllocatedKb", gc.allocatedKb);
+                        report.put(prefix + "StreamAllocatedKb", streamGc.allocatedKb);
+                        report.put(prefix + "PeakHeapKb", gc.peakHeapKb);
+                        report.put(prefix + "StreamPeakHeapKb", streamGc.peakHeapKb);
+                        report.put(prefix + "GCevents", gc.events);
+                        report.put(prefix + "StreamGCevents", streamGc.events);
+                        report.put(prefix + "TimeSpentInGCs", gc.timeSpentInGCs);
+                        report.put(prefix + "StreamTimeSpentInGCs", streamGc.timeSpentInGCs);
+                        report.put(prefix + "RssKb", rssKb);
+                        table.append(String.format("| %d | %d | %d | %d | %d | %d | %d | %d | %d | %d | %d | %.3f | %.3f | %d |%n", records, bodyKb,
+                                dumpNs, streamDumpNs, buffered.meanNs, buffered.meanNs / Math.max(1, records), streamed.meanNs,
+                                gc.allocatedKb, streamGc.allocatedKb, gc.peakHeapKb, streamGc.peakHeapKb, gc.timeSpentInGCs, streamGc.timeSpentInGCs, rssKb));
+                    }
+                    PayloadCache.clear();
+                    Files.deleteIfExists(json.toPath());
+                }
+                double maxExponent = 0;
+                for (int s = 1; s < SCALING_RECORDS.size(); s++) {
+                    // Below a millisecond it is mostly the fixed cost of a request, i.e. noise.
+                    if (loadHashLatencyNs[s - 1] < SCALING_MIN_LATENCY_NS) {
+                        continue;
+                    }
+                    final double exponent = Math.log((double) loadHashLatencyNs[s] / loadHashLatencyNs[s - 1]) /
+                            Math.log((double) SCALING_RECORDS.get(s) / SCALING_RECORDS.get(s - 1));
+                    maxExponent = Math.max(maxExponent, exponent);
+                    Logs.assertThreshold(failures, exponent <= SCALING_MAX_EXPONENT,
+                            "Application " + app + " in mode " + (isJVM ? Logs.Mode.JVM : Logs.Mode.NATIVE) + " /load/hash latency scaled as records^" +
+                                    String.format("%.2f", exponent) + " between " + SCALING_RECORDS.get(s - 1) + " and " + SCALING_RECORDS.get(s) +
+                                    " records, which is over records^" + SCALING_MAX_EXPONENT + " threshold.", true);
+                }
+                CpuSets.record(report, pid);
+                report.put("scalingShape", SCALING_SHAPE);
+                report.put("scalingMaxExponent", maxExponent);
+                Logs.appendln(markdown, "Scaling of " + statsFor + ", shape " + SCALING_SHAPE + ", " + requests +
+                        " request(s) per size, max latency exponent " + String.format("%.2f", maxExponent) + ":");
+                Logs.appendln(markdown, table.toString());
+                processStopper(process, false, true);
+                waitForFileToMatch(Pattern.compile(".*Performance counter stats for\\s+'\\Q" + statsFor + "\\E':.*"), processLog.toPath(), 0, 5, 1, TimeUnit.SECONDS);
+                assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
+                        "Main port is still open");
+                report.put("file", statsFor);
+                report.put("testMethod", cn + "#" + mn);
+                report.put("requestsExecuted", 2 * requests * SCALING_RECORDS.size());
+                reports.add(report);
+            }
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
+            LOGGER.info(reportPayload);
+            if (PERF_APP_REPORT) {
+                enqueueRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
+            }
+            Logs.checkLog(cn, mn, app, processLog);
+            assertTrue(failures.isEmpty(), "\n" + String.join("\n", failures) + "\n");
+        } finally {
+            PayloadCache.clear();
+            Files.deleteIfExists(json.toPath());
+            if (process != null) {
+                processStopper(process, true);
+            }
+            Logs.archiveLog(cn, mn, processLog);
+            Logs.writeReport(cn, mn, markdown.toString());
+            cleanTarget(app);
+            if (patch != null) {
+                runCommand(getRunCommand("git", "apply", "-R", patch), appDir);
+            }
+        }
+    }
+
+    /**
+     * Runs the vthread_props benchmark mode in JVM and native mode, PERFCHECK_TEST_VTHREADS_THREADS virtual threads
+     * doing System properties, LocalDateTime.now() and ZoneId, a PERFCHECK_TEST_VTHREADS_PARK_RATIO of them parking
+     * and a PERFCHECK_TEST_VTHREADS_PIN_RATIO of them parking in a synchronized block. Throughput, scheduling latency
+     * percentiles, peak RSS and carrier thread pinning events of each thread count are checked against
+     * apps/vthread_props/threshold.conf, per mode and native compared to JVM.
+     */
+    @Test
+    @IfMandrelVersion(min = "24.2.0")
+    // AppReproducersTest#vthreadsPropsContainer24_2Test builds in apps/vthread_props too
+    @ResourceLock("apps/vthread_props")
+    public void testVThreadsScalability(TestInfo testInfo) throws IOException, InterruptedException {
+        final Apps app = Apps.VTHREADS_PROPS_BENCH;
+        LOGGER.info("Testing app: " + app);
+        Process process = null;
+        final String cn = testInfo.getTestClass().get().getCanonicalName();
+        final String mn = testInfo.getTestMethod().get().getName();
+        final Workspace ws = Workspace.of(app, cn, mn);
+        final File appDir = ws.dir;
+        final File processLog = Path.of(appDir.getAbsolutePath(), "logs", "build-and-run.log").toFile();
+        final List<Map<String, Object>> reports = new ArrayList<>(2);
+        final StringBuilder markdown = new StringBuilder();
+        final Map<Logs.Mode, List<VThreadsBench>> runs = new TreeMap<>();
+        Map<String, String> env = null;
+        String java = "java";
+        // Virtual threads need JDK 21+, the testsuite might run on 17
+        if (Runtime.version().feature() < 21) {
+            final String javaHome = System.getenv("GRAALVM_HOME");
+            LOGGER.info("Running with JDK version " + Runtime.version().feature() + ". Building and running JVM mode with " + javaHome);
+            env = new HashMap<>();
+            env.put("JAVA_HOME", javaHome);
+            java = Path.of(javaHome, "bin", "java").toString();
+        }
+        final int counts = (int) Arrays.stream(VTHREADS_THREADS.split(",")).filter(c -> !c.isBlank()).count();
+
+        try {
+            // Cleanup
+            ws.clean();
+            Files.createDirectories(Paths.get(appDir.getAbsolutePath(), "logs"));
+
+            // Build executables
+            builderRoutine(app, null, null, null, appDir, processLog, env);
+
+            for (int i = 0; i < app.buildAndRunCmds.runCommands.length; i++) {
+                final Logs.Mode mode = i == 0 ? Logs.Mode.JVM : Logs.Mode.NATIVE;
+                final Map<String, Object> report = populateHeader(new TreeMap<>());
+                report.put("mode", mode.toString());
+                final List<String> cmd = new ArrayList<>(getRunCommand(app.buildAndRunCmds.runCommands[i]));
+                if (mode == Logs.Mode.JVM) {
+                    cmd.set(0, java);
+                }
+                cmd.addAll(List.of("threads=" + VTHREADS_THREADS, "park=" + VTHREADS_PARK_RATIO, "pin=" + VTHREADS_PIN_RATIO,
+                        "parkMs=" + VTHREADS_PARK_MS));
+                final long logOffset = processLog.length();
+                try (NoiseMonitor.Window ignored = NoiseMonitor.window(report)) {
+                    process = runCommand(cmd, appDir, processLog, app);
+                    assertNotNull(process, "The test application failed to run. Check " + Logs.getLogsDir(cn, mn) + File.separator + processLog.getName());
+                    assertTrue(process.waitFor(VTHREADS_TIMEOUT_S, TimeUnit.SECONDS),
+                            "Benchmark in " + mode + " mode did not finish in " + VTHREADS_TIMEOUT_S + " s. Check " + processLog.getName());
+                }
+                final List<VThreadsBench> modeRuns = VThreadsBench.parse(readLinesFrom(processLog, logOffset));
+                assertEquals(counts, modeRuns.size(), "Expected a BENCH line per thread count in " + mode + " mode. Check " + processLog.getName());
+                for (VThreadsBench run : modeRuns) {
+                    assertEquals(0, run.errors, run.errors + " of " + run.threads + " virtual threads failed in " + mode + " mode. Check " + processLog.getName());
+                    run.toReport(report);
+                }
+                runs.put(mode, modeRuns);
+                report.put("testApp", "https://github.com/Karm/mandrel-integration-tests/apps/vthread_props/");
+                report.put("vthreadsParkRatio", Double.parseDouble(VTHREADS_PARK_RATIO));
+                report.put("vthreadsPinRatio", Double.parseDouble(VTHREADS_PIN_RATIO));
+                report.put("file", String.join(" ", cmd));
+                report.put("testMethod", cn + "#" + mn);
+                reports.add(report);
+            }
+            final List<VThreadsBench> diffs = new ArrayList<>(counts);
+            for (int c = 0; c < counts; c++) {
+                diffs.add(VThreadsBench.diff(runs.get(Logs.Mode.NATIVE).get(c), runs.get(Logs.Mode.JVM).get(c)));
+            }
+            runs.put(Logs.Mode.DIFF_NATIVE, diffs);
+            Logs.appendln(markdown, "Virtual threads, park ratio " + VTHREADS_PARK_RATIO + ", pin ratio " + VTHREADS_PIN_RATIO +
+                    ", park " + VTHREADS_PARK_MS + " ms, diff_native in % native is worse than JVM:");
+            final StringBuilder table = new StringBuilder(VThreadsBench.headerMarkdown());
+            runs.forEach((mode, modeRuns) -> modeRuns.forEach(run -> table.append(run.lineMarkdown(mode))));
+            Logs.appendln(markdown, table.toString());
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
+            LOGGER.info(reportPayload);
+            if (PERF_APP_REPORT) {
+                enqueueRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
+            }
+            Logs.checkLog(cn, mn, app, processLog);
+            for (Map.Entry<Logs.Mode, List<VThreadsBench>> e : runs.entrySet()) {
+                for (VThreadsBench run : e.getValue()) {
+                    Logs.checkThreshold(app, e.getKey(), run);
+                }
+            }
+        } finally {
+            if (process != null) {
+                processStopper(process, true);
+            }
+            Logs.archiveLog(cn, mn, processLog);
+            Logs.writeReport(cn, mn, markdown.toString());
+            ws.close();
+        }
+    }
+
+    @Test
+    @IfMandrelVersion(min = "21.3")
+    // BuildScalingTest, DebugSymbolsTest and RuntimesSmokeTest build in apps/quarkus-full-microprofile too
+    @ResourceLock("apps/quarkus-full-microprofile")
     public void testQuarkusFullMicroProfile(TestInfo testInfo) throws IOException, InterruptedException, URISyntaxException {
         final Apps app = Apps.QUARKUS_FULL_MICROPROFILE_PERF;
         LOGGER.info("Testing app: " + app);
@@ -424,7 +942,8 @@ public class PerfCheckTest {
         final File processLog = Path.of(appDir.getAbsolutePath(), "logs", "build-and-run.log").toFile();
         final String cn = testInfo.getTestClass().get().getCanonicalName();
         final String mn = testInfo.getTestMethod().get().getName();
-        final List<Map<String, String>> reports = new ArrayList<>(2);
+        final List<Map<String, Object>> reports = new ArrayList<>(2);
+        final Map<Logs.Mode, Long> timeToShutdownMs = new HashMap<>(2);
 
         String patch = null;
         if (QUARKUS_VERSION.compareTo(QuarkusVersion.V_3_9_0) >= 0) {
@@ -451,91 +970,97 @@ public class PerfCheckTest {
 
             int line = 0;
             for (int i = 0; i < app.buildAndRunCmds.runCommands.length; i++) {
-                final Map<String, String> report = populateHeader(new TreeMap<>());
+                final Map<String, Object> report = populateHeader(new TreeMap<>());
                 report.replace("testApp", "https://github.com/Karm/mandrel-integration-tests/apps/quarkus-full-microprofile/");
                 final List<String> cmd = getRunCommand(app.buildAndRunCmds.runCommands[i]);
+                report.put("mode", modeOf(app.buildAndRunCmds.runCommands[i]).toString());
                 Files.writeString(processLog.toPath(), String.join(" ", cmd) + '\n', StandardOpenOption.APPEND, StandardOpenOption.CREATE);
                 process = runCommand(cmd, appDir, processLog, app);
                 final long timeToFirstOKRequestMs = WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
                 line = waitForFileToMatch(Pattern.compile(".*Events enabled.*"), processLog.toPath(), line, 20, 1, TimeUnit.SECONDS);
-                report.put("timeToFirstOKRequestMs", String.valueOf(timeToFirstOKRequestMs));
-                LOGGER.info("Testing web page content...");
-                // Just serially iterate. No parallel clients...
-                final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
-                final List<HttpRequest> requests = new ArrayList<>();
-                for (String[] urlContent : app.urlContent.urlContent) {
-                    requests.add(HttpRequest.newBuilder().GET().uri(new URI(urlContent[0])).build());
-                }
-                for (int j = 0; j < LIGHT_REQUESTS; j++) {
-                    for (HttpRequest httpRequest : requests) {
-                        try {
-                            if (hc.send(httpRequest, HttpResponse.BodyHandlers.ofString()).statusCode() == HTTP_OK) {
-                                System.out.print('.');
-                                continue;
+                report.put("timeToFirstOKRequestMs", timeToFirstOKRequestMs);
+                try (NoiseMonitor.Window ignored = NoiseMonitor.window(report)) {
+                    LOGGER.info("Testing web page content...");
+                    // Just serially iterate. No parallel clients...
+                    final HttpClient hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
+                    final List<HttpRequest> requests = new ArrayList<>();
+                    for (String[] urlContent : app.urlContent.urlContent) {
+                        requests.add(HttpRequest.newBuilder().GET().uri(new URI(urlContent[0])).build());
+                    }
+                    for (int j = 0; j < LIGHT_REQUESTS; j++) {
+                        for (HttpRequest httpRequest : requests) {
+                            try {
+                                if (hc.send(httpRequest, HttpResponse.BodyHandlers.ofString()).statusCode() == HTTP_OK) {
+                                    System.out.print('.');
+                                    continue;
+                                }
+                            } catch (IOException e) {
+                                LOGGER.error("Error while testing web page content", e);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                LOGGER.error("Error while testing web page content", e);
                             }
-                        } catch (IOException e) {
-                            LOGGER.error("Error while testing web page content", e);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            LOGGER.error("Error while testing web page content", e);
+                            System.out.print('x');
                         }
-                        System.out.print('x');
                     }
+                    System.out.println();
                 }
-                System.out.println();
-                report.put("rssKb", Long.toString(getRSSkB(process.children().sorted().findFirst().get().pid())));
-                processStopper(process, false, true);
+                CpuSets.record(report, process.children().sorted().findFirst().get().pid());
+                report.put("rssKb", getRSSkB(process.children().sorted().findFirst().get().pid()));
+                final Commands.ShutdownRecord shutdown = measureShutdown(process, "localhost",
+                        parsePort(app.urlContent.urlContent[0][0]), processLog, 60);
+                report.put("timeToShutdownMs", shutdown.timeToShutdownMs);
+                report.put("timeToPortReleaseMs", shutdown.timeToPortReleaseMs);
                 final String statsFor = Arrays.stream(app.buildAndRunCmds.runCommands[i])
                         // skipping first 2:  `perf stat'
                         .skip(2).collect(Collectors.joining(" ")).trim();
+                timeToShutdownMs.put(statsFor.contains("-jar") ? Logs.Mode.JVM : Logs.Mode.NATIVE, shutdown.timeToShutdownMs);
                 waitForFileToMatch(Pattern.compile(".*Performance counter stats for\\s+'\\Q" + statsFor + "\\E':.*"), processLog.toPath(), 0, 5, 1, TimeUnit.SECONDS);
                 final Commands.PerfRecord pr = parsePerfRecord(processLog.toPath(), statsFor);
                 report.put("file", statsFor);
-                report.put("taskClock", String.valueOf(pr.taskClock));
-                report.put("contextSwitches", String.valueOf(pr.contextSwitches));
-                report.put("cpuMigrations", String.valueOf(pr.cpuMigrations));
-                report.put("pageFaults", String.valueOf(pr.pageFaults));
-                report.put("cycles", String.valueOf(pr.cycles));
-                report.put("instructions", String.valueOf(pr.instructions));
-                report.put("branches", String.valueOf(pr.branches));
-                report.put("branchMisses", String.valueOf(pr.branchMisses));
-                report.put("secondsTimeElapsed", String.valueOf(pr.secondsTimeElapsed));
+                report.put("taskClock", pr.taskClock);
+                report.put("contextSwitches", pr.contextSwitches);
+                report.put("cpuMigrations", pr.cpuMigrations);
+                report.put("pageFaults", pr.pageFaults);
+                report.put("cycles", pr.cycles);
+                report.put("instructions", pr.instructions);
+                report.put("branches", pr.branches);
+                report.put("branchMisses", pr.branchMisses);
+                report.put("secondsTimeElapsed", pr.secondsTimeElapsed);
                 assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
                         "Main port is still open");
                 final Commands.SerialGCLog l;
                 if (!statsFor.contains("-jar")) {
                     long executableSizeKb = Files.size(Path.of(appDir.getAbsolutePath(), statsFor.split(" ")[0])) / 1024L;
-                    report.put("executableSizeKb", String.valueOf(executableSizeKb));
+                    report.put("executableSizeKb", executableSizeKb);
                     l = parseSerialGCLog(processLog.toPath(), statsFor, false);
-                    report.put("incrementalGCevents", String.valueOf(l.incrementalGCevents));
-                    report.put("fullGCevents", String.valueOf(l.fullGCevents));
+                    report.put("incrementalGCevents", l.incrementalGCevents);
+                    report.put("fullGCevents", l.fullGCevents);
                 } else {
                     l = parseSerialGCLog(processLog.toPath(), statsFor, true);
-                    report.put("incrementalGCevents", "-1");
-                    report.put("fullGCevents", "-1");
-                    report.put("executableSizeKb", "-1");
+                    report.put("incrementalGCevents", -1L);
+                    report.put("fullGCevents", -1L);
+                    report.put("executableSizeKb", -1L);
                 }
-                report.put("timeSpentInGCs", String.valueOf(l.timeSpentInGCs));
+                report.put("timeSpentInGCs", l.timeSpentInGCs);
                 report.put("testMethod", cn + "#" + mn);
-                report.put("requestsExecuted", String.valueOf(LIGHT_REQUESTS));
+                report.put("requestsExecuted", LIGHT_REQUESTS);
                 reports.add(report);
             }
-            final String reportPayload = mapToJSON(reports);
+            final String reportPayload = JSONWriter.toJSON(reports);
+            ResultsStore.add(cn, mn, app, reports);
             LOGGER.info(reportPayload);
             if (PERF_APP_REPORT) {
-                final HttpResponse<String> response = postRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
-                if (response != null) {
-                    LOGGER.info("Response code:" + response.statusCode());
-                    LOGGER.info("Response body:" + response.body());
-                    if (response.statusCode() != SC_CREATED) {
-                        LOGGER.error("Payload was NOT uploaded to the collector server!");
-                    }
-                }
+                enqueueRuntimePayload(APP_RUNTIME_CONTEXT, reportPayload);
             }
             LOGGER.info("Gonna wait for ports closed...");
             assertTrue(waitForTcpClosed("localhost", parsePort(app.urlContent.urlContent[0][0]), 60),
                     "Main port is still open");
             Logs.checkLog(cn, mn, app, processLog);
+            for (Map.Entry<Logs.Mode, Long> e : timeToShutdownMs.entrySet()) {
+                assertTrue(e.getValue() != -1, "The app in mode " + e.getKey() + " did not terminate within 60s after SIGTERM.");
+                Logs.checkThreshold(app, e.getKey(), Logs.SKIP, Logs.SKIP, Logs.SKIP, Logs.SKIP, e.getValue());
+            }
         } finally {
             if (process != null) {
                 processStopper(process, true);
@@ -552,6 +1077,96 @@ public class PerfCheckTest {
         }
     }
 
+    private static class Timed {
+        long meanNs;
+        String body;
+    }
+
+    /**
+     * POSTs the body requests times.
+     *
+     * @return mean latency and the last response body
+     */
+    private static Timed post(HttpClient hc, URI uri, Path body, String[] headers, int requests) throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder()
+                .method("POST", PayloadCache.publisher(body))
+                .version(HttpClient.Version.HTTP_1_1)
+                .uri(uri)
+                .headers(headers)
+                .build();
+        final Timed t = new Timed();
+        long sumNs = 0;
+        for (int j = 0; j < requests; j++) {
+            final long start = System.nanoTime();
+            final HttpResponse<String> response = hc.send(request, HttpResponse.BodyHandlers.ofString());
+            sumNs += System.nanoTime() - start;
+            assertEquals(200, response.statusCode(), "App returned a non HTTP 200 response from " + uri + ". The perf report is invalid.");
+            t.body = response.body();
+        }
+        t.meanNs = sumNs / requests;
+        return t;
+    }
+
+    /**
+     * Sustained load on /load and /load/hash with THROUGHPUT_CONCURRENCY clients for THROUGHPUT_DURATION_S seconds each.
+     * GC stats in the report are for the whole run, i.e. including this phase.
+     */
+    private static void throughput(Map<String, Object> report, HttpClient hc, Apps app, Path body, String[] headers, long pid)
+            throws IOException, InterruptedException, URISyntaxException {
+        report.put("throughputConcurrency", THROUGHPUT_CONCURRENCY);
+        report.put("throughputDurationS", THROUGHPUT_DURATION_S);
+        final long bodySize = Files.size(body);
+        // [2][0] /load, [3][0] /load/hash
+        for (int i = 2; i <= 3; i++) {
+            final String name = i == 2 ? "load" : "loadHash";
+            final HttpRequest request = HttpRequest.newBuilder()
+                    .method("POST", PayloadCache.publisher(body))
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .uri(new URI(app.urlContent.urlContent[i][0]))
+                    .headers(headers)
+                    .build();
+            LOGGER.info("Throughput of " + app.urlContent.urlContent[i][0] + " with " + THROUGHPUT_CONCURRENCY + " clients...");
+            final LoadGenerator.LoadResult r = LoadGenerator.run(hc, () -> request, bodySize, THROUGHPUT_CONCURRENCY, THROUGHPUT_DURATION_S, pid);
+            report.put(name + "Requests", r.requests);
+            report.put(name + "Errors", r.errors);
+            report.put(name + "RequestsPerS", r.requestsPerS());
+            report.put(name + "BytesPerS", r.bytesPerS());
+            report.put(name + "MeanLatencyNs", r.meanLatencyNs);
+            report.put(name + "P50LatencyNs", r.p50LatencyNs);
+            report.put(name + "P90LatencyNs", r.p90LatencyNs);
+            report.put(name + "P99LatencyNs", r.p99LatencyNs);
+            report.put(name + "MaxLatencyNs", r.maxLatencyNs);
+            report.put(name + "RssPeakKb", r.rssPeakKb);
+            assertEquals(0, r.errors, "App returned non HTTP 200 responses or failed under load. The perf report is invalid.");
+        }
+    }
+
+    /**
+     * Sends HEAVY_REQUESTS requests of each PAYLOAD_SIZES_KB size to /load, so as the server side
+     * parse cost can be charted against the payload size.
+     */
+    private static void payloadSizes(Map<String, Object> report, HttpClient hc, Apps app, Path template, String[] headers)
+            throws IOException, InterruptedException, URISyntaxException {
+        for (long sizeKb : PAYLOAD_SIZES_KB) {
+            final Path body = PayloadCache.sized(template, sizeKb * 1024L);
+            final HttpRequest request = HttpRequest.newBuilder()
+                    .method("POST", PayloadCache.publisher(body))
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .uri(new URI(app.urlContent.urlContent[2][0]))
+                    .headers(headers)
+                    .build();
+            final int requests = Math.max(1, HEAVY_REQUESTS);
+            long sumNs = 0;
+            for (int j = 0; j < requests; j++) {
+                final long start = System.nanoTime();
+                final HttpResponse<String> response = hc.send(request, HttpResponse.BodyHandlers.ofString());
+                sumNs += System.nanoTime() - start;
+                assertEquals(200, response.statusCode(), "App returned a non HTTP 200 response for " + sizeKb + " kB payload. The perf report is invalid.");
+            }
+            report.put("load" + sizeKb + "kBMeanLatencyNs", sumNs / requests);
+        }
+    }
+
     /**
      * This test builds and runs integration tests of a more complex Quarkus app,
      * including two databases, testcontainers etc.
@@ -594,6 +1209,7 @@ public class PerfCheckTest {
         final String mn = testInfo.getTestMethod().get().getName();
         String patch = null;
         final List<Path> jsonPayloads = new ArrayList<>(2);
+        final StringBuilder markdown = new StringBuilder();
         if (QUARKUS_VERSION.compareTo(QuarkusVersion.V_3_21_0) >= 0) {
             patch = "quarkus_3.21.x.patch";
         } else if (QUARKUS_VERSION.compareTo(QuarkusVersion.V_3_9_0) >= 0) {
@@ -627,8 +1243,15 @@ public class PerfCheckTest {
                 }
             };
 
+            Maven.warmUp(app);
+            final BuildProfiler buildProfile = BuildProfiler.start(processLog);
             builderRoutine(app, null, null, null, appDir, processLog, null, switches);
+            buildProfile.stop();
             findExecutable(Path.of(appDir.getAbsolutePath(), "target"), Pattern.compile(".*mp-orm-dbs-awt.*"));
+            Logs.appendln(markdown, "Build profile, NATIVE_IMAGE_XMX_GB " + NATIVE_IMAGE_XMX_GB + ":");
+            Logs.appendln(markdown, buildProfile.toMarkdown(NATIVE_IMAGE_XMX_GB));
+            Files.createDirectories(Logs.getLogsDir(cn, mn));
+            buildProfile.samplesToCSV(Path.of(Logs.getLogsDir(cn, mn).toString(), "build-profile.csv"));
 
             if (PERF_APP_REPORT) {
                 // The checking whether there are no more files than we expect is to avoid uploading unexpected artifacts.
@@ -648,19 +1271,11 @@ public class PerfCheckTest {
                 final String qversion = QUARKUS_VERSION.isSnapshot() ?
                         QUARKUS_VERSION.getGitSHA() + '.' + QUARKUS_VERSION.getVersionString() : QUARKUS_VERSION.getVersionString();
                 final String mversion = getVersion(inContainer).toString();
-                final HttpResponse<String> r;
                 // The json files are like 4K tops, so we can afford Files.readString...
                 if (secondaryPayloads.size() == 1) {
-                    r = postBuildtimePayload(APP_BUILDTIME_CONTEXT, qversion, mversion, Files.readString(mainPayloads.get(0)), Files.readString(secondaryPayloads.get(0)));
+                    enqueueBuildtimePayload(APP_BUILDTIME_CONTEXT, qversion, mversion, Files.readString(mainPayloads.get(0)), Files.readString(secondaryPayloads.get(0)));
                 } else {
-                    r = postBuildtimePayload(APP_BUILDTIME_CONTEXT, qversion, mversion, Files.readString(mainPayloads.get(0)));
-                }
-                if (r != null) {
-                    LOGGER.info("Response code:" + r.statusCode());
-                    LOGGER.info("Response body:" + r.body());
-                    if (!(r.statusCode() == SC_CREATED || r.statusCode() == SC_ACCEPTED || r.statusCode() == SC_OK)) {
-                        LOGGER.error("Payload was NOT uploaded to the collector server!");
-                    }
+                    enqueueBuildtimePayload(APP_BUILDTIME_CONTEXT, qversion, mversion, Files.readString(mainPayloads.get(0)));
                 }
             }
             Logs.checkLog(cn, mn, app, processLog);
@@ -670,6 +1285,7 @@ public class PerfCheckTest {
             }
             Logs.archiveLog(cn, mn, processLog);
             Logs.archiveLog(cn, mn, Path.of(appDir.getAbsolutePath(), "target", "quarkus.log").toFile());
+            Logs.writeReport(cn, mn, markdown.toString());
             cleanTarget(app);
             if (patch != null) {
                 runCommand(getRunCommand("git", "apply", "-R", patch), appDir);
@@ -21,9 +21,13 @@ package org.graalvm.tests.integration;
 
 import org.graalvm.home.Version;
 import org.graalvm.tests.integration.utils.Apps;
+import org.graalvm.tests.integration.utils.BuildProfiler;
+import org.graalvm.tests.integration.utils.Commands;
 import org.graalvm.tests.integration.utils.ContainerNames;
 import org.graalvm.tests.integration.utils.LogBuilder;
 import org.graalvm.tests.integration.utils.Logs;
+import org.graalvm.tests.integration.utils.Maven;
+import org.graalvm.tests.integration.utils.StartupPhases;
 import org.graalvm.tests.integration.utils.WebpageTester;
 import org.graalvm.tests.integration.utils.versions.QuarkusVersion;
 import org.graalvm.tests.integration.utils.versions.UsedVersion;
@@ -34,17 +38,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import static org.graalvm.tests.integration.PerfCheckTest.NATIVE_IMAGE_XMX_GB;
 import static org.graalvm.tests.integration.utils.BuildAndRunCmds.RUN_JAEGER;
 import static org.graalvm.tests.integration.utils.Commands.QUARKUS_VERSION;
 import static org.graalvm.tests.integration.utils.Commands.builderRoutine;
@@ -55,11 +65,14 @@ import static org.graalvm.tests.integration.utils.Commands.getContainerMemoryKb;
 import static org.graalvm.tests.integration.utils.Commands.getOpenedFDs;
 import static org.graalvm.tests.integration.utils.Commands.getRSSkB;
 import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
+import static org.graalvm.tests.integration.utils.Commands.measureShutdown;
 import static org.graalvm.tests.integration.utils.Commands.parsePort;
 import static org.graalvm.tests.integration.utils.Commands.processStopper;
 import static org.graalvm.tests.integration.utils.Commands.removeContainer;
 import static org.graalvm.tests.integration.utils.Commands.runCommand;
 import static org.graalvm.tests.integration.utils.Commands.runJaegerContainer;
+import static org.graalvm.tests.integration.utils.Commands.sampleSmaps;
+import static org.graalvm.tests.integration.utils.Commands.smapsToMarkdown;
 import static org.graalvm.tests.integration.utils.Commands.stopAllRunningContainers;
 import static org.graalvm.tests.integration.utils.Commands.stopRunningContainer;
 import static org.graalvm.tests.integration.utils.Commands.waitForContainerLogToMatch;
@@ -98,15 +111,33 @@ public class RuntimesSmokeTest {
             }
             Files.createDirectories(Paths.get(appDir.getAbsolutePath() + File.separator + "logs"));
 
+            // Dependency resolution is not part of the build time.
+            Maven.warmUp(app);
             long buildStarts = System.currentTimeMillis();
+            final BuildProfiler buildProfile = BuildProfiler.start(processLog);
             builderRoutine(app, report, cn, mn, appDir, processLog, null, switchReplacements);
+            buildProfile.stop();
             long buildEnds = System.currentTimeMillis();
+            Logs.appendln(report, "Build profile:");
+            Logs.appendln(report, buildProfile.toMarkdown(NATIVE_IMAGE_XMX_GB));
+            Files.createDirectories(Logs.getLogsDir(cn, mn));
+            buildProfile.samplesToCSV(Path.of(Logs.getLogsDir(cn, mn).toString(), "build-profile.csv"));
             findExecutable(Path.of(appDir.getAbsolutePath(), "target"), Pattern.compile(".*"));
 
             // Run
             LOGGER.info("Running...");
             final List<String> cmd = getRunCommand(app.buildAndRunCmds.runCommands[0]);
+            final StartupPhases startupPhases = StartupPhases.beforeSpawn(processLog);
+            final long spawnMs = System.currentTimeMillis();
             process = runCommand(cmd, appDir, processLog, app);
+            final Path executable = Path.of(appDir.getAbsolutePath(), app.buildAndRunCmds.runCommands[0][0]);
+            final List<CompletableFuture<Commands.SmapsRecord>> smaps = new ArrayList<>(3);
+            if (app.runtimeContainer == ContainerNames.NONE) {
+                startupPhases.monitor(process, processLog, parsePort(app.urlContent.urlContent[0][0]));
+                // Async, so as the sampling does not delay the first request.
+                final long pid = process.pid();
+                smaps.add(CompletableFuture.supplyAsync(() -> sampleSmaps(pid, executable, "spawn", spawnMs)));
+            }
             Logs.appendln(report, appDir.getAbsolutePath());
             Logs.appendlnSection(report, String.join(" ", cmd));
 
@@ -116,10 +147,23 @@ public class RuntimesSmokeTest {
 
             // Test web pages
             final long timeToFirstOKRequest = WebpageTester.testWeb(app.urlContent.urlContent[0][0], 10, app.urlContent.urlContent[0][1], true);
+            if (app.runtimeContainer == ContainerNames.NONE) {
+                smaps.add(CompletableFuture.completedFuture(sampleSmaps(process.pid(), executable, "first OK", spawnMs)));
+            }
+            startupPhases.stop();
             LOGGER.info("Testing web page content...");
             for (String[] urlContent : app.urlContent.urlContent) {
                 WebpageTester.testWeb(urlContent[0], 5, urlContent[1], false);
             }
+            if (app.runtimeContainer == ContainerNames.NONE) {
+                smaps.add(CompletableFuture.completedFuture(sampleSmaps(process.pid(), executable, "after load", spawnMs)));
+                final List<Commands.SmapsRecord> samples = smaps.stream().map(CompletableFuture::join)
+                        .filter(Objects::nonNull).collect(Collectors.toList());
+                if (!samples.isEmpty()) {
+                    Logs.appendln(report, "RSS by mapping, executable data is mostly the image heap:");
+                    Logs.appendln(report, smapsToMarkdown(samples));
+                }
+            }
 
             LOGGER.info("Terminate and scan logs...");
             // Makes sure the log is written.
@@ -128,16 +172,24 @@ public class RuntimesSmokeTest {
             LogBuilder.Log log;
             long rssKb;
             long executableSizeKb;
+            long timeToShutdownMs = Logs.SKIP;
             // Running without a container
             if (app.runtimeContainer == ContainerNames.NONE) {
-                executableSizeKb = Files.size(Path.of(appDir.getAbsolutePath(), app.buildAndRunCmds.runCommands[0][0])) / 1024L;
+                executableSizeKb = Files.size(executable) / 1024L;
                 rssKb = getRSSkB(process.pid());
                 final long openedFiles = getOpenedFDs(process.pid());
-                processStopper(process, false);
-                log = new LogBuilder()
+                final Commands.ShutdownRecord shutdown = measureShutdown(process, "localhost",
+                        parsePort(app.urlContent.urlContent[0][0]), processLog, 60);
+                Assertions.assertTrue(shutdown.timeToShutdownMs != -1,
+                        "The app did not terminate within 60s after SIGTERM. Check " + processLog.getName());
+                timeToShutdownMs = shutdown.timeToShutdownMs;
+                Logs.appendln(report, "Shutdown log:");
+                Logs.appendlnSection(report, String.join("\n", shutdown.shutdownLog));
+                log = startupPhases.toLogBuilder(new LogBuilder())
                         .app(app)
                         .buildTimeMs(buildEnds - buildStarts)
                         .timeToFirstOKRequestMs(timeToFirstOKRequest)
+                        .timeToShutdownMs(timeToShutdownMs)
                         .executableSizeKb(executableSizeKb)
                         .rssKb(rssKb)
                         .openedFiles(openedFiles)
@@ -167,7 +219,8 @@ public class RuntimesSmokeTest {
             Logs.logMeasurements(log, measurementsLog);
             Logs.appendln(report, "Measurements:");
             Logs.appendln(report, log.headerMarkdown + "\n" + log.lineMarkdown);
-            Logs.checkThreshold(app, executableSizeKb, rssKb, timeToFirstOKRequest);
+            Logs.checkThreshold(app, Logs.Mode.NONE, executableSizeKb, rssKb, timeToFirstOKRequest, Logs.SKIP, timeToShutdownMs);
+            Logs.checkThreshold(app, Logs.Mode.NONE, startupPhases);
         } finally {
             // Make sure processes are down even if there was an exception / failure
             if (process != null) {
@@ -185,6 +238,8 @@ public class RuntimesSmokeTest {
 
     @Test
     @Tag("quarkus")
+    // BuildScalingTest, DebugSymbolsTest and PerfCheckTest build in apps/quarkus-full-microprofile too
+    @ResourceLock("apps/quarkus-full-microprofile")
     public void quarkusFullMicroProfile(TestInfo testInfo) throws IOException, InterruptedException {
         Apps app = Apps.QUARKUS_FULL_MICROPROFILE;
         final Map<String, String> switches;
@@ -74,6 +74,16 @@ public enum Apps {
             WhitelistLogLines.QUARKUS_FULL_MICROPROFILE,
             BuildAndRunCmds.QUARKUS_JSON_PERF,
             ContainerNames.NONE),
+    QUARKUS_JSON_PERF_PGO("apps" + File.separator + "quarkus-json",
+            URLContent.QUARKUS_JSON_PERF,
+            WhitelistLogLines.QUARKUS_FULL_MICROPROFILE,
+            BuildAndRunCmds.QUARKUS_JSON_PERF_PGO,
+            ContainerNames.NONE),
+    QUARKUS_JSON_PERF_GC_MATRIX("apps" + File.separator + "quarkus-json",
+            URLContent.QUARKUS_JSON_PERF,
+            WhitelistLogLines.QUARKUS_JSON_PERF_GC_MATRIX,
+            BuildAndRunCmds.QUARKUS_JSON_PERF_GC_MATRIX,
+            ContainerNames.NONE),
     DEBUG_QUARKUS_FULL_MICROPROFILE("apps" + File.separator + "quarkus-full-microprofile",
             URLContent.NONE,
             WhitelistLogLines.QUARKUS_FULL_MICROPROFILE,
@@ -223,7 +233,12 @@ public enum Apps {
             URLContent.NONE,
             WhitelistLogLines.VTHREADS,
             BuildAndRunCmds.VTHREADS_PROPS_BUILDER_IMAGE,
-            ContainerNames.VTHREADS_PROPS_BUILDER_IMAGE);
+            ContainerNames.VTHREADS_PROPS_BUILDER_IMAGE),
+    VTHREADS_PROPS_BENCH("apps" + File.separator + "vthread_props",
+            URLContent.NONE,
+            WhitelistLogLines.VTHREADS,
+            BuildAndRunCmds.VTHREADS_PROPS_BENCH,
+            ContainerNames.NONE);
 
     public final String dir;
     public final URLContent urlContent;
@@ -26,11 +26,16 @@ import static org.graalvm.tests.integration.AppReproducersTest.BUILDX_LOAD_TOKEN
 import static org.graalvm.tests.integration.AppReproducersTest.LOCALEINCLUDES_TOKEN_1;
 import static org.graalvm.tests.integration.AppReproducersTest.LOCALEINCLUDES_TOKEN_2;
 import static org.graalvm.tests.integration.AppReproducersTest.RUNTIME_IMAGE_BASE_TOKEN;
+import static org.graalvm.tests.integration.GCMatrixTest.JVM_GC_TOKEN;
+import static org.graalvm.tests.integration.GCMatrixTest.NATIVE_GC_TOKEN;
+import static org.graalvm.tests.integration.GCMatrixTest.XMN_TOKEN;
+import static org.graalvm.tests.integration.GCMatrixTest.XMX_TOKEN;
 import static org.graalvm.tests.integration.JFRTest.JFR_FLIGHT_RECORDER_HOTSPOT_TOKEN;
 import static org.graalvm.tests.integration.JFRTest.JFR_MONITORING_SWITCH_TOKEN;
 import static org.graalvm.tests.integration.PerfCheckTest.FINAL_NAME_TOKEN;
 import static org.graalvm.tests.integration.PerfCheckTest.MX_HEAP_MB;
 import static org.graalvm.tests.integration.PerfCheckTest.NATIVE_IMAGE_XMX_GB;
+import static org.graalvm.tests.integration.PerfCheckTest.PGO_TOKEN;
 import static org.graalvm.tests.integration.utils.AuxiliaryOptions.DebugCodeInfoUseSourceMappings_23_0;
 import static org.graalvm.tests.integration.utils.AuxiliaryOptions.ForeignAPISupport_24_2;
 import static org.graalvm.tests.integration.utils.AuxiliaryOptions.LockExperimentalVMOptions_23_1;
@@ -176,6 +181,33 @@ public enum BuildAndRunCmds {
                     { "perf", "stat", "--delay", "2000", "java", "-Xlog:gc", "-XX:+UseSerialGC", "-Xmx" + MX_HEAP_MB + "m", "-jar", "target/quarkus-app/quarkus-run.jar" },
                     { "perf", "stat", "--delay", "1000", "./target/quarkus-json-runner", "-XX:+PrintGC" } }
     ),
+    QUARKUS_JSON_PERF_PGO(
+            new String[][] {
+                    // Built thrice: instrumented, without PGO and with the profile from the instrumented run.
+                    { "mvn", "--batch-mode", "package", "-Pnative", "-Dquarkus.version=" + QUARKUS_VERSION.getVersionString(),
+                            "-Dquarkus.native.additional-build-args=" +
+                                    "-R:MaxHeapSize=" + MX_HEAP_MB + "m" +
+                                    PGO_TOKEN,
+                            "-Dcustom.final.name=" + FINAL_NAME_TOKEN } },
+            new String[][] {
+                    // Training run, the profile is dumped on exit.
+                    { "./target/quarkus-json_pgo-instrumented-runner", "-XX:ProfilesDumpFile=target/quarkus-json.iprof" },
+                    { "perf", "stat", "--delay", "1000", "./target/quarkus-json_no-pgo-runner", "-XX:+PrintGC" },
+                    { "perf", "stat", "--delay", "1000", "./target/quarkus-json_pgo-runner", "-XX:+PrintGC" } }
+    ),
+    QUARKUS_JSON_PERF_GC_MATRIX(
+            new String[][] {
+                    // Built once per native GC, --gc is a build time option.
+                    { "mvn", "--batch-mode", "package", "-Pnative", "-Dquarkus.version=" + QUARKUS_VERSION.getVersionString(),
+                            "-Dquarkus.native.additional-build-args=" +
+                                    "-R:MaxHeapSize=" + MX_HEAP_MB + "m," +
+                                    "--gc=" + NATIVE_GC_TOKEN,
+                            "-Dcustom.final.name=quarkus-json_" + NATIVE_GC_TOKEN },
+                    { "mvn", "--batch-mode", "package", "-Dcustom.final.name=quarkus-json", "-Dquarkus.version=" + QUARKUS_VERSION.getVersionString() } },
+            new String[][] {
+                    { "java", "-Xlog:gc,safepoint", JVM_GC_TOKEN, XMX_TOKEN, XMN_TOKEN, "-jar", "target/quarkus-app/quarkus-run.jar" },
+                    { "./target/quarkus-json_" + NATIVE_GC_TOKEN + "-runner", "-XX:+PrintGC", XMX_TOKEN, XMN_TOKEN } }
+    ),
     QUARKUS_BUILDER_IMAGE_ENCODING(
             new String[][] {
                     { "mvn", "--batch-mode", "package", "-Pnative", "-Dquarkus.native.container-build=true",
@@ -571,6 +603,16 @@ public enum BuildAndRunCmds {
                             ContainerNames.IMAGEIO_BUILDER_IMAGE.name + "_" + RUNTIME_IMAGE_BASE_TOKEN,
                             "/work/target/vthread_props.bin" }
             }
+    ),
+    // Benchmark mode, see PerfCheckTest#testVThreadsScalability. JFR counts carrier thread pinning events.
+    VTHREADS_PROPS_BENCH(
+            new String[][] {
+                    { "mvn", "--batch-mode", "package" },
+                    { "native-image", "-march=native", "--no-fallback", "--link-at-build-time", "--enable-monitoring=jfr",
+                            "-jar", "target/vthread_props.jar", "target/vthread_props_bench" } },
+            new String[][] {
+                    { "java", "-jar", "target/vthread_props.jar", "bench" },
+                    { IS_THIS_WINDOWS ? "target\\vthread_props_bench.exe" : "./target/vthread_props_bench", "bench" } }
     );
 
     private static String[] hyperfoil() {
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.utils.Commands.CONTAINER_RUNTIME;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
+import static org.graalvm.tests.integration.utils.Commands.runCommand;
+
+/**
+ * Lets builderRoutine skip build commands whose inputs did not change since they last succeeded,
+ * so as tests that vary only runtime arguments, e.g. -Xmx or JFR settings, reuse the JAR, the native
+ * image and the container image instead of rebuilding them. Off by default, BUILD_CACHE=true enables it.
+ *
+ * Each build command is a stage, sources -> JAR -> native image -> container image. Its fingerprint
+ * is the hash of the app sources, the command after switch replacement, the environment it runs with
+ * and the previous stage's fingerprint, i.e. a change upstream invalidates all the stages after it.
+ * Fingerprints of successful commands are kept in target/.build-cache, with the cache enabled cleanTarget
+ * keeps target. Another Apps entry building in the same directory might overwrite the outputs,
+ * so as it invalidates the other entries' fingerprints.
+ */
+public class BuildCache {
+
+    private static final Logger LOGGER = Logger.getLogger(BuildCache.class.getName());
+
+    public static final boolean ENABLED = Boolean.parseBoolean(getProperty("BUILD_CACHE", "false"));
+    public static final String CACHE_DIR = ".build-cache";
+    // Not sources, i.e. build outputs, logs and diagnostic data, see Commands#cleanTarget
+    private static final Set<String> NOT_SOURCES = Set.of("target", "logs", "sources", "reports", ".git");
+    // Environment the build tools read, e.g. which native-image gets used
+    private static final List<String> ENV = List.of("PATH", "JAVA_HOME", "GRAALVM_HOME", "NATIVE_IMAGE_OPTIONS", "MAVEN_OPTS");
+
+    public enum Stage {
+        JAR,
+        NATIVE_IMAGE,
+        CONTAINER_IMAGE;
+
+        public static Stage of(List<String> cmd) {
+            if (cmd.contains(CONTAINER_RUNTIME) && cmd.contains("build")) {
+                return CONTAINER_IMAGE;
+            }
+            if (cmd.contains("-Pnative") || cmd.stream().anyMatch(c -> c.endsWith("native-image") || c.startsWith("-Dnative"))) {
+                return NATIVE_IMAGE;
+            }
+            return JAR;
+        }
+    }
+
+    /**
+     * Hash of all files in appDir except build outputs and logs.
+     */
+    public static String sourcesFingerprint(File appDir) throws IOException {
+        final MessageDigest md = sha256();
+        final Path root = appDir.toPath();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path p : files.filter(Files::isRegularFile)
+                    .filter(p -> !NOT_SOURCES.contains(root.relativize(p).getName(0).toString()))
+                    .sorted().collect(Collectors.toList())) {
+                md.update(root.relativize(p).toString().getBytes(UTF_8));
+                md.update(Files.readAllBytes(p));
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /**
+     * @param previous fingerprint of the previous stage, the sources fingerprint for the first one
+     * @param cmd      the command as it is going to be run
+     * @param env      extra environment the command runs with, might be null
+     */
+    public static String fingerprint(String previous, List<String> cmd, Map<String, String> env) {
+        final MessageDigest md = sha256();
+        md.update(previous.getBytes(UTF_8));
+        md.update(String.join("\0", cmd).getBytes(UTF_8));
+        final Map<String, String> e = new TreeMap<>();
+        ENV.forEach(k -> e.put(k, System.getenv(k)));
+        if (env != null) {
+            e.putAll(env);
+        }
+        md.update(e.toString().getBytes(UTF_8));
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /**
+     * @return true if the command with this fingerprint succeeded last time and its outputs are still there
+     */
+    public static boolean isCached(Apps app, File appDir, int index, String fingerprint, List<String> cmd) throws IOException {
+        final Path marker = marker(app, appDir, index);
+        if (!Files.exists(marker) || !fingerprint.equals(Files.readString(marker, UTF_8).trim())) {
+            return false;
+        }
+        if (Stage.of(cmd) == Stage.CONTAINER_IMAGE) {
+            // The image lives in the container runtime, someone might have removed it.
+            final int tag = cmd.indexOf("-t");
+            if (tag == -1 || tag + 1 >= cmd.size() ||
+                    !runCommand(getRunCommand(CONTAINER_RUNTIME, "image", "inspect", "--format", "{{.Id}}", cmd.get(tag + 1)))
+                            .trim().startsWith("sha256:")) {
+                return false;
+            }
+        }
+        LOGGER.infof("Build cache: reusing %s stage %d of %s, fingerprint %s", Stage.of(cmd), index, app, fingerprint);
+        return true;
+    }
+
+    /**
+     * Call before running a build command: it might overwrite outputs other entries' or later stages' fingerprints vouch for.
+     */
+    public static void invalidate(Apps app, File appDir, int index) throws IOException {
+        final Path dir = Path.of(appDir.getAbsolutePath(), "target", CACHE_DIR);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> markers = Files.list(dir)) {
+            for (Path m : markers.collect(Collectors.toList())) {
+                final String name = m.getFileName().toString();
+                final boolean sameApp = name.startsWith(app.name() + "-");
+                if (!sameApp || Integer.parseInt(name.substring(app.name().length() + 1)) >= index) {
+                    Files.deleteIfExists(m);
+                }
+            }
+        }
+    }
+
+    public static void store(Apps app, File appDir, int index, String fingerprint) throws IOException {
+        final Path marker = marker(app, appDir, index);
+        Files.createDirectories(marker.getParent());
+        Files.writeString(marker, fingerprint, UTF_8);
+    }
+
+    private static Path marker(Apps app, File appDir, int index) {
+        return Path.of(appDir.getAbsolutePath(), "target", CACHE_DIR, app.name() + "-" + index);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_MACOS;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_WINDOWS;
+import static org.graalvm.tests.integration.utils.Commands.readLinesFrom;
+
+/**
+ * Samples RSS, CPU time and thread count of the process tree of the build command running for the profiled log,
+ * i.e. mvn and the native-image driver and builder JVMs, not the processes concurrent tests spawn, and splits the native-image build into its
+ * stages as the builder reports them, e.g. "[6/7] Compiling methods... (52.3s @ 4.67GB)".
+ *
+ * The builder JVM is recognized by its main class, its -Xmx and -XX:ActiveProcessorCount are recorded,
+ * so as builds with a different builder heap or processor count can be told apart in the results.
+ * Sampling reads /proc, it is Linux only. Container builds, and mvnd builds, run the builder outside of the sampled
+ * process tree, only the stages are available then.
+ */
+public class BuildProfiler {
+
+    private static final Logger LOGGER = Logger.getLogger(BuildProfiler.class.getName());
+
+    public static final long SAMPLE_MS = Long.parseLong(Commands.getProperty("BUILD_PROFILER_SAMPLE_MS", "500"));
+    public static final String BUILDER_MAIN_CLASS = "com.oracle.svm.hosted.NativeImageGeneratorRunner";
+    public static final Pattern STAGE_PATTERN = Pattern.compile(
+            "^\\[(?<index>[0-9]+)/(?<of>[0-9]+)]\\s+(?<name>[^.\\[]+)\\.\\.\\..*\\((?<seconds>[0-9.]+)s @ (?<heap>[0-9.]+)GB\\)\\s*$");
+    public static final Pattern SUMMARY_PATTERN = Pattern.compile(
+            ".* in [0-9]+ GCs \\| Peak RSS: (?<rss>[0-9.]+)GB \\| CPU load: (?<load>[0-9.]+).*");
+    private static final Pattern XMX_PATTERN = Pattern.compile("-Xmx(?<size>[0-9]+)(?<unit>[kKmMgG]?)");
+    private static final Pattern ACTIVE_PROCESSOR_COUNT_PATTERN = Pattern.compile("-XX:ActiveProcessorCount=(?<count>[0-9]+)");
+
+    public static class Stage {
+        public final int index;
+        public final int of;
+        public final String name;
+        public final double seconds;
+        // Builder heap in use at the end of the stage
+        public final double heapGB;
+
+        public Stage(int index, int of, String name, double seconds, double heapGB) {
+            this.index = index;
+            this.of = of;
+            this.name = name;
+            this.seconds = seconds;
+            this.heapGB = heapGB;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + index + "/" + of + "] " + name + " " + seconds + "s @ " + heapGB + "GB";
+        }
+    }
+
+    public static class Sample {
+        public final long ms;
+        public final long rssKb;
+        public final long builderRssKb;
+        public final long cpuMs;
+        public final int threads;
+
+        public Sample(long ms, long rssKb, long builderRssKb, long cpuMs, int threads) {
+            this.ms = ms;
+            this.rssKb = rssKb;
+            this.builderRssKb = builderRssKb;
+            this.cpuMs = cpuMs;
+            this.threads = threads;
+        }
+    }
+
+    // Build command running per log, see Commands.ProcessRunner
+    private static final Map<File, ProcessHandle> BUILDS = new ConcurrentHashMap<>();
+
+    private final List<Sample> samples = Collections.synchronizedList(new ArrayList<>());
+    // Last CPU time seen per pid, processes that exited keep their share.
+    private final Map<Long, Long> cpuMsByPid = new HashMap<>();
+    private final Map<Long, Long> builderCpuMsByPid = new HashMap<>();
+    private final File processLog;
+    private final long logOffset;
+    private final long startMs;
+    private Thread sampler;
+
+    public List<Stage> stages = List.of();
+    public long wallMs = -1L;
+    public long cpuMs = -1L;
+    public long builderCpuMs = -1L;
+    public long peakRssKb = -1L;
+    public long peakBuilderRssKb = -1L;
+    public int peakThreads = -1;
+    public long builderXmxMb = -1L;
+    public int builderActiveProcessorCount = -1;
+    // As native-image itself reports it in the build summary
+    public long reportedPeakRssKb = -1L;
+    public double reportedCpuLoad = -1;
+
+    private BuildProfiler(File processLog) {
+        this.processLog = processLog;
+        this.logOffset = processLog.exists() ? processLog.length() : 0L;
+        this.startMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Call right before builderRoutine.
+     *
+     * @param processLog log the build output is going to be appended to
+     */
+    public static BuildProfiler start(File processLog) {
+        final BuildProfiler profiler = new BuildProfiler(processLog);
+        if (IS_THIS_WINDOWS || IS_THIS_MACOS) {
+            LOGGER.info("Build profiler samples /proc, it is not available on this OS, stages only.");
+            return profiler;
+        }
+        profiler.sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                profiler.sample();
+                try {
+                    Thread.sleep(SAMPLE_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "build-profiler");
+        profiler.sampler.setDaemon(true);
+        profiler.sampler.start();
+        return profiler;
+    }
+
+    /**
+     * Call right after builderRoutine. It stops sampling and parses the stages from the build log.
+     */
+    public BuildProfiler stop() throws InterruptedException, IOException {
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler.join(SAMPLE_MS * 2);
+        }
+        wallMs = System.currentTimeMillis() - startMs;
+        synchronized (samples) {
+            for (Sample s : samples) {
+                peakRssKb = Math.max(peakRssKb, s.rssKb);
+                peakBuilderRssKb = Math.max(peakBuilderRssKb, s.builderRssKb);
+                peakThreads = Math.max(peakThreads, s.threads);
+            }
+            if (!samples.isEmpty()) {
+                cpuMs = cpuMsByPid.values().stream().mapToLong(Long::longValue).sum();
+                builderCpuMs = builderCpuMsByPid.values().stream().mapToLong(Long::longValue).sum();
+            }
+        }
+        if (processLog.exists()) {
+            final List<String> lines = readLinesFrom(processLog, logOffset);
+            stages = parseStages(lines);
+            for (String line : lines) {
+                final Matcher m = SUMMARY_PATTERN.matcher(line);
+                if (m.matches()) {
+                    reportedPeakRssKb = Math.max(reportedPeakRssKb, Math.round(Double.parseDouble(m.group("rss")) * 1024 * 1024));
+                    reportedCpuLoad = Double.parseDouble(m.group("load"));
+                }
+            }
+        }
+        LOGGER.info("Build profile: wall " + wallMs + "ms, CPU " + cpuMs + "ms, peak RSS " + peakRssKb + "kB, builder peak RSS " +
+                peakBuilderRssKb + "kB, builder -Xmx " + builderXmxMb + "MB, peak threads " + peakThreads + ", stages " + stages);
+        return this;
+    }
+
+    /**
+     * Stages of all native-image builds in the lines, in the order they finished.
+     */
+    public static List<Stage> parseStages(List<String> lines) {
+        final List<Stage> result = new ArrayList<>();
+        for (String line : lines) {
+            final Matcher m = STAGE_PATTERN.matcher(line);
+            if (m.matches()) {
+                result.add(new Stage(Integer.parseInt(m.group("index")), Integer.parseInt(m.group("of")), m.group("name").trim(),
+                        Double.parseDouble(m.group("seconds")), Double.parseDouble(m.group("heap"))));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * CPU utilisation of the build, 1.0 is one core busy for the whole wall time.
+     */
+    public double cpuUtilisation() {
+        return cpuMs > 0 && wallMs > 0 ? (double) cpuMs / wallMs : -1;
+    }
+
+    public double peakStageHeapGB() {
+        return stages.stream().mapToDouble(s -> s.heapGB).max().orElse(-1);
+    }
+
+    /**
+     * @param nativeImageXmxGB builder heap the test asked for, e.g. NATIVE_IMAGE_XMX_GB, used if the builder JVM was not seen
+     */
+    public String toMarkdown(long nativeImageXmxGB) {
+        final long xmxMb = builderXmxMb > 0 ? builderXmxMb : nativeImageXmxGB * 1024L;
+        final StringBuilder s = new StringBuilder();
+        s.append("| stage | s | heap GB |\n|---|---|---|\n");
+        for (Stage stage : stages) {
+            s.append(String.format("| [%d/%d] %s | %.1f | %.2f |%n", stage.index, stage.of, stage.name, stage.seconds, stage.heapGB));
+        }
+        s.append('\n');
+        s.append("| wall ms | CPU ms | CPU utilisation | peak RSS kB | builder peak RSS kB | reported peak RSS kB | " +
+                "builder -Xmx MB | peak stage heap of -Xmx | ActiveProcessorCount | peak threads |\n");
+        s.append("|---|---|---|---|---|---|---|---|---|---|\n");
+        s.append(String.format("| %d | %d | %.2f | %d | %d | %d | %d | %s | %s | %d |%n", wallMs, cpuMs, cpuUtilisation(),
+                peakRssKb, peakBuilderRssKb, reportedPeakRssKb, xmxMb,
+                peakStageHeapGB() > 0 ? String.format("%.0f%%", peakStageHeapGB() * 1024 * 100 / xmxMb) : "n/a",
+                builderActiveProcessorCount > 0 ? String.valueOf(builderActiveProcessorCount) : "default", peakThreads));
+        return s.toString();
+    }
+
+    /**
+     * Writes the samples as CSV, ms since start, so as they can be plotted.
+     */
+    public void samplesToCSV(Path csv) throws IOException {
+        final StringBuilder s = new StringBuilder("ms,rssKb,builderRssKb,cpuMs,threads\n");
+        synchronized (samples) {
+            for (Sample sample : samples) {
+                s.append(sample.ms).append(',').append(sample.rssKb).append(',').append(sample.builderRssKb).append(',')
+                        .append(sample.cpuMs).append(',').append(sample.threads).append('\n');
+            }
+        }
+        Files.writeString(csv, s.toString(), UTF_8);
+    }
+
+    static void building(File log, Process build) {
+        BUILDS.put(log.getAbsoluteFile(), build.toHandle());
+    }
+
+    static void built(File log) {
+        BUILDS.remove(log.getAbsoluteFile());
+    }
+
+    private void sample() {
+        final ProcessHandle build = BUILDS.get(processLog.getAbsoluteFile());
+        if (build == null) {
+            // Between two build commands
+            return;
+        }
+        long rssKb = 0;
+        long builderRssKb = 0;
+        int threads = 0;
+        for (ProcessHandle ph : Stream.concat(Stream.of(build), build.descendants()).toArray(ProcessHandle[]::new)) {
+            final long pid = ph.pid();
+            try {
+                final Path proc = Path.of("/proc", Long.toString(pid));
+                final long[] status = rssAndThreads(Files.readAllLines(proc.resolve("status"), UTF_8));
+                final String stat = Files.readString(proc.resolve("stat"), UTF_8);
+                // Skip the comm field, it might contain spaces. utime and stime are the 14th and 15th fields.
+                final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                final long cpu = (Long.parseLong(fields[11]) + Long.parseLong(fields[12])) * 1000L / StartupPhases.CLK_TCK;
+                final String cmdline = Files.readString(proc.resolve("cmdline"), UTF_8);
+                rssKb += status[0];
+                threads += (int) status[1];
+                synchronized (samples) {
+                    cpuMsByPid.put(pid, cpu);
+                    if (cmdline.contains(BUILDER_MAIN_CLASS)) {
+                        builderRssKb += status[0];
+                        builderCpuMsByPid.put(pid, cpu);
+                        recordBuilderOptions(cmdline);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The process might have just exited.
+                LOGGER.debug("Build profiler, pid " + pid + ": " + e.getMessage());
+            }
+        }
+        synchronized (samples) {
+            samples.add(new Sample(System.currentTimeMillis() - startMs, rssKb, builderRssKb,
+                    cpuMsByPid.values().stream().mapToLong(Long::longValue).sum(), threads));
+        }
+    }
+
+    private void recordBuilderOptions(String cmdline) {
+        // Arguments are \0 separated, the last occurrence wins as in the JVM.
+        for (String arg : cmdline.split("\0")) {
+            final Matcher xmx = XMX_PATTERN.matcher(arg);
+            if (xmx.matches()) {
+                final long size = Long.parseLong(xmx.group("size"));
+                switch (xmx.group("unit").toLowerCase()) {
+                    case "g":
+                        builderXmxMb = size * 1024L;
+                        break;
+                    case "m":
+                        builderXmxMb = size;
+                        break;
+                    case "k":
+                        builderXmxMb = size / 1024L;
+                        break;
+                    default:
+                        builderXmxMb = size / 1024L / 1024L;
+                }
+            }
+            final Matcher apc = ACTIVE_PROCESSOR_COUNT_PATTERN.matcher(arg);
+            if (apc.matches()) {
+                builderActiveProcessorCount = Integer.parseInt(apc.group("count"));
+            }
+        }
+    }
+
+    private static long[] rssAndThreads(List<String> status) {
+        final long[] result = new long[] { 0L, 0L };
+        for (String line : status) {
+            if (line.startsWith("VmRSS:")) {
+                result[0] = Long.parseLong(line.replaceAll("[^0-9]", ""));
+            } else if (line.startsWith("Threads:")) {
+                result[1] = Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return result;
+    }
+}
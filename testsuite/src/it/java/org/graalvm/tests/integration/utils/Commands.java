@@ -37,6 +37,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
@@ -57,6 +58,7 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -117,7 +119,7 @@ public class Commands {
     // Mind that the waiting might be blocked by setting a breakpoint in the meantime. Depend on the test flow.
     public static final long LONG_GOTO_URL_TIMEOUT_MS = Long.parseLong(getProperty("LONG_GOTO_URL_TIMEOUT_MS", "60000"));
 
-    private static final Set<String> getPropertyMessages = new HashSet<>();
+    private static final Set<String> getPropertyMessages = ConcurrentHashMap.newKeySet();
 
     public static String getProperty(String key) {
         return getProperty(key, null);
@@ -182,7 +184,12 @@ public class Commands {
         final String sources = BASE_DIR + File.separator + app.dir + File.separator + "sources";
         // Diagnostic data
         final String reports = BASE_DIR + File.separator + app.dir + File.separator + "reports";
-        cleanDirOrFile(target, logs, sources, reports);
+        if (BuildCache.ENABLED) {
+            // Build outputs are reused as long as their fingerprints match, see BuildCache.
+            cleanDirOrFile(logs, sources, reports);
+        } else {
+            cleanDirOrFile(target, logs, sources, reports);
+        }
     }
 
     public static void cleanDirOrFile(String... path) {
@@ -287,6 +294,8 @@ public class Commands {
         if (app != null && app.runtimeContainer == ContainerNames.NONE) {
             waitForExecutable(command, directory);
         }
+        // Perf tests and functional tests may run on separate CPUs, the measured app apart from its load, see CpuSets
+        command = CpuSets.pinApp(command);
         final ProcessBuilder processBuilder = new ProcessBuilder(command);
         final Map<String, String> envA = processBuilder.environment();
         envA.put("PATH", System.getenv("PATH"));
@@ -314,7 +323,7 @@ public class Commands {
     }
 
     public static String runCommand(List<String> command, File directory, Map<String, String> env) throws IOException {
-        final ProcessBuilder processBuilder = new ProcessBuilder(command);
+        final ProcessBuilder processBuilder = new ProcessBuilder(CpuSets.pin(command));
         final Map<String, String> envA = processBuilder.environment();
         envA.put("PATH", System.getenv("PATH"));
         if (env != null) {
@@ -672,6 +681,8 @@ public class Commands {
         final List<String> command;
         final long timeoutMinutes;
         final Map<String, String> envProps;
+        // -1 until the process exits within the timeout
+        public volatile int exitValue = -1;
 
         public ProcessRunner(File directory, File log, List<String> command, long timeoutMinutes) {
             this.directory = directory;
@@ -708,16 +719,21 @@ public class Commands {
                 LOGGER.infof("Command: %s", this.command);
                 Files.write(log.toPath(), command.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
                 p = pb.start();
+                BuildProfiler.building(log, p);
                 dumpAndLogProcessOutput(log, p, timeoutMinutes);
             } catch (IOException e) {
                 e.printStackTrace();
             }
             try {
-                Objects.requireNonNull(p, "command " + command + " not found/invalid")
-                        .waitFor(timeoutMinutes, TimeUnit.MINUTES);
+                if (Objects.requireNonNull(p, "command " + command + " not found/invalid")
+                        .waitFor(timeoutMinutes, TimeUnit.MINUTES)) {
+                    exitValue = p.exitValue();
+                }
             } catch (InterruptedException e) {
                 e.printStackTrace();
                 Thread.currentThread().interrupt();
+            } finally {
+                BuildProfiler.built(log);
             }
         }
     }
@@ -972,6 +988,300 @@ public class Commands {
         }
     }
 
+    /**
+     * GC activity in a part of the log, e.g. while the app was processing one payload size.
+     * allocatedKb is an estimate: the sum of heap growth between consecutive collections,
+     * i.e. what was allocated after the last collection in the window is not counted.
+     * peakHeapKb is the largest heap occupancy seen right before a collection.
+     */
+    public static class GCWindow {
+        public int events = 0;
+        public double timeSpentInGCs = 0;
+        public long allocatedKb = 0;
+        public long peakHeapKb = -1;
+        public long heapAfterKb = -1;
+    }
+
+    /**
+     * Parses -Xlog:gc (isJVM) or native -XX:+PrintGC lines.
+     *
+     * @param lines       part of the log
+     * @param isJVM       HotSpot or native executable log format
+     * @param heapAfterKb heap after the last collection before the window, i.e. the previous window's heapAfterKb, -1 if unknown
+     */
+    public static GCWindow parseGCWindow(List<String> lines, boolean isJVM, long heapAfterKb) {
+        final Pattern gc = isJVM ?
+                Pattern.compile("\\[[^]]*]\\[info\\s*]\\[gc\\s*] GC\\([0-9]+\\) Pause (?:Young|Full) .*\\s([0-9]+)([KMG])->([0-9]+)([KMG])\\([0-9]+[KMG]\\)\\s+([0-9\\.]+)ms$") :
+                Pattern.compile("^\\[(?:Incremental|Full)\\s+GC\\s+\\([^)]*\\)\\s+([0-9]+)(K)->([0-9]+)(K),\\s+([0-9\\.]+)\\s+secs\\]$");
+        final GCWindow w = new GCWindow();
+        w.heapAfterKb = heapAfterKb;
+        for (String line : lines) {
+            final Matcher m = gc.matcher(line);
+            if (m.matches()) {
+                final long beforeKb = toKb(Long.parseLong(m.group(1)), m.group(2));
+                w.peakHeapKb = Math.max(w.peakHeapKb, beforeKb);
+                if (w.heapAfterKb != -1 && beforeKb > w.heapAfterKb) {
+                    w.allocatedKb += beforeKb - w.heapAfterKb;
+                }
+                w.heapAfterKb = toKb(Long.parseLong(m.group(3)), m.group(4));
+                w.events++;
+                w.timeSpentInGCs += isJVM ? Double.parseDouble(m.group(5)) / 1000.0 : Double.parseDouble(m.group(5));
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Stop the world pauses in microseconds, in the order they happened.
+     * JVM: -Xlog:safepoint, i.e. all safepoints, not just GC ones, but it works for any HotSpot GC including ZGC.
+     * Native: -XX:+PrintGC of the serial GC or -Xlog:gc style pauses, the epsilon GC has none.
+     */
+    public static List<Long> parsePausesUs(List<String> lines, boolean isJVM) {
+        // JDK 17+: Safepoint "G1CollectForAllocation", Time since last: ..., At safepoint: 2190 ns, Total: 2345 ns
+        // JDK 11: Total time for which application threads were stopped: 0.0002345 seconds, Stopping threads took: ...
+        final Pattern safepoint = Pattern.compile(".*\\[safepoint\\s*] Safepoint .*, Total: ([0-9]+) ns$");
+        final Pattern safepoint11 = Pattern.compile(".*\\[safepoint\\s*] Total time for which application threads were stopped: ([0-9\\.]+) seconds.*");
+        final Pattern serial = Pattern.compile("^\\[(?:Incremental|Full)\\s+GC\\s+\\([^)]*\\)[^,]*,\\s+([0-9\\.]+)\\s+secs\\]$");
+        final Pattern unified = Pattern.compile(".*\\[gc\\s*] GC\\([0-9]+\\) Pause .*\\s([0-9\\.]+)ms$");
+        final List<Long> pauses = new ArrayList<>();
+        for (String line : lines) {
+            Matcher m;
+            if (isJVM) {
+                if ((m = safepoint.matcher(line)).matches()) {
+                    pauses.add(Long.parseLong(m.group(1)) / 1000L);
+                } else if ((m = safepoint11.matcher(line)).matches()) {
+                    pauses.add(Math.round(Double.parseDouble(m.group(1)) * 1_000_000.0));
+                }
+            } else if ((m = serial.matcher(line)).matches()) {
+                pauses.add(Math.round(Double.parseDouble(m.group(1)) * 1_000_000.0));
+            } else if ((m = unified.matcher(line)).matches()) {
+                pauses.add(Math.round(Double.parseDouble(m.group(1)) * 1000.0));
+            }
+        }
+        return pauses;
+    }
+
+    private static long toKb(long value, String unit) {
+        switch (unit) {
+            case "G":
+                return value * 1024L * 1024L;
+            case "M":
+                return value * 1024L;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * RSS of a process split by where it is mapped from. For a native executable, executableDataRssKb
+     * is mostly the image heap mapped from the file and executableDataAnonymousKb is the part of it
+     * that was written to, i.e. copied on write. anonymousRssKb is the runtime heap, malloc etc.
+     * Faults are per process, /proc does not attribute them to mappings.
+     */
+    public static class SmapsRecord {
+        public String label;
+        public long elapsedMs = -1;
+        public long executableTextRssKb = 0;
+        public long executableDataRssKb = 0;
+        public long executableDataAnonymousKb = 0;
+        public long anonymousRssKb = 0;
+        public long otherRssKb = 0;
+        public long minorFaults = -1;
+        public long majorFaults = -1;
+
+        public long totalRssKb() {
+            return executableTextRssKb + executableDataRssKb + anonymousRssKb + otherRssKb;
+        }
+    }
+
+    /**
+     * Parses /proc/[pid]/smaps, see proc(5).
+     *
+     * @param smaps      smaps file
+     * @param executable the executable path as it appears in smaps, i.e. the real path
+     */
+    public static SmapsRecord parseSmaps(Path smaps, String executable) throws IOException {
+        final Pattern mapping = Pattern.compile("^[0-9a-f]+-[0-9a-f]+\\s+(\\S{4})\\s+\\S+\\s+\\S+\\s+\\d+\\s*(.*)$");
+        final Pattern rss = Pattern.compile("^Rss:\\s+([0-9]+)\\s+kB$");
+        final Pattern anonymous = Pattern.compile("^Anonymous:\\s+([0-9]+)\\s+kB$");
+        final SmapsRecord r = new SmapsRecord();
+        try (Scanner sc = new Scanner(smaps, UTF_8)) {
+            boolean exe = false;
+            boolean text = false;
+            boolean anon = false;
+            while (sc.hasNextLine()) {
+                final String line = sc.nextLine();
+                Matcher m = mapping.matcher(line);
+                if (m.matches()) {
+                    final String path = m.group(2).trim();
+                    exe = path.equals(executable);
+                    text = m.group(1).contains("x");
+                    anon = path.isEmpty() || path.startsWith("[heap]") || path.startsWith("[anon");
+                    continue;
+                }
+                m = rss.matcher(line);
+                if (m.matches()) {
+                    final long kb = Long.parseLong(m.group(1));
+                    if (exe && text) {
+                        r.executableTextRssKb += kb;
+                    } else if (exe) {
+                        r.executableDataRssKb += kb;
+                    } else if (anon) {
+                        r.anonymousRssKb += kb;
+                    } else {
+                        r.otherRssKb += kb;
+                    }
+                    continue;
+                }
+                m = anonymous.matcher(line);
+                if (m.matches() && exe && !text) {
+                    r.executableDataAnonymousKb += Long.parseLong(m.group(1));
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Samples /proc/[pid]/smaps and the fault counters from /proc/[pid]/stat. Linux only.
+     *
+     * @param pid        process to sample
+     * @param executable executable the process was started from, the real path is resolved here
+     * @param label      e.g. "spawn", "first OK"
+     * @param sinceMs    System.currentTimeMillis() of the spawn, to record when the sample was taken
+     * @return null if the process is gone or not on Linux
+     */
+    public static SmapsRecord sampleSmaps(long pid, Path executable, String label, long sinceMs) {
+        if (IS_THIS_WINDOWS || IS_THIS_MACOS) {
+            return null;
+        }
+        try {
+            final long elapsedMs = System.currentTimeMillis() - sinceMs;
+            final String stat = Files.readString(Path.of("/proc", Long.toString(pid), "stat"), UTF_8);
+            final SmapsRecord r = parseSmaps(Path.of("/proc", Long.toString(pid), "smaps"), executable.toRealPath().toString());
+            // Skip the comm field, it might contain spaces. minflt is the 10th field, majflt the 12th.
+            final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            r.minorFaults = Long.parseLong(fields[7]);
+            r.majorFaults = Long.parseLong(fields[9]);
+            r.label = label;
+            r.elapsedMs = elapsedMs;
+            return r;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to sample smaps of PID " + pid + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static String smapsToMarkdown(List<SmapsRecord> records) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("|sample|elapsedMs|totalRssKb|executableTextRssKb|executableDataRssKb|executableDataAnonymousKb|anonymousRssKb|otherRssKb|minorFaults|majorFaults|\n");
+        sb.append("|").append(" --- |".repeat(10)).append("\n");
+        for (SmapsRecord r : records) {
+            sb.append('|').append(r.label)
+                    .append('|').append(r.elapsedMs)
+                    .append('|').append(r.totalRssKb())
+                    .append('|').append(r.executableTextRssKb)
+                    .append('|').append(r.executableDataRssKb)
+                    .append('|').append(r.executableDataAnonymousKb)
+                    .append('|').append(r.anonymousRssKb)
+                    .append('|').append(r.otherRssKb)
+                    .append('|').append(r.minorFaults)
+                    .append('|').append(r.majorFaults)
+                    .append("|\n");
+        }
+        return sb.toString();
+    }
+
+    public static class ShutdownRecord {
+        public long timeToShutdownMs = -1;
+        public long timeToPortReleaseMs = -1;
+        public final List<String> shutdownLog = new ArrayList<>();
+    }
+
+    /**
+     * Sends SIGTERM to the process (children first, as with processStopper's orderMatters)
+     * and measures how long it takes for the process to exit and for the port to stop accepting
+     * connections. Whatever the process wrote to its log after the signal, e.g. shutdown hooks
+     * or Quarkus' "stopped in" line, is captured too.
+     *
+     * The process is not forcefully killed here. If it did not exit within the timeout,
+     * timeToShutdownMs stays -1 and the caller is expected to clean up, e.g. processStopper(p, true).
+     *
+     * @param p          process started with runCommand
+     * @param host       host the app listens on
+     * @param port       port the app listens on
+     * @param processLog log the process output is appended to, might be null
+     * @param timeoutS   how long to wait for the exit and for the port release
+     * @return record with -1 values for whatever did not happen within the timeout
+     */
+    public static ShutdownRecord measureShutdown(Process p, String host, int port, File processLog, long timeoutS) throws IOException, InterruptedException {
+        final ShutdownRecord r = new ShutdownRecord();
+        final long logOffset = (processLog != null && processLog.exists()) ? processLog.length() : 0L;
+        final InetSocketAddress socketAddr = new InetSocketAddress(InetAddress.getByName(host), port);
+        final List<ProcessHandle> handles = new ArrayList<>();
+        p.children().forEach(handles::add);
+        handles.add(p.toHandle());
+        LOGGER.infof("Sending SIGTERM to PIDs: %s", handles.stream().map(h -> Long.toString(h.pid())).collect(Collectors.joining(",")));
+        final long start = System.nanoTime();
+        for (ProcessHandle ph : handles) {
+            if (IS_THIS_WINDOWS) {
+                // No SIGTERM on Windows, CtrlC.exe is the closest we have, then taskkill without /F.
+                // pidKiller would follow up with a forced taskkill and there would be no shutdown to measure.
+                Runtime.getRuntime().exec(new String[]{
+                        BASE_DIR + File.separator + "testsuite" + File.separator + "src" + File.separator + "it" + File.separator + "resources" + File.separator +
+                                "CtrlC.exe", Long.toString(ph.pid())});
+                Runtime.getRuntime().exec(new String[]{"cmd", "/C", "taskkill", "/PID", Long.toString(ph.pid()), "/T"});
+            } else {
+                ph.destroy();
+            }
+        }
+        final long deadline = start + TimeUnit.SECONDS.toNanos(timeoutS);
+        while (System.nanoTime() < deadline && (r.timeToShutdownMs == -1 || r.timeToPortReleaseMs == -1)) {
+            if (r.timeToPortReleaseMs == -1) {
+                try (Socket socket = new Socket()) {
+                    socket.connect(socketAddr, 100);
+                } catch (IOException e) {
+                    // Connection refused, the port is released.
+                    r.timeToPortReleaseMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            }
+            if (r.timeToShutdownMs == -1 && !p.isAlive()) {
+                r.timeToShutdownMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            Thread.sleep(5);
+        }
+        if (r.timeToShutdownMs == -1) {
+            LOGGER.error("Process " + p.pid() + " did not exit within " + timeoutS + "s after SIGTERM.");
+        }
+        if (r.timeToPortReleaseMs == -1) {
+            LOGGER.error("Port " + host + ":" + port + " was not released within " + timeoutS + "s after SIGTERM.");
+        }
+        if (processLog != null && processLog.exists()) {
+            r.shutdownLog.addAll(readLinesFrom(processLog, logOffset));
+        }
+        LOGGER.infof("Shutdown took %d ms, port released after %d ms.", r.timeToShutdownMs, r.timeToPortReleaseMs);
+        return r;
+    }
+
+    /**
+     * @param log    e.g. the process log the app keeps appending to
+     * @param offset bytes to skip, e.g. the log length noted before a measurement
+     * @return lines written after the offset
+     */
+    public static List<String> readLinesFrom(File log, long offset) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        try (InputStream is = new FileInputStream(log)) {
+            is.skipNBytes(offset);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
     /**
      * Open an ssh tunnel.
      * @return pid - caller is responsible for closing the tunnel
@@ -1010,34 +1320,6 @@ public class Commands {
         }
     }
 
-    public static String mapToJSON(List<Map<String, String>> maps) {
-        final Pattern num = Pattern.compile("\\d+");
-        final StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        maps.forEach(map -> {
-            sb.append("{");
-            map.forEach((k, v) -> {
-                sb.append("\"");
-                sb.append(k);
-                sb.append("\":");
-                if (num.matcher(v).matches()) {
-                    sb.append(v);
-                } else {
-                    sb.append("\"");
-                    sb.append(v);
-                    sb.append("\"");
-                }
-                sb.append(",");
-            });
-            sb.setLength(sb.length() - 1);
-            sb.append("}");
-            sb.append(",");
-        });
-        sb.setLength(sb.length() - 1);
-        sb.append("]");
-        return sb.toString();
-    }
-
     public static int waitForFileToMatch(Pattern lineMatchRegexp, Path path, int skipLines, long timeout, long sleep, TimeUnit unit) throws IOException {
         long timeoutMillis = unit.toMillis(timeout);
         long sleepMillis = unit.toMillis(sleep);
@@ -1133,9 +1415,9 @@ public class Commands {
         if (report != null) {
             Logs.appendln(report, "# " + cn + ", " + mn);
         }
+        Maven.warmUp(app);
+        String fingerprint = BuildCache.ENABLED ? BuildCache.sourcesFingerprint(appDir) : null;
         for (int i = 0; i < buildCommands.length; i++) {
-            // We cannot run commands in parallel, we need them to follow one after another
-            final ExecutorService buildService = Executors.newFixedThreadPool(1);
             final List<String> cmd;
             // Replace possible placeholders with actual switches
             if (switchReplacements != null && !switchReplacements.isEmpty()) {
@@ -1143,18 +1425,90 @@ public class Commands {
             } else {
                 cmd = getRunCommand(buildCommands[i]);
             }
-            Files.writeString(processLog.toPath(), String.join(" ", cmd) + "\n", StandardOpenOption.APPEND, StandardOpenOption.CREATE);
-            buildService.submit(new Commands.ProcessRunner(appDir, processLog, cmd, 20, env)); // might take a long time....
-            if (report != null) {
-                Logs.appendln(report, (new Date()).toString());
-                Logs.appendln(report, appDir.getAbsolutePath());
-                Logs.appendlnSection(report, String.join(" ", cmd));
+            if (BuildCache.ENABLED) {
+                fingerprint = BuildCache.fingerprint(fingerprint, cmd, env);
+                if (BuildCache.isCached(app, appDir, i, fingerprint, cmd)) {
+                    Files.writeString(processLog.toPath(), "Build cache, reusing: " + String.join(" ", cmd) + "\n",
+                            StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+                    if (report != null) {
+                        Logs.appendln(report, "Reused from the build cache, fingerprint " + fingerprint + ":");
+                        Logs.appendlnSection(report, String.join(" ", cmd));
+                    }
+                    continue;
+                }
+                BuildCache.invalidate(app, appDir, i);
+            }
+            final List<String> mvnCmd = Maven.decorate(cmd, app.dir, env, true);
+            final long attemptOffset = processLog.length();
+            Commands.ProcessRunner runner = runBuildCommand(mvnCmd, report, appDir, processLog, env);
+            if (runner.exitValue != 0 && Maven.isTuned(mvnCmd)) {
+                // Logs.checkLog and the build stage parsing must see the retry only, not the failed attempt's errors.
+                final File attemptLog = setAside(processLog, attemptOffset, mvnCmd.contains(Maven.DAEMON_EXECUTABLE) ? "mvnd-attempt" : "offline-attempt");
+                if (cn != null && mn != null) {
+                    Logs.archiveLog(cn, mn, attemptLog);
+                }
+                LOGGER.warnf("Offline or daemon build failed, repeating it with plain, online mvn: %s. See %s", cmd, attemptLog);
+                runner = runBuildCommand(Maven.decorate(cmd, app.dir, env, false), report, appDir, processLog, env);
+            }
+            if (BuildCache.ENABLED && runner.exitValue == 0) {
+                BuildCache.store(app, appDir, i, fingerprint);
             }
-            shutdownAndAwaitTermination(buildService, 20, TimeUnit.MINUTES); // Native image build might take a long time....
         }
         assertTrue(processLog.exists());
     }
 
+    /**
+     * Moves what the log got past the offset to a log of its own, named after the attempt, e.g. build-and-run-mvnd-attempt.log,
+     * and truncates the log back to the offset.
+     */
+    static File setAside(File log, long offset, String attempt) throws IOException {
+        final File attemptLog = new File(log.getParentFile(), log.getName().replaceFirst("(\\.log)?$", "-" + attempt + ".log"));
+        try (FileChannel in = FileChannel.open(log.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel out = FileChannel.open(attemptLog.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            in.transferTo(offset, in.size() - offset, out);
+            in.truncate(offset);
+        }
+        return attemptLog;
+    }
+
+    private static Commands.ProcessRunner runBuildCommand(List<String> cmd, StringBuilder report, File appDir, File processLog,
+                                                         Map<String, String> env) throws IOException {
+        cmd = CpuSets.pin(cmd);
+        // We cannot run commands in parallel, we need them to follow one after another
+        final ExecutorService buildService = Executors.newFixedThreadPool(1);
+        Files.writeString(processLog.toPath(), String.join(" ", cmd) + "\n", StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+        final Commands.ProcessRunner runner = new Commands.ProcessRunner(appDir, processLog, cmd, 20, env);
+        buildService.submit(runner); // might take a long time....
+        if (report != null) {
+            Logs.appendln(report, (new Date()).toString());
+            Logs.appendln(report, appDir.getAbsolutePath());
+            Logs.appendlnSection(report, String.join(" ", cmd));
+        }
+        shutdownAndAwaitTermination(buildService, 20, TimeUnit.MINUTES); // Native image build might take a long time....
+        return runner;
+    }
+
+    /**
+     * The newest Quarkus compatibility patch the app has for the Quarkus version used, e.g. quarkus_3.9.x.patch,
+     * null if there is none, i.e. the app builds as is. Apply it with git apply before builderRoutine.
+     */
+    public static String quarkusPatch(File appDir) {
+        final Object[][] patches = new Object[][] {
+                { "quarkus_3.21.x.patch", QuarkusVersion.V_3_21_0 },
+                { "quarkus_3.9.x.patch", QuarkusVersion.V_3_9_0 },
+                { "quarkus_3.8.x.patch", QuarkusVersion.V_3_8_0 },
+                { "quarkus_3.2.x.patch", QuarkusVersion.V_3_2_0 },
+                { "quarkus_3.x.patch", QuarkusVersion.V_3_0_0 }
+        };
+        for (Object[] p : patches) {
+            if (QUARKUS_VERSION.compareTo((QuarkusVersion) p[1]) >= 0 && new File(appDir, (String) p[0]).exists()) {
+                return (String) p[0];
+            }
+        }
+        return null;
+    }
+
     public static void builderRoutine(Apps app, StringBuilder report, String cn, String mn, File appDir, File processLog) throws IOException {
         builderRoutine(app, report, cn, mn, appDir, processLog, null, null);
     }
@@ -1274,6 +1628,14 @@ public class Commands {
 
     public static void cleanup(Process process, String cn, String mn, StringBuilder report, Apps app, File... log)
             throws InterruptedException, IOException {
+        cleanup(process, cn, mn, report, Workspace.shared(app), log);
+    }
+
+    /**
+     * The workspace cleans or removes the app directory, see Workspace.close.
+     */
+    public static void cleanup(Process process, String cn, String mn, StringBuilder report, Workspace ws, File... log)
+            throws InterruptedException, IOException {
         // Make sure processes are down even if there was an exception / failure
         if (process != null) {
             processStopper(process, true);
@@ -1282,11 +1644,11 @@ public class Commands {
         for (File f : log) {
             Logs.archiveLog(cn, mn, f);
         }
-        if (app.runtimeContainer != ContainerNames.NONE) {
-            removeContainers(app.runtimeContainer.name);
+        if (ws.app.runtimeContainer != ContainerNames.NONE) {
+            removeContainers(ws.app.runtimeContainer.name);
         }
         Logs.writeReport(cn, mn, report.toString());
-        cleanTarget(app);
+        ws.close();
     }
 
     public static void runJaegerContainer() {
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.graalvm.tests.integration.utils.Commands.CONTAINER_RUNTIME;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_MACOS;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_WINDOWS;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+
+/**
+ * Resource locks by tags, for parallel runs. Tests tagged CPU_EXCLUSIVE_TAGS, i.e. the perf ones, measure,
+ * everything else is functional and only needs some CPUs.
+ *
+ * With PERF_CPUS, e.g. -DPERF_CPUS=4-7, one perf test at a time gets those CPUs and its processes are pinned to them,
+ * taskset on Linux, --cpuset-cpus for containers. Functional tests and their builds run meanwhile, pinned to
+ * SHARED_CPUS, by default all the other CPUs. Without PERF_CPUS there is nothing to pin to, a perf test then waits
+ * for all running tests to finish and nothing else starts until it is done, i.e. an exclusive lock vs. shared ones.
+ *
+ * Within a perf test, the measured app and its load generator are kept apart: run commands go to APP_CPUS and
+ * a load generator command passed through pinLoad, e.g. Hyperfoil, to LOAD_CPUS. They default to the halves of
+ * PERF_CPUS, e.g. 4-5 and 6-7, and can be set without PERF_CPUS for sequential runs. Only child processes are pinned,
+ * the testsuite JVM, i.e. also the in-JVM HTTP client, is not, as functional tests running meanwhile share it.
+ * record puts the affinity the app actually had and its CPU migrations into the perf report.
+ *
+ * Sequential runs are not affected, the locks are never contended then. Registered by autodetection as Shards is.
+ */
+public class CpuSets implements BeforeEachCallback, AfterEachCallback {
+
+    private static final Logger LOGGER = Logger.getLogger(CpuSets.class.getName());
+
+    public static final Set<String> EXCLUSIVE_TAGS = Arrays.stream(
+                    getProperty("CPU_EXCLUSIVE_TAGS", "perfcheck,jfr-perf,runtimes,gc-matrix,build-scaling").split(","))
+            .map(String::trim).filter(t -> !t.isEmpty()).collect(Collectors.toSet());
+    public static final String PERF_CPUS = getProperty("PERF_CPUS", "");
+    public static final String SHARED_CPUS = getProperty("SHARED_CPUS", complement(PERF_CPUS));
+    public static final String APP_CPUS = getProperty("APP_CPUS", half(PERF_CPUS, true));
+    public static final String LOAD_CPUS = getProperty("LOAD_CPUS",
+            PERF_CPUS.isBlank() ? complement(APP_CPUS) : half(PERF_CPUS, false));
+
+    static {
+        if (!APP_CPUS.isBlank() && parse(APP_CPUS).intersects(parse(LOAD_CPUS))) {
+            LOGGER.warnf("APP_CPUS %s and LOAD_CPUS %s overlap, the load generator competes with the app", APP_CPUS, LOAD_CPUS);
+        }
+    }
+
+    private static final ReentrantReadWriteLock SUITE = new ReentrantReadWriteLock(true);
+    private static final ReentrantLock PERF = new ReentrantLock(true);
+    // CPUs of the test running on this thread, threads it starts inherit them
+    private static final InheritableThreadLocal<String> CURRENT = new InheritableThreadLocal<>();
+    private static final InheritableThreadLocal<Boolean> MEASURED = new InheritableThreadLocal<>();
+    private static final String LOCK = "lock";
+
+    public static boolean isPinning() {
+        return !PERF_CPUS.isBlank() && !IS_THIS_WINDOWS && !IS_THIS_MACOS;
+    }
+
+    public static boolean isSplitting() {
+        return !APP_CPUS.isBlank() && !IS_THIS_WINDOWS && !IS_THIS_MACOS;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        final boolean exclusive = context.getTags().stream().anyMatch(EXCLUSIVE_TAGS::contains);
+        final Lock lock;
+        if (isPinning()) {
+            lock = exclusive ? PERF : null;
+            CURRENT.set(exclusive ? PERF_CPUS : SHARED_CPUS);
+        } else {
+            lock = exclusive ? SUITE.writeLock() : SUITE.readLock();
+        }
+        if (lock != null) {
+            final long start = System.currentTimeMillis();
+            lock.lock();
+            final long waited = System.currentTimeMillis() - start;
+            if (waited > 1000) {
+                LOGGER.infof("%s waited %d ms for %s CPUs", context.getDisplayName(), waited, exclusive ? "exclusive" : "shared");
+            }
+            context.getStore(ExtensionContext.Namespace.create(CpuSets.class, context.getUniqueId())).put(LOCK, lock);
+        }
+        if (exclusive && isSplitting()) {
+            MEASURED.set(true);
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        CURRENT.remove();
+        MEASURED.remove();
+        final Lock lock = context.getStore(ExtensionContext.Namespace.create(CpuSets.class, context.getUniqueId())).remove(LOCK, Lock.class);
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return CPUs of the test running on this thread, null when not pinning
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static List<String> pin(List<String> cmd) {
+        return pin(cmd, current());
+    }
+
+    /**
+     * @return the run command on APP_CPUS in a perf test, as pin otherwise
+     */
+    public static List<String> pinApp(List<String> cmd) {
+        return pin(cmd, Boolean.TRUE.equals(MEASURED.get()) ? APP_CPUS : current());
+    }
+
+    /**
+     * @return the load generator command on LOAD_CPUS in a perf test, as pin otherwise
+     */
+    public static List<String> pinLoad(List<String> cmd) {
+        return pin(cmd, Boolean.TRUE.equals(MEASURED.get()) && !LOAD_CPUS.isBlank() ? LOAD_CPUS : current());
+    }
+
+    /**
+     * @return the command restricted to the CPUs, e.g. taskset -c 0-3 [cmd] or podman run --cpuset-cpus=0-3 ...
+     */
+    public static List<String> pin(List<String> cmd, String cpus) {
+        if (cpus == null || cpus.isBlank() || IS_THIS_WINDOWS || IS_THIS_MACOS || cmd.isEmpty() || "taskset".equals(cmd.get(0))
+                || cmd.stream().anyMatch(c -> c.startsWith("--cpuset-cpus"))) {
+            return cmd;
+        }
+        final List<String> pinned = new ArrayList<>(cmd.size() + 3);
+        if (cmd.size() > 1 && cmd.get(0).endsWith(CONTAINER_RUNTIME) && "run".equals(cmd.get(1))) {
+            pinned.addAll(cmd.subList(0, 2));
+            pinned.add("--cpuset-cpus=" + cpus);
+            pinned.addAll(cmd.subList(2, cmd.size()));
+        } else {
+            pinned.add("taskset");
+            pinned.add("-c");
+            pinned.add(cpus);
+            pinned.addAll(cmd);
+        }
+        return pinned;
+    }
+
+    /**
+     * Affinity the app actually had and its CPU migrations so far, and LOAD_CPUS pinLoad commands run on,
+     * e.g. appCpus 4-5, appCpuMigrations 12, loadCpus 6-7. Migrations are -1 without CONFIG_SCHED_DEBUG.
+     */
+    public static void record(Map<String, Object> report, long pid) {
+        if (IS_THIS_WINDOWS || IS_THIS_MACOS) {
+            return;
+        }
+        report.put("appCpus", affinity(pid));
+        report.put("appCpuMigrations", migrations(pid));
+        report.put("loadCpus", isSplitting() ? LOAD_CPUS : "");
+    }
+
+    /**
+     * @return Cpus_allowed_list of the process, empty if it cannot be read
+     */
+    public static String affinity(long pid) {
+        try (Stream<String> lines = Files.lines(Path.of("/proc", Long.toString(pid), "status"))) {
+            return lines.filter(l -> l.startsWith("Cpus_allowed_list:"))
+                    .map(l -> l.substring(l.indexOf(':') + 1).trim()).findFirst().orElse("");
+        } catch (IOException | UncheckedIOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * @return se.nr_migrations summed over the threads of the process, -1 if there is no /proc/[pid]/task/[tid]/sched
+     */
+    public static long migrations(long pid) {
+        long sum = -1;
+        try (DirectoryStream<Path> tasks = Files.newDirectoryStream(Path.of("/proc", Long.toString(pid), "task"))) {
+            for (Path task : tasks) {
+                try {
+                    final long m = nrMigrations(Files.readAllLines(task.resolve("sched")));
+                    if (m >= 0) {
+                        sum = Math.max(sum, 0) + m;
+                    }
+                } catch (IOException e) {
+                    // The thread is gone
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read threads of " + pid + ": " + e.getMessage());
+        }
+        return sum;
+    }
+
+    /**
+     * @param sched lines of /proc/[pid]/task/[tid]/sched, e.g. se.nr_migrations    :    3
+     */
+    public static long nrMigrations(List<String> sched) {
+        for (String l : sched) {
+            if (l.startsWith("se.nr_migrations")) {
+                return Long.parseLong(l.substring(l.indexOf(':') + 1).trim());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return first or second half of the CPU list, e.g. 4-5 and 6-7 of 4-7, empty for an empty list
+     */
+    public static String half(String list, boolean first) {
+        final BitSet cpus = parse(list);
+        final int n = cpus.cardinality();
+        final BitSet half = new BitSet();
+        int i = 0;
+        for (int cpu = cpus.nextSetBit(0); cpu >= 0; cpu = cpus.nextSetBit(cpu + 1), i++) {
+            if (first == (i < (n + 1) / 2)) {
+                half.set(cpu);
+            }
+        }
+        return format(half);
+    }
+
+    /**
+     * @param list e.g. 0-3,6
+     */
+    public static BitSet parse(String list) {
+        final BitSet cpus = new BitSet();
+        for (String range : list.split(",")) {
+            final String r = range.trim();
+            if (r.isEmpty()) {
+                continue;
+            }
+            final String[] fromTo = r.split("-");
+            final int from = Integer.parseInt(fromTo[0].trim());
+            cpus.set(from, (fromTo.length > 1 ? Integer.parseInt(fromTo[1].trim()) : from) + 1);
+        }
+        return cpus;
+    }
+
+    public static String format(BitSet cpus) {
+        final List<String> ranges = new ArrayList<>();
+        for (int from = cpus.nextSetBit(0); from >= 0; ) {
+            final int to = cpus.nextClearBit(from) - 1;
+            ranges.add(from == to ? Integer.toString(from) : from + "-" + to);
+            from = cpus.nextSetBit(to + 1);
+        }
+        return String.join(",", ranges);
+    }
+
+    /**
+     * @return the CPUs this JVM may run on, i.e. its Cpus_allowed_list, but not in the list, empty for an empty list
+     */
+    public static String complement(String list) {
+        if (list == null || list.isBlank()) {
+            return "";
+        }
+        final BitSet cpus = parse(affinity(ProcessHandle.current().pid()));
+        if (cpus.isEmpty()) {
+            // No /proc, CPU ids are assumed to be contiguous from 0
+            cpus.set(0, Runtime.getRuntime().availableProcessors());
+        }
+        cpus.andNot(parse(list));
+        return format(cpus);
+    }
+}
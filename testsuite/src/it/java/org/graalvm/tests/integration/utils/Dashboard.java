@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+
+/**
+ * Static, offline HTML dashboard of the results history, see ResultsStore: per app trend charts of startup,
+ * RSS, latency percentiles, image size, build time and throughput along Mandrel versions, A/B comparisons
+ * of the latest build, i.e. JFR vs. no JFR, +/-ParseOnce and PGO vs. no PGO, the latest histograms and
+ * regressions, i.e. the latest build worse than the median of the previous DASHBOARD_BASELINE_BUILDS
+ * by more than DASHBOARD_REGRESSION_PCT. Charts are inline SVG, the page needs neither network nor JavaScript.
+ *
+ * The first Logs.writeReport schedules testsuite/target/archived-logs/dashboard.html to be regenerated once,
+ * when the test JVM exits, DASHBOARD=false turns it off. It can also be generated from any store:
+ *
+ * java -cp testsuite/target/test-classes:$(cat testsuite/cp.txt) org.graalvm.tests.integration.utils.Dashboard \
+ *     --store results-store/results.jsonl --out dashboard.html
+ */
+public class Dashboard {
+
+    private static final Logger LOGGER = Logger.getLogger(Dashboard.class.getName());
+
+    public static final boolean ENABLED = Boolean.parseBoolean(getProperty("DASHBOARD", "true"));
+    public static final double REGRESSION_PCT = Double.parseDouble(getProperty("DASHBOARD_REGRESSION_PCT", "10"));
+    public static final int BASELINE_BUILDS = Integer.parseInt(getProperty("DASHBOARD_BASELINE_BUILDS", "5"));
+    // Builds shown in a chart, the most recent ones
+    public static final int CHART_BUILDS = Integer.parseInt(getProperty("DASHBOARD_CHART_BUILDS", "30"));
+
+    // Dimensions that change from build to build or run to run, i.e. the trend goes along them, everything else
+    // tells apart what is measured, e.g. GCMatrixTest gc and xmx or PerfCheckTest mode
+    static final Set<String> NOT_GROUPED = Set.of("mandrelVersion", "jdkVersion", "quarkusVersion", "noise");
+
+    private static boolean scheduled = false;
+
+    // Chart title -> metrics of the same meaning, the tests name them differently
+    static final Map<String, List<String>> CHARTS = new LinkedHashMap<>();
+
+    static {
+        CHARTS.put("Startup, time to first OK request ms", List.of("timeToFirstOKRequestMs"));
+        CHARTS.put("RSS kB", List.of("rssKb", "RSSKb"));
+        CHARTS.put("p50 latency ns", List.of("responseTime50PercentileNs", "p50LatencyNs", "loadHashP50LatencyNs"));
+        CHARTS.put("p99 latency ns", List.of("responseTime99PercentileNs", "p99LatencyNs", "loadHashP99LatencyNs"));
+        CHARTS.put("Image size kB", List.of("executableSizeKb"));
+        CHARTS.put("Build time ms", List.of("buildTimeMs"));
+        CHARTS.put("Throughput requests/s", List.of("requestsPerS", "loadHashRequestsPerS"));
+        CHARTS.put("Time to finish ms", List.of("timeToFinishMs"));
+    }
+
+    /**
+     * A/B pair: label, which records are A and B, and the dimensions that must match between A and B.
+     */
+    static class Comparison {
+        final String label;
+        final Predicate<ResultsStore.Record> a;
+        final Predicate<ResultsStore.Record> b;
+        final Function<ResultsStore.Record, String> pairKey;
+
+        Comparison(String label, Predicate<ResultsStore.Record> a, Predicate<ResultsStore.Record> b,
+                Function<ResultsStore.Record, String> pairKey) {
+            this.label = label;
+            this.a = a;
+            this.b = b;
+            this.pairKey = pairKey;
+        }
+    }
+
+    static final List<Comparison> COMPARISONS = List.of(
+            new Comparison("no JFR vs. JFR",
+                    r -> r.get("app").startsWith("PLAINTEXT_PERFORMANCE") || (!r.get("app").endsWith("_JFR") && !r.get("app").startsWith("JFR_PERFORMANCE")),
+                    r -> r.get("app").startsWith("JFR_PERFORMANCE") || r.get("app").endsWith("_JFR"),
+                    r -> r.get("testMethod") + " " + r.get("app").replace("PLAINTEXT_PERFORMANCE", "JFR_PERFORMANCE").replaceAll("_JFR$", "")),
+            new Comparison("-ParseOnce vs. +ParseOnce",
+                    r -> "false".equals(r.get("parseOnce")), r -> "true".equals(r.get("parseOnce")),
+                    r -> r.get("testMethod") + " " + r.get("app")),
+            new Comparison("no PGO vs. PGO",
+                    r -> "false".equals(r.get("pgo")), r -> "true".equals(r.get("pgo")),
+                    r -> r.get("testMethod") + " " + r.get("app")));
+
+    public static void generate(Path store, Path archivedLogs, Path out) throws IOException {
+        final List<ResultsStore.Record> records = ResultsStore.load(store);
+        final StringBuilder h = new StringBuilder(64 * 1024);
+        h.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Mandrel integration tests perf dashboard</title>\n<style>\n")
+                .append("body{font-family:sans-serif;margin:1em 2em;color:#222}h2{border-bottom:1px solid #ccc}table{border-collapse:collapse;margin:.5em 0}")
+                .append("td,th{border:1px solid #ccc;padding:2px 6px;text-align:right}th{background:#eee}td:first-child{text-align:left}")
+                .append(".bad{background:#fdd}.good{background:#dfd}.charts{display:flex;flex-wrap:wrap;gap:1em}figure{margin:0}")
+                .append("figcaption{font-size:.9em;font-weight:bold}svg text{font-size:10px}pre{background:#f6f6f6;padding:1em;overflow:auto}\n")
+                .append("</style></head><body>\n<h1>Mandrel integration tests perf dashboard</h1>\n");
+        h.append(String.format("<p>%d records from %s, generated %tF %<tT.</p>%n", records.size(), esc(store.toString()), System.currentTimeMillis()));
+
+        // Noisy measurements, see NoiseMonitor, are charted but do not raise regressions
+        regressions(h, records.stream().filter(r -> !"noisy".equals(r.get("noise"))).collect(Collectors.toList()));
+        comparisons(h, records);
+        final Map<String, Map<String, JSONObject>> histograms = latestHistograms(store);
+        final Set<String> apps = records.stream().map(r -> r.get("app")).collect(Collectors.toCollection(TreeSet::new));
+        for (String app : apps) {
+            final List<ResultsStore.Record> appRecords = records.stream().filter(r -> app.equals(r.get("app"))).collect(Collectors.toList());
+            final StringBuilder charts = new StringBuilder();
+            CHARTS.forEach((title, metrics) -> {
+                for (String metric : metrics) {
+                    final ResultsStore.Query q = new ResultsStore.Query().where("app", app);
+                    q.metric = metric;
+                    q.last = CHART_BUILDS;
+                    final List<ResultsStore.Point> points = ResultsStore.trend(appRecords, q);
+                    if (!points.isEmpty()) {
+                        charts.append(lineChart(title + (metrics.size() > 1 ? " (" + metric + ")" : ""), points));
+                    }
+                }
+            });
+            histograms.getOrDefault(app, Map.of()).forEach((label, histogram) -> charts.append(barChart(label, histogram)));
+            if (charts.length() > 0) {
+                h.append("<h2 id=\"").append(esc(app)).append("\">").append(esc(app)).append("</h2>\n<div class=\"charts\">\n")
+                        .append(charts).append("</div>\n");
+            }
+        }
+
+        final Path aggregated = archivedLogs.resolve("aggregated-report.md");
+        if (Files.exists(aggregated)) {
+            h.append("<h2>Aggregated report of the last run</h2>\n<details><summary>aggregated-report.md</summary><pre>")
+                    .append(esc(Files.readString(aggregated, UTF_8))).append("</pre></details>\n");
+        }
+        h.append("</body></html>\n");
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Files.writeString(out, h.toString(), UTF_8);
+    }
+
+    /**
+     * Called by Logs.writeReport, the dashboard is generated once, when the test JVM exits.
+     */
+    public static synchronized void scheduleRegeneration() {
+        if (scheduled || !ENABLED || !ResultsStore.isEnabled()) {
+            return;
+        }
+        scheduled = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(Dashboard::regenerate, "dashboard"));
+    }
+
+    /**
+     * A broken dashboard must not fail the test run.
+     */
+    static void regenerate() {
+        try {
+            final Path logs = Logs.getLogsDir();
+            generate(Path.of(ResultsStore.RESULTS_STORE), logs, logs.resolve("dashboard.html"));
+        } catch (Exception e) {
+            LOGGER.warn("Cannot generate the dashboard: " + e.getMessage());
+        }
+    }
+
+    static boolean higherIsBetter(String metric) {
+        return metric.endsWith("PerS");
+    }
+
+    /**
+     * Latest build of each measured configuration and tracked metric compared to the median of the builds before it.
+     * A configuration is all dimensions but NOT_GROUPED, e.g. app, testMethod, mode and gc, the test column lists
+     * testMethod and those of them that tell apart configurations of the same app and test.
+     */
+    static List<String[]> findRegressions(List<ResultsStore.Record> records) {
+        final List<String[]> regressions = new ArrayList<>();
+        final Map<Map<String, String>, List<ResultsStore.Record>> byConfiguration = records.stream()
+                .collect(Collectors.groupingBy(Dashboard::configuration, LinkedHashMap::new, Collectors.toList()));
+        // app and testMethod -> dimension -> values seen, to name the dimensions configurations differ in
+        final Map<String, Map<String, Set<String>>> values = new HashMap<>();
+        byConfiguration.keySet().forEach(c -> c.forEach((k, v) -> values
+                .computeIfAbsent(c.get("app") + "\t" + c.get("testMethod"), t -> new TreeMap<>())
+                .computeIfAbsent(k, d -> new TreeSet<>()).add(v)));
+        final List<Map<String, String>> configurations = new ArrayList<>(byConfiguration.keySet());
+        configurations.sort(Comparator.comparing(Map::toString));
+        for (Map<String, String> c : configurations) {
+            final String appTest = c.get("app") + "\t" + c.get("testMethod");
+            final String test = Stream.concat(Stream.of(c.getOrDefault("testMethod", "")), values.get(appTest).entrySet().stream()
+                            .filter(e -> e.getValue().size() > 1).map(e -> e.getKey() + "=" + c.getOrDefault(e.getKey(), "")))
+                    .collect(Collectors.joining(" "));
+            CHARTS.values().stream().flatMap(List::stream).forEach(metric -> {
+                final ResultsStore.Query q = new ResultsStore.Query();
+                q.metric = metric;
+                q.last = BASELINE_BUILDS + 1;
+                final List<ResultsStore.Point> points = ResultsStore.trend(byConfiguration.get(c), q);
+                if (points.size() < 2) {
+                    return;
+                }
+                final ResultsStore.Point latest = points.get(points.size() - 1);
+                final double baseline = ResultsStore.aggregate(points.subList(0, points.size() - 1).stream()
+                        .mapToDouble(p -> p.value).toArray(), "p50");
+                if (baseline == 0) {
+                    return;
+                }
+                final double change = (latest.value - baseline) * 100.0 / baseline;
+                if ((higherIsBetter(metric) ? -change : change) > REGRESSION_PCT) {
+                    regressions.add(new String[] { c.getOrDefault("app", ""), test, metric, latest.build,
+                            String.format("%.1f", baseline), String.format("%.1f", latest.value), String.format("%+.1f%%", change) });
+                }
+            });
+        }
+        return regressions;
+    }
+
+    private static Map<String, String> configuration(ResultsStore.Record r) {
+        final Map<String, String> c = new TreeMap<>(r.dimensions);
+        c.keySet().removeAll(NOT_GROUPED);
+        return c;
+    }
+
+    private static void regressions(StringBuilder h, List<ResultsStore.Record> records) {
+        final List<String[]> regressions = findRegressions(records);
+        h.append("<h2>Regressions</h2>\n");
+        if (regressions.isEmpty()) {
+            h.append(String.format("<p>No tracked metric of the latest build is more than %.0f%% worse than the median of the %d builds before it.</p>%n",
+                    REGRESSION_PCT, BASELINE_BUILDS));
+            return;
+        }
+        h.append("<table><tr><th>app</th><th>test</th><th>metric</th><th>build</th><th>baseline median</th><th>latest</th><th>change</th></tr>\n");
+        for (String[] r : regressions) {
+            h.append("<tr class=\"bad\">");
+            for (String c : r) {
+                h.append("<td>").append(esc(c)).append("</td>");
+            }
+            h.append("</tr>\n");
+        }
+        h.append("</table>\n");
+    }
+
+    private static void comparisons(StringBuilder h, List<ResultsStore.Record> records) {
+        final String latestBuild = records.stream().max((x, y) -> Long.compare(x.timestamp, y.timestamp))
+                .map(r -> r.get("mandrelVersion")).orElse(null);
+        if (latestBuild == null) {
+            return;
+        }
+        final List<ResultsStore.Record> latest = records.stream().filter(r -> latestBuild.equals(r.get("mandrelVersion"))).collect(Collectors.toList());
+        final Set<String> tracked = CHARTS.values().stream().flatMap(List::stream).collect(Collectors.toSet());
+        h.append("<h2>A/B comparisons, Mandrel ").append(esc(latestBuild)).append("</h2>\n");
+        boolean any = false;
+        for (Comparison c : COMPARISONS) {
+            final Map<String, List<ResultsStore.Record>> a = latest.stream().filter(c.a)
+                    .collect(Collectors.groupingBy(c.pairKey, TreeMap::new, Collectors.toList()));
+            final Map<String, List<ResultsStore.Record>> b = latest.stream().filter(c.b)
+                    .collect(Collectors.groupingBy(c.pairKey, TreeMap::new, Collectors.toList()));
+            for (String key : a.keySet()) {
+                if (!b.containsKey(key)) {
+                    continue;
+                }
+                final StringBuilder rows = new StringBuilder();
+                for (String metric : tracked.stream().sorted().collect(Collectors.toList())) {
+                    final double va = mean(a.get(key), metric);
+                    final double vb = mean(b.get(key), metric);
+                    if (Double.isNaN(va) || Double.isNaN(vb)) {
+                        continue;
+                    }
+                    final double change = va != 0 ? (vb - va) * 100.0 / va : 0;
+                    final boolean worse = (higherIsBetter(metric) ? -change : change) > REGRESSION_PCT;
+                    rows.append(String.format("<tr%s><td>%s</td><td>%.1f</td><td>%.1f</td><td>%+.1f%%</td></tr>%n",
+                            worse ? " class=\"bad\"" : "", esc(metric), va, vb, change));
+                }
+                if (rows.length() > 0) {
+                    any = true;
+                    h.append("<h3>").append(esc(c.label)).append(", ").append(esc(key)).append("</h3>\n<table><tr><th>metric</th><th>A</th><th>B</th><th>B vs. A</th></tr>\n")
+                            .append(rows).append("</table>\n");
+                }
+            }
+        }
+        if (!any) {
+            h.append("<p>No A/B pairs measured in this build.</p>\n");
+        }
+    }
+
+    private static double mean(List<ResultsStore.Record> records, String metric) {
+        return records.stream().filter(r -> r.metrics.containsKey(metric)).mapToDouble(r -> r.metrics.get(metric)).average().orElse(Double.NaN);
+    }
+
+    /**
+     * The most recent histograms per app, e.g. GCMatrixTest pauses, one chart per histogram name and text dimensions.
+     * Records do not hold histograms, i.e. the store is read once more.
+     */
+    private static Map<String, Map<String, JSONObject>> latestHistograms(Path store) throws IOException {
+        final Map<String, Map<String, JSONObject>> latest = new TreeMap<>();
+        if (Files.notExists(store)) {
+            return latest;
+        }
+        try (Stream<String> lines = Files.lines(store, UTF_8)) {
+            lines.filter(l -> l.contains("\"histograms\":{\"")).forEach(l -> {
+                if (!l.endsWith("}")) {
+                    return;
+                }
+                final JSONObject o = new JSONObject(l);
+                final JSONObject d = o.getJSONObject("dimensions");
+                if (!d.has("app")) {
+                    return;
+                }
+                final JSONObject histograms = o.getJSONObject("histograms");
+                for (String name : histograms.keySet()) {
+                    final StringBuilder label = new StringBuilder(name);
+                    for (String k : new String[] { "mode", "gc", "xmx", "xmn" }) {
+                        if (d.has(k) && !d.getString(k).isEmpty()) {
+                            label.append(' ').append(d.getString(k));
+                        }
+                    }
+                    latest.computeIfAbsent(d.getString("app"), a -> new TreeMap<>()).put(label.toString(), histograms.getJSONObject(name));
+                }
+            });
+        }
+        return latest;
+    }
+
+    static String lineChart(String title, List<ResultsStore.Point> points) {
+        final int w = 420;
+        final int ht = 180;
+        final int left = 60;
+        final int bottom = 50;
+        final double min = points.stream().mapToDouble(p -> p.value).min().getAsDouble();
+        final double max = points.stream().mapToDouble(p -> p.value).max().getAsDouble();
+        final double pad = max == min ? Math.max(1, Math.abs(max) * 0.1) : (max - min) * 0.1;
+        final double lo = min - pad;
+        final double hi = max + pad;
+        final double dx = points.size() > 1 ? (w - left - 10.0) / (points.size() - 1) : 0;
+        final StringBuilder s = new StringBuilder();
+        s.append("<figure><figcaption>").append(esc(title)).append("</figcaption>\n")
+                .append(String.format("<svg width=\"%d\" height=\"%d\" xmlns=\"http://www.w3.org/2000/svg\">", w, ht + bottom))
+                .append(String.format("<line x1=\"%d\" y1=\"0\" x2=\"%d\" y2=\"%d\" stroke=\"#999\"/>", left, left, ht))
+                .append(String.format("<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#999\"/>", left, ht, w, ht))
+                .append(String.format("<text x=\"%d\" y=\"10\" text-anchor=\"end\">%.0f</text>", left - 4, hi))
+                .append(String.format("<text x=\"%d\" y=\"%d\" text-anchor=\"end\">%.0f</text>", left - 4, ht, lo));
+        final StringBuilder line = new StringBuilder();
+        final StringBuilder dots = new StringBuilder();
+        for (int i = 0; i < points.size(); i++) {
+            final ResultsStore.Point p = points.get(i);
+            final double x = left + (points.size() > 1 ? i * dx : (w - left) / 2.0);
+            final double y = ht - (p.value - lo) / (hi - lo) * ht;
+            line.append(String.format("%.1f,%.1f ", x, y));
+            dots.append(String.format("<circle cx=\"%.1f\" cy=\"%.1f\" r=\"3\" fill=\"#36c\"><title>%s: %.1f, %d runs</title></circle>",
+                    x, y, esc(p.build), p.value, p.runs));
+            dots.append(String.format("<text x=\"%.1f\" y=\"%d\" transform=\"rotate(45 %.1f %d)\">%s</text>", x, ht + 12, x, ht + 12, esc(p.build)));
+        }
+        s.append("<polyline fill=\"none\" stroke=\"#36c\" points=\"").append(line.toString().trim()).append("\"/>").append(dots);
+        return s.append("</svg></figure>\n").toString();
+    }
+
+    static String barChart(String title, JSONObject histogram) {
+        final JSONArray bounds = histogram.getJSONArray("upperBounds");
+        final JSONArray counts = histogram.getJSONArray("counts");
+        final int w = 420;
+        final int ht = 180;
+        final int n = Math.max(1, counts.length());
+        long max = 1;
+        for (int i = 0; i < counts.length(); i++) {
+            max = Math.max(max, counts.getLong(i));
+        }
+        final double bw = (w - 20.0) / n;
+        final StringBuilder s = new StringBuilder();
+        s.append("<figure><figcaption>").append(esc(title)).append(String.format(", %d samples", histogram.getLong("count")))
+                .append("</figcaption>\n").append(String.format("<svg width=\"%d\" height=\"%d\" xmlns=\"http://www.w3.org/2000/svg\">", w, ht + 40));
+        for (int i = 0; i < counts.length(); i++) {
+            final double bh = counts.getLong(i) * (double) ht / max;
+            s.append(String.format("<rect x=\"%.1f\" y=\"%.1f\" width=\"%.1f\" height=\"%.1f\" fill=\"#6a6\"><title>&lt;= %d: %d</title></rect>",
+                    10 + i * bw, ht - bh, Math.max(1, bw - 2), bh, bounds.getLong(i), counts.getLong(i)));
+            s.append(String.format("<text x=\"%.1f\" y=\"%d\" transform=\"rotate(45 %.1f %d)\">%d</text>", 10 + i * bw, ht + 12, 10 + i * bw, ht + 12, bounds.getLong(i)));
+        }
+        return s.append("</svg></figure>\n").toString();
+    }
+
+    static String esc(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * [--store results.jsonl] [--logs testsuite/target/archived-logs] [--out dashboard.html]
+     */
+    public static void main(String[] args) throws IOException {
+        final List<String> a = Arrays.asList(args);
+        final Path store = Path.of(option(a, "--store", ResultsStore.RESULTS_STORE));
+        final Path logs = Path.of(option(a, "--logs", Logs.getLogsDir().toString()));
+        final Path out = Path.of(option(a, "--out", "dashboard.html"));
+        generate(store, logs, out);
+        System.out.println("Dashboard written to " + out.toAbsolutePath());
+    }
+
+    private static String option(List<String> args, String name, String defaultValue) {
+        final int i = args.indexOf(name);
+        return i >= 0 && i + 1 < args.size() ? args.get(i + 1) : defaultValue;
+    }
+}
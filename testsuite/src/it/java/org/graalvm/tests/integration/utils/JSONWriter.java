@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.http.HttpRequest;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streaming JSON writer for perf reports. Values are written by their Java type, i.e. long and int
+ * as integers, double as decimal numbers, boolean as true/false, null as null and everything else as
+ * an escaped string, so as nothing is guessed from the text of the value. long[] is written as an array
+ * and Histogram as an object. Output goes straight to the stream, large multi-run reports and
+ * histograms are not built in memory first.
+ */
+public class JSONWriter implements Closeable {
+
+    private final Writer w;
+    // true for each open container that already has a member, i.e. the next one needs a comma
+    private final Deque<Boolean> hasMembers = new ArrayDeque<>();
+    private boolean afterName = false;
+
+    public JSONWriter(OutputStream out) {
+        this.w = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+    }
+
+    public JSONWriter beginArray() throws IOException {
+        separate();
+        w.write('[');
+        hasMembers.push(false);
+        return this;
+    }
+
+    public JSONWriter endArray() throws IOException {
+        hasMembers.pop();
+        w.write(']');
+        return this;
+    }
+
+    public JSONWriter beginObject() throws IOException {
+        separate();
+        w.write('{');
+        hasMembers.push(false);
+        return this;
+    }
+
+    public JSONWriter endObject() throws IOException {
+        hasMembers.pop();
+        w.write('}');
+        return this;
+    }
+
+    public JSONWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        w.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JSONWriter value(long value) throws IOException {
+        separate();
+        w.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * NaN and infinities are not valid JSON, they are written as null.
+     */
+    public JSONWriter value(double value) throws IOException {
+        separate();
+        w.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    public JSONWriter value(boolean value) throws IOException {
+        separate();
+        w.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JSONWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            w.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    /**
+     * Already serialized JSON value, e.g. a spooled record, written as it is.
+     */
+    public JSONWriter rawValue(String json) throws IOException {
+        separate();
+        w.write(json);
+        return this;
+    }
+
+    public JSONWriter value(long[] values) throws IOException {
+        beginArray();
+        for (long v : values) {
+            value(v);
+        }
+        return endArray();
+    }
+
+    public JSONWriter value(Histogram h) throws IOException {
+        beginObject();
+        name("count").value(h.count);
+        name("min").value(h.min);
+        name("max").value(h.max);
+        name("upperBounds").value(h.upperBounds);
+        name("counts").value(h.counts);
+        return endObject();
+    }
+
+    /**
+     * Writes the value by its type, see the class description.
+     */
+    public JSONWriter value(Object value) throws IOException {
+        if (value == null) {
+            return value((String) null);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            return value(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            return value(((Boolean) value).booleanValue());
+        } else if (value instanceof long[]) {
+            return value((long[]) value);
+        } else if (value instanceof Histogram) {
+            return value((Histogram) value);
+        } else if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                name(String.valueOf(e.getKey())).value(e.getValue());
+            }
+            return endObject();
+        } else if (value instanceof Collection) {
+            beginArray();
+            for (Object o : (Collection<?>) value) {
+                value(o);
+            }
+            return endArray();
+        }
+        return value(value.toString());
+    }
+
+    public void flush() throws IOException {
+        w.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        w.close();
+    }
+
+    /**
+     * @return reports as a JSON array, for logging and spooling, upload bodies rather use publisher
+     */
+    public static String toJSON(List<Map<String, Object>> reports) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JSONWriter jw = new JSONWriter(out)) {
+            jw.value(reports);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(UTF_8);
+    }
+
+    /**
+     * Request body written by body up front, i.e. a failure to write it, e.g. an unchecked JSONException,
+     * is thrown here to the caller instead of sending a truncated body.
+     */
+    public static HttpRequest.BodyPublisher publisher(Body body) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JSONWriter jw = new JSONWriter(out)) {
+            body.write(jw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(out.toByteArray());
+    }
+
+    @FunctionalInterface
+    public interface Body {
+        void write(JSONWriter jw) throws IOException;
+    }
+
+    /**
+     * Power of two buckets, e.g. GC pauses in us: upperBounds 1, 2, 4, 8... counts[i] values are &lt;= upperBounds[i]
+     * and &gt; upperBounds[i - 1]. Empty buckets at the ends are left out.
+     */
+    public static class Histogram {
+        public final long count;
+        public final long min;
+        public final long max;
+        public final long[] upperBounds;
+        public final long[] counts;
+
+        private Histogram(long count, long min, long max, long[] upperBounds, long[] counts) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.upperBounds = upperBounds;
+            this.counts = counts;
+        }
+
+        public static Histogram of(long[] samples) {
+            if (samples.length == 0) {
+                return new Histogram(0, 0, 0, new long[0], new long[0]);
+            }
+            final long[] buckets = new long[64];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long s : samples) {
+                final long v = Math.max(s, 0);
+                // Smallest power of two >= v, 0 and 1 share the first bucket.
+                buckets[v <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(v - 1)]++;
+                min = Math.min(min, s);
+                max = Math.max(max, s);
+            }
+            int first = 0;
+            while (buckets[first] == 0) {
+                first++;
+            }
+            int last = buckets.length - 1;
+            while (buckets[last] == 0) {
+                last--;
+            }
+            final long[] upperBounds = new long[last - first + 1];
+            for (int i = 0; i < upperBounds.length; i++) {
+                upperBounds[i] = 1L << (first + i);
+            }
+            return new Histogram(samples.length, min, max, upperBounds, Arrays.copyOfRange(buckets, first, last + 1));
+        }
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!hasMembers.isEmpty()) {
+            if (hasMembers.peek()) {
+                w.write(',');
+            } else {
+                hasMembers.pop();
+                hasMembers.push(true);
+            }
+        }
+    }
+
+    private void string(String s) throws IOException {
+        w.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    w.write("\\\"");
+                    break;
+                case '\\':
+                    w.write("\\\\");
+                    break;
+                case '\n':
+                    w.write("\\n");
+                    break;
+                case '\r':
+                    w.write("\\r");
+                    break;
+                case '\t':
+                    w.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        w.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        w.write(c);
+                    }
+            }
+        }
+        w.write('"');
+    }
+}
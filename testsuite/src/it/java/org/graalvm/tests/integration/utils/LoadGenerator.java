@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.graalvm.tests.integration.utils.Commands.getRSSkB;
+
+/**
+ * Closed loop load generator: each of the concurrency threads sends a request,
+ * waits for the response and sends another one until the duration elapses.
+ * Used to measure throughput as opposed to single requests' latency.
+ */
+public class LoadGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadGenerator.class.getName());
+
+    public static class LoadResult {
+        public long requests = 0;
+        public long errors = 0;
+        public long bytesSent = 0;
+        public long bytesReceived = 0;
+        public long durationMs = 0;
+        public long meanLatencyNs = -1;
+        public long p50LatencyNs = -1;
+        public long p90LatencyNs = -1;
+        public long p99LatencyNs = -1;
+        public long maxLatencyNs = -1;
+        public long rssPeakKb = -1;
+
+        public long requestsPerS() {
+            return durationMs > 0 ? requests * 1000L / durationMs : -1;
+        }
+
+        public long bytesPerS() {
+            return durationMs > 0 ? (bytesSent + bytesReceived) * 1000L / durationMs : -1;
+        }
+
+        @Override
+        public String toString() {
+            return "requests: " + requests + ", errors: " + errors + ", req/s: " + requestsPerS() + ", bytes/s: " + bytesPerS() +
+                    ", mean: " + meanLatencyNs + "ns, p50: " + p50LatencyNs + "ns, p90: " + p90LatencyNs + "ns, p99: " +
+                    p99LatencyNs + "ns, max: " + maxLatencyNs + "ns, RSS peak: " + rssPeakKb + "kB";
+        }
+    }
+
+    /**
+     * @param hc          shared client, it holds the connection pool
+     * @param request     supplies the request to send, called for each request
+     * @param bodySize    request body size in bytes, for bytes/s accounting
+     * @param concurrency number of clients sending requests in parallel
+     * @param durationS   how long to keep sending requests
+     * @param pid         process to sample RSS of every 500ms, -1 to skip
+     */
+    public static LoadResult run(HttpClient hc, Supplier<HttpRequest> request, long bodySize,
+            int concurrency, long durationS, long pid) throws InterruptedException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be a positive int, was: " + concurrency);
+        }
+        if (durationS < 1) {
+            throw new IllegalArgumentException("durationS must be a positive long, was: " + durationS);
+        }
+        final LoadResult result = new LoadResult();
+        final AtomicLong rssPeakKb = new AtomicLong(-1L);
+        final ScheduledExecutorService rssSampler = Executors.newSingleThreadScheduledExecutor();
+        if (pid != -1) {
+            rssSampler.scheduleAtFixedRate(() -> {
+                try {
+                    rssPeakKb.accumulateAndGet(getRSSkB(pid), Math::max);
+                } catch (IOException | InterruptedException e) {
+                    LOGGER.debug("RSS sampling failed: " + e.getMessage());
+                }
+            }, 0, 500, TimeUnit.MILLISECONDS);
+        }
+        final ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        final List<Future<long[]>> futures = new ArrayList<>(concurrency);
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong bytesReceived = new AtomicLong();
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.SECONDS.toNanos(durationS);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    final long sent = System.nanoTime();
+                    try {
+                        final HttpResponse<byte[]> r = hc.send(request.get(), HttpResponse.BodyHandlers.ofByteArray());
+                        final long latency = System.nanoTime() - sent;
+                        if (r.statusCode() != 200) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        bytesReceived.addAndGet(r.body().length);
+                        requests.incrementAndGet();
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = latency;
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                        LOGGER.debug("Request failed: " + e.getMessage());
+                    }
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        final List<long[]> perClient = new ArrayList<>(concurrency);
+        for (Future<long[]> f : futures) {
+            try {
+                perClient.add(f.get());
+            } catch (ExecutionException e) {
+                LOGGER.error("Load generator client failed", e);
+            }
+        }
+        result.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        clients.shutdownNow();
+        rssSampler.shutdownNow();
+        final long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        result.requests = requests.get();
+        result.errors = errors.get();
+        result.bytesSent = bodySize * (result.requests + result.errors);
+        result.bytesReceived = bytesReceived.get();
+        result.rssPeakKb = rssPeakKb.get();
+        if (all.length > 0) {
+            result.meanLatencyNs = (long) Arrays.stream(all).average().orElse(-1);
+            result.p50LatencyNs = percentile(all, 50);
+            result.p90LatencyNs = percentile(all, 90);
+            result.p99LatencyNs = percentile(all, 99);
+            result.maxLatencyNs = all[all.length - 1];
+        }
+        LOGGER.info("Load generator, concurrency " + concurrency + ", " + durationS + "s: " + result);
+        return result;
+    }
+
+    /**
+     * Nearest rank percentile of a sorted array.
+     */
+    public static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return -1L;
+        }
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+}
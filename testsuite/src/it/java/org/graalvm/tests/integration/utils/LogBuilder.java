@@ -42,10 +42,20 @@ public class LogBuilder {
 
     private static final String buildTimeMsHeader = "buildTimeMs";
     private long buildTimeMs = -1L;
+    private static final String timeToProcessStartMsHeader = "timeToProcessStartMs";
+    private long timeToProcessStartMs = -1L;
+    private static final String timeToFirstOutputMsHeader = "timeToFirstOutputMs";
+    private long timeToFirstOutputMs = -1L;
+    private static final String timeToStartedLogMsHeader = "timeToStartedLogMs";
+    private long timeToStartedLogMs = -1L;
+    private static final String timeToListenMsHeader = "timeToListenMs";
+    private long timeToListenMs = -1L;
     private static final String timeToFirstOKRequestMsHeader = "timeToFirstOKRequestMs";
     private long timeToFirstOKRequestMs = -1L;
     private static final String timeToFinishMsHeader = "timeToFinishMs";
     private long timeToFinishMs = -1L;
+    private static final String timeToShutdownMsHeader = "timeToShutdownMs";
+    private long timeToShutdownMs = -1L;
     private static final String rssKbHeader = "RSSKb";
     private long rssKb = -1L;
     private static final String executableSizeKbHeader = "executableSizeKb";
@@ -73,6 +83,38 @@ public class LogBuilder {
         return this;
     }
 
+    public LogBuilder timeToProcessStartMs(long timeToProcessStartMs) {
+        if (timeToProcessStartMs < 0) {
+            throw new IllegalArgumentException("timeToProcessStartMs must be a positive long, was: " + timeToProcessStartMs);
+        }
+        this.timeToProcessStartMs = timeToProcessStartMs;
+        return this;
+    }
+
+    public LogBuilder timeToFirstOutputMs(long timeToFirstOutputMs) {
+        if (timeToFirstOutputMs < 0) {
+            throw new IllegalArgumentException("timeToFirstOutputMs must be a positive long, was: " + timeToFirstOutputMs);
+        }
+        this.timeToFirstOutputMs = timeToFirstOutputMs;
+        return this;
+    }
+
+    public LogBuilder timeToStartedLogMs(long timeToStartedLogMs) {
+        if (timeToStartedLogMs < 0) {
+            throw new IllegalArgumentException("timeToStartedLogMs must be a positive long, was: " + timeToStartedLogMs);
+        }
+        this.timeToStartedLogMs = timeToStartedLogMs;
+        return this;
+    }
+
+    public LogBuilder timeToListenMs(long timeToListenMs) {
+        if (timeToListenMs < 0) {
+            throw new IllegalArgumentException("timeToListenMs must be a positive long, was: " + timeToListenMs);
+        }
+        this.timeToListenMs = timeToListenMs;
+        return this;
+    }
+
     public LogBuilder timeToFirstOKRequestMs(long timeToFirstOKRequestMs) {
         if (timeToFirstOKRequestMs < 0) {
             throw new IllegalArgumentException("timeToFirstOKRequestMs must be a positive long, was: " + timeToFirstOKRequestMs);
@@ -89,6 +131,14 @@ public class LogBuilder {
         return this;
     }
 
+    public LogBuilder timeToShutdownMs(long timeToShutdownMs) {
+        if (timeToShutdownMs < 0) {
+            throw new IllegalArgumentException("timeToShutdownMs must be a positive long, was: " + timeToShutdownMs);
+        }
+        this.timeToShutdownMs = timeToShutdownMs;
+        return this;
+    }
+
     public LogBuilder executableSizeKb(long executableSizeKb) {
         if (executableSizeKb < 0) {
             throw new IllegalArgumentException("executableSizeKb must be a positive long, was: " + executableSizeKb);
@@ -178,6 +228,34 @@ public class LogBuilder {
             l.append(',');
             sections++;
         }
+        if (timeToProcessStartMs != -1L) {
+            h.append(timeToProcessStartMsHeader);
+            h.append(',');
+            l.append(timeToProcessStartMs);
+            l.append(',');
+            sections++;
+        }
+        if (timeToFirstOutputMs != -1L) {
+            h.append(timeToFirstOutputMsHeader);
+            h.append(',');
+            l.append(timeToFirstOutputMs);
+            l.append(',');
+            sections++;
+        }
+        if (timeToStartedLogMs != -1L) {
+            h.append(timeToStartedLogMsHeader);
+            h.append(',');
+            l.append(timeToStartedLogMs);
+            l.append(',');
+            sections++;
+        }
+        if (timeToListenMs != -1L) {
+            h.append(timeToListenMsHeader);
+            h.append(',');
+            l.append(timeToListenMs);
+            l.append(',');
+            sections++;
+        }
         if (timeToFirstOKRequestMs != -1L) {
             h.append(timeToFirstOKRequestMsHeader);
             h.append(',');
@@ -192,6 +270,13 @@ public class LogBuilder {
             l.append(',');
             sections++;
         }
+        if (timeToShutdownMs != -1L) {
+            h.append(timeToShutdownMsHeader);
+            h.append(',');
+            l.append(timeToShutdownMs);
+            l.append(',');
+            sections++;
+        }
         if (rssKb != -1L) {
             h.append(rssKbHeader);
             h.append(',');
@@ -31,6 +31,7 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -96,18 +97,16 @@ public class Logs {
     }
 
     public static void checkThreshold(Apps app, Mode mode, long executableSizeKb, long rssKb, long timeToFirstOKRequest,
-            long timeToFinishMs, long mean, long p50, long p90) {
+            long timeToFinishMs, long timeToShutdownMs, long mean, long p50, long p90) {
 
         final Path properties = Path.of(BASE_DIR, app.dir, "threshold.conf");
         if (app.thresholdProperties.isEmpty() &&
-                (executableSizeKb != SKIP || rssKb != SKIP || timeToFirstOKRequest != SKIP || timeToFinishMs != SKIP)) {
+                (executableSizeKb != SKIP || rssKb != SKIP || timeToFirstOKRequest != SKIP || timeToFinishMs != SKIP || timeToShutdownMs != SKIP)) {
             LOGGER.warn("It seem there is no " +properties +
                     ". Skipping checking thresholds.");
             return;
         }
-        final String propPrefix = (IS_THIS_WINDOWS ? "windows" : (IS_THIS_MACOS ? "macos" : "linux")) +
-                ((app.runtimeContainer != ContainerNames.NONE) ? ".container" : "") +
-                ((mode != Mode.NONE) ? "." + mode : "");
+        final String propPrefix = getPropPrefix(app, mode);
         final List<String> failures = new ArrayList<>();
 
         if (executableSizeKb != SKIP) {
@@ -164,6 +163,19 @@ public class Logs {
             }
         }
 
+        if (timeToShutdownMs != SKIP) {
+            final String key = propPrefix + ".time.to.shutdown.threshold.ms";
+            if (app.thresholdProperties.containsKey(key)) {
+                long timeToShutdownThresholdMs = app.thresholdProperties.get(key);
+                assertThreshold(failures, timeToShutdownMs <= timeToShutdownThresholdMs,
+                        "Application " + app + (mode != null ? " in mode " + mode : "") + " took " +
+                                timeToShutdownMs + " ms " + ((mode == Mode.DIFF_JVM || mode == Mode.DIFF_NATIVE) ? "more " : "") + "to shut down after SIGTERM, which is over " +
+                                timeToShutdownThresholdMs + " ms threshold by " + percentageValOverTh(timeToShutdownMs, timeToShutdownThresholdMs) + "%.", true);
+            } else {
+                LOGGER.error("timeToShutdownMs was to be checked, but there is no " + key + " in " + properties);
+            }
+        }
+
         if (mean != SKIP) {
             final String key = propPrefix + ".mean.latency";
             if (app.thresholdProperties.containsKey(key)) {
@@ -206,6 +218,79 @@ public class Logs {
         assertTrue(failures.isEmpty(), "\n" + String.join("\n", failures) + "\n");
     }
 
+    /**
+     * Checks each observed startup phase against its [mode.]time.to.*.threshold.ms key.
+     * Phases that were not observed or have no threshold defined are skipped.
+     */
+    public static void checkThreshold(Apps app, Mode mode, StartupPhases startupPhases) {
+        final Path properties = Path.of(BASE_DIR, app.dir, "threshold.conf");
+        final String propPrefix = getPropPrefix(app, mode);
+        final List<String> failures = new ArrayList<>();
+        for (StartupPhases.Phase phase : StartupPhases.Phase.values()) {
+            final long value = startupPhases.get(phase);
+            if (value == SKIP) {
+                continue;
+            }
+            final String key = propPrefix + "." + phase.thresholdKey;
+            if (app.thresholdProperties.containsKey(key)) {
+                long threshold = app.thresholdProperties.get(key);
+                assertThreshold(failures, value <= threshold,
+                        "Application " + app + (mode != null ? " in mode " + mode : "") + " took " +
+                                value + " ms " + phase.description + ", which is over " +
+                                threshold + " ms threshold by " + percentageValOverTh(value, threshold) + "%.", true);
+            } else {
+                LOGGER.debug(phase.header + " is not checked, there is no " + key + " in " + properties);
+            }
+        }
+        assertTrue(failures.isEmpty(), "\n" + String.join("\n", failures) + "\n");
+    }
+
+    /**
+     * Keys are [prefix].vthreads.[threads].[metric] for one thread count, falling back to [prefix].vthreads.[metric]
+     * for all of them. Throughput is a floor, the rest are ceilings. In diff modes, values and thresholds
+     * are percentages by which native is worse than JVM.
+     */
+    public static void checkThreshold(Apps app, Mode mode, VThreadsBench run) {
+        final Path properties = Path.of(BASE_DIR, app.dir, "threshold.conf");
+        final String propPrefix = getPropPrefix(app, mode);
+        final boolean diff = mode == Mode.DIFF_JVM || mode == Mode.DIFF_NATIVE;
+        final List<String> failures = new ArrayList<>();
+        for (Map.Entry<VThreadsBench.Metric, Long> e : run.getMetrics().entrySet()) {
+            final VThreadsBench.Metric metric = e.getKey();
+            final long value = e.getValue();
+            String key = propPrefix + ".vthreads." + run.threads + "." + metric.thresholdKey;
+            if (!app.thresholdProperties.containsKey(key)) {
+                key = propPrefix + ".vthreads." + metric.thresholdKey;
+            }
+            if (!app.thresholdProperties.containsKey(key)) {
+                LOGGER.debug(metric.header + " is not checked, there is no " + key + " in " + properties);
+                continue;
+            }
+            final long threshold = app.thresholdProperties.get(key);
+            final String what = "Application " + app + " in mode " + mode + " with " + run.threads + " virtual threads ";
+            if (diff) {
+                assertThreshold(failures, value <= threshold,
+                        what + "has " + metric.description + " worse than JVM by " + value + "%, which is over " +
+                                threshold + "% threshold.", metric.timeSensitive);
+            } else if (metric.lowerIsBetter) {
+                assertThreshold(failures, value <= threshold,
+                        what + "has " + metric.description + " " + value + " " + metric.unit + ", which is over " +
+                                threshold + " " + metric.unit + " threshold by " + percentageValOverTh(value, threshold) + "%.", metric.timeSensitive);
+            } else {
+                assertThreshold(failures, value >= threshold,
+                        what + "has " + metric.description + " " + value + " " + metric.unit + ", which is under " +
+                                threshold + " " + metric.unit + " threshold.", metric.timeSensitive);
+            }
+        }
+        assertTrue(failures.isEmpty(), "\n" + String.join("\n", failures) + "\n");
+    }
+
+    private static String getPropPrefix(Apps app, Mode mode) {
+        return (IS_THIS_WINDOWS ? "windows" : (IS_THIS_MACOS ? "macos" : "linux")) +
+                ((app.runtimeContainer != ContainerNames.NONE) ? ".container" : "") +
+                ((mode != Mode.NONE) ? "." + mode : "");
+    }
+
     public static void assertThreshold(List<String> failures, boolean condition, String message, boolean timeSensitive) {
         if (!condition) {
             if (FAIL_ON_PERF_REGRESSION == FailOnPerfRegressionEnum.TRUE ||
@@ -223,15 +308,19 @@ public class Logs {
     }
 
     public static void checkThreshold(Apps app, long executableSizeKb, long rssKb, long timeToFirstOKRequest) {
-        checkThreshold(app, Mode.NONE, executableSizeKb, rssKb, timeToFirstOKRequest, SKIP, SKIP, SKIP, SKIP);
+        checkThreshold(app, Mode.NONE, executableSizeKb, rssKb, timeToFirstOKRequest, SKIP, SKIP, SKIP, SKIP, SKIP);
+    }
+
+    public static void checkThreshold(Apps app, Mode mode, long executableSizeKb, long rssKb, long timeToFirstOKRequest, long timeToFinishMs, long timeToShutdownMs) {
+        checkThreshold(app, mode, executableSizeKb, rssKb, timeToFirstOKRequest, timeToFinishMs, timeToShutdownMs, SKIP, SKIP, SKIP);
     }
 
     public static void checkThreshold(Apps app, Mode mode, long executableSizeKb, long rssKb, long timeToFirstOKRequest, long timeToFinishMs) {
-        checkThreshold(app, mode, executableSizeKb, rssKb, timeToFirstOKRequest, timeToFinishMs, SKIP, SKIP, SKIP);
+        checkThreshold(app, mode, executableSizeKb, rssKb, timeToFirstOKRequest, timeToFinishMs, SKIP, SKIP, SKIP, SKIP);
     }
 
     public static void checkThreshold(Apps app, Mode mode, long executableSizeKb, long rssKb, long timeToFirstOKRequest, long mean, long p50, long p90) {
-        checkThreshold(app, mode, executableSizeKb, rssKb, timeToFirstOKRequest, SKIP, mean, p50, p90);
+        checkThreshold(app, mode, executableSizeKb, rssKb, timeToFirstOKRequest, SKIP, SKIP, mean, p50, p90);
     }
 
     public static void archiveLog(String testClass, String testMethod, File log) throws IOException {
@@ -255,7 +344,7 @@ public class Logs {
         Files.copy(log.toPath(), Paths.get(destDir.toString(), filename), REPLACE_EXISTING);
     }
 
-    public static void writeReport(String testClass, String testMethod, String text) throws IOException {
+    public static synchronized void writeReport(String testClass, String testMethod, String text) throws IOException {
         final Path destDir = getLogsDir(testClass, testMethod);
         Files.createDirectories(destDir);
         Files.write(Paths.get(destDir.toString(), "report.md"), text.getBytes(UTF_8), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
@@ -264,6 +353,7 @@ public class Logs {
             Files.write(aggregateReport, ("# Aggregated Report\n\n").getBytes(UTF_8), StandardOpenOption.CREATE);
         }
         Files.write(aggregateReport, text.getBytes(UTF_8), StandardOpenOption.APPEND);
+        Dashboard.scheduleRegeneration();
     }
 
     /**
@@ -303,6 +393,7 @@ public class Logs {
             Files.write(path, (log.headerCSV + "\n").getBytes(UTF_8), StandardOpenOption.CREATE);
         }
         Files.write(path, (log.lineCSV + "\n").getBytes(UTF_8), StandardOpenOption.APPEND);
+        ResultsStore.add(log, path);
         LOGGER.info("\n" + log.headerCSV + "\n" + log.lineCSV);
     }
 }
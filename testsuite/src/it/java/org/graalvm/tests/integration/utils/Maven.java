@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.graalvm.tests.integration.RuntimesSmokeTest.BASE_DIR;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
+
+/**
+ * Maven invocations of the app builds. With MAVEN_REPO_LOCAL set, the dependencies of the apps are resolved
+ * once into that dedicated local repository before the app's first build, and all app builds then run
+ * offline against it, i.e. network time is not part of the build time and the suite works without network
+ * once the repository is populated.
+ *
+ * Only the apps actually built are warmed up, each the first time it is built.
+ * The warm-up is dependency:go-offline with each app's own build flags, e.g. -Pnative and -Dquarkus.version.
+ * Artifacts resolved only during the build, e.g. Quarkus deployment modules, are not covered by it:
+ * an offline build that fails is repeated online against the same repository, so as the next run is complete.
+ * Apps whose warm-up failed are built online right away.
+ *
+ * With MAVEN_DAEMON=true, mvn commands go to mvnd instead, i.e. a Maven daemon kept warm for the whole
+ * test session, so as the repeated builds of matrix runs do not pay for Maven startup and cold JIT each time.
+ * It is used only if mvnd is on PATH and only for commands without extra environment, e.g. NATIVE_IMAGE_OPTIONS,
+ * as the daemon does not see the client's environment. A build that fails with the daemon is repeated with plain mvn.
+ * Note that the native-image builder is then a child of the daemon, not of the test, BuildProfiler sees stages only.
+ */
+public class Maven {
+
+    private static final Logger LOGGER = Logger.getLogger(Maven.class.getName());
+
+    // Dedicated local repository, empty means the user's default one and online builds
+    public static final String REPO_LOCAL = getProperty("MAVEN_REPO_LOCAL", "");
+    // Comma separated Apps to warm up along with the first app built, e.g. to populate REPO_LOCAL for later offline runs
+    public static final String WARMUP_APPS = getProperty("MAVEN_WARMUP_APPS", "");
+    public static final int WARMUP_THREADS = Integer.parseInt(getProperty("MAVEN_WARMUP_THREADS", "4"));
+    public static final long WARMUP_TIMEOUT_MIN = Long.parseLong(getProperty("MAVEN_WARMUP_TIMEOUT_MIN", "30"));
+    public static final boolean DAEMON = Boolean.parseBoolean(getProperty("MAVEN_DAEMON", "false"));
+    public static final String DAEMON_EXECUTABLE = getProperty("MAVEN_DAEMON_EXECUTABLE", "mvnd");
+
+    // App directories the warm-up succeeded for, and all it ran for
+    private static final Set<String> WARM_DIRS = Collections.synchronizedSet(new LinkedHashSet<>());
+    private static final Set<String> TRIED_DIRS = Collections.synchronizedSet(new LinkedHashSet<>());
+    private static boolean warmedUp = false;
+    private static Boolean daemonAvailable = null;
+
+    public static boolean isEnabled() {
+        return !REPO_LOCAL.isEmpty();
+    }
+
+    /**
+     * Resolves dependencies of the app into REPO_LOCAL, once per app directory and JVM, along with MAVEN_WARMUP_APPS
+     * the first time. Call it before the build time measurement starts, builderRoutine calls it too,
+     * so as it is never skipped.
+     */
+    public static synchronized void warmUp(Apps app) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        final List<Apps> apps = new ArrayList<>();
+        apps.add(app);
+        if (!warmedUp) {
+            warmedUp = true;
+            Arrays.stream(WARMUP_APPS.split(",")).map(String::trim).filter(a -> !a.isEmpty()).map(Apps::valueOf).forEach(apps::add);
+        }
+        // Commands per app directory, the directory's commands run one after another as they share target.
+        final Map<String, Set<List<String>>> byDir = new LinkedHashMap<>();
+        for (Apps a : apps) {
+            if (TRIED_DIRS.contains(a.dir)) {
+                continue;
+            }
+            for (String[] cmd : a.buildAndRunCmds.buildCommands) {
+                if (cmd.length > 0 && "mvn".equals(cmd[0])) {
+                    byDir.computeIfAbsent(a.dir, d -> new LinkedHashSet<>()).add(goOffline(cmd));
+                }
+            }
+        }
+        TRIED_DIRS.addAll(byDir.keySet());
+        if (byDir.isEmpty()) {
+            return;
+        }
+        final Path logs = Path.of(Logs.getLogsDir().toString(), "maven-warmup");
+        Files.createDirectories(logs);
+        Files.createDirectories(Path.of(REPO_LOCAL));
+        LOGGER.infof("Maven warm-up of %d app directories into %s", byDir.size(), REPO_LOCAL);
+        final long start = System.currentTimeMillis();
+        final ExecutorService warmUpService = Executors.newFixedThreadPool(WARMUP_THREADS);
+        final Map<String, Future<Boolean>> results = new LinkedHashMap<>();
+        byDir.forEach((dir, cmds) -> results.put(dir, warmUpService.submit(() -> {
+            final File appDir = Path.of(BASE_DIR, dir).toFile();
+            final File log = Path.of(logs.toString(), dir.replaceAll("[^a-zA-Z0-9._-]", "_") + ".log").toFile();
+            for (List<String> cmd : cmds) {
+                final Commands.ProcessRunner runner = new Commands.ProcessRunner(appDir, log, getRunCommand(cmd.toArray(String[]::new)), WARMUP_TIMEOUT_MIN);
+                runner.run();
+                if (runner.exitValue != 0) {
+                    LOGGER.warnf("Maven warm-up of %s failed, it is going to be built online. See %s", dir, log);
+                    return false;
+                }
+            }
+            return true;
+        })));
+        warmUpService.shutdown();
+        for (Map.Entry<String, Future<Boolean>> r : results.entrySet()) {
+            try {
+                if (r.getValue().get(WARMUP_TIMEOUT_MIN, TimeUnit.MINUTES)) {
+                    WARM_DIRS.add(r.getKey());
+                }
+            } catch (Exception e) {
+                LOGGER.warnf("Maven warm-up of %s did not finish: %s", r.getKey(), e.getMessage());
+            }
+        }
+        warmUpService.shutdownNow();
+        LOGGER.infof("Maven warm-up of %s took %d ms, %d app directories are built offline so far",
+                byDir.keySet(), System.currentTimeMillis() - start, WARM_DIRS.size());
+    }
+
+    /**
+     * Points mvn commands to REPO_LOCAL, makes them offline for warmed up apps and routes them to the daemon.
+     * Other commands are returned as they are.
+     *
+     * @param env   extra environment the command runs with, might be null
+     * @param tuned false for plain mvn, e.g. after an offline or daemon build failed
+     */
+    public static List<String> decorate(List<String> cmd, String appDir, Map<String, String> env, boolean tuned) {
+        final int mvn = cmd.indexOf("mvn");
+        if (mvn == -1) {
+            return cmd;
+        }
+        final List<String> result = new ArrayList<>(cmd);
+        if (isEnabled()) {
+            result.add(mvn + 1, "-Dmaven.repo.local=" + REPO_LOCAL);
+            if (tuned && WARM_DIRS.contains(appDir)) {
+                result.add(mvn + 1, "--offline");
+            }
+        }
+        if (tuned && DAEMON && (env == null || env.isEmpty()) && isDaemonAvailable()) {
+            result.set(mvn, DAEMON_EXECUTABLE);
+            // Plain output as from mvn, the logs are checked line by line.
+            result.add(mvn + 1, "-Dmvnd.rawStreams=true");
+        }
+        return result;
+    }
+
+    public static boolean isTuned(List<String> cmd) {
+        return cmd.contains("--offline") || cmd.contains(DAEMON_EXECUTABLE);
+    }
+
+    private static synchronized boolean isDaemonAvailable() {
+        if (daemonAvailable == null) {
+            try {
+                final String version = Commands.runCommand(getRunCommand(DAEMON_EXECUTABLE, "--version"));
+                daemonAvailable = version != null && version.toLowerCase().contains("mvnd");
+            } catch (IOException e) {
+                daemonAvailable = false;
+            }
+            if (daemonAvailable) {
+                LOGGER.info("Routing mvn builds to " + DAEMON_EXECUTABLE);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        Commands.runCommand(getRunCommand(DAEMON_EXECUTABLE, "--stop"));
+                    } catch (IOException e) {
+                        LOGGER.warn("Cannot stop " + DAEMON_EXECUTABLE + " daemons: " + e.getMessage());
+                    }
+                }));
+            } else {
+                LOGGER.warn(DAEMON_EXECUTABLE + " is not available, builds use plain mvn.");
+            }
+        }
+        return daemonAvailable;
+    }
+
+    /**
+     * e.g. mvn --batch-mode package -Pnative -Dquarkus.version=3.15.1 becomes
+     * mvn --batch-mode -Pnative -Dquarkus.version=3.15.1 -Dmaven.repo.local=... dependency:go-offline
+     */
+    static List<String> goOffline(String[] cmd) {
+        final List<String> result = new ArrayList<>();
+        result.add(cmd[0]);
+        for (int i = 1; i < cmd.length; i++) {
+            // Goals and phases are the only arguments not starting with a dash
+            if (cmd[i].startsWith("-")) {
+                result.add(cmd[i]);
+            }
+        }
+        result.add("-Dmaven.repo.local=" + REPO_LOCAL);
+        result.add("dependency:go-offline");
+        return result;
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.utils.Commands.CONTAINER_RUNTIME;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_MACOS;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_WINDOWS;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
+import static org.graalvm.tests.integration.utils.Commands.runCommand;
+
+/**
+ * Watches whether the machine was quiet during a measured window, e.g. a Hyperfoil run. It samples, every
+ * NOISE_SAMPLE_MS, the CPUs the measurement runs on, i.e. PERF_CPUS, APP_CPUS and LOAD_CPUS or all of them, see
+ * CpuSets:
+ * - steal time, the hypervisor giving the CPUs to someone else,
+ * - CPU time of processes other than the testsuite JVM, its children and the given containers, on those CPUs,
+ *   the testsuite JVM, not pinned, by its threads that last ran on those CPUs,
+ * - the 1 minute load average,
+ * - thermal throttling events of those CPUs,
+ * - CPU and memory pressure stall information, /proc/pressure.
+ *
+ * The window is noisy if any of them is over its NOISE_MAX_* threshold, a negative threshold turns the check off.
+ * Tests re-run noisy trials up to NOISE_RETRIES times before thresholds are applied and mark the results
+ * valid or noisy. Sampling reads /proc, it is Linux only, the window is always valid elsewhere.
+ */
+public class NoiseMonitor {
+
+    private static final Logger LOGGER = Logger.getLogger(NoiseMonitor.class.getName());
+
+    public static final boolean ENABLED = Boolean.parseBoolean(getProperty("NOISE_MONITOR", "true"));
+    public static final long SAMPLE_MS = Long.parseLong(getProperty("NOISE_SAMPLE_MS", "500"));
+    public static final int RETRIES = Integer.parseInt(getProperty("NOISE_RETRIES", "2"));
+    public static final double MAX_STEAL_PCT = Double.parseDouble(getProperty("NOISE_MAX_STEAL_PCT", "2"));
+    public static final double MAX_OTHER_CPU_PCT = Double.parseDouble(getProperty("NOISE_MAX_OTHER_CPU_PCT", "10"));
+    // Load average counts the measured processes too, off by default
+    public static final double MAX_LOAD_PER_CPU = Double.parseDouble(getProperty("NOISE_MAX_LOAD_PER_CPU", "-1"));
+    public static final long MAX_THROTTLE_EVENTS = Long.parseLong(getProperty("NOISE_MAX_THROTTLE_EVENTS", "0"));
+    // CPU pressure counts the measured processes waiting for each other too, off by default
+    public static final double MAX_CPU_PRESSURE_PCT = Double.parseDouble(getProperty("NOISE_MAX_CPU_PRESSURE_PCT", "-1"));
+    public static final double MAX_MEMORY_PRESSURE_PCT = Double.parseDouble(getProperty("NOISE_MAX_MEMORY_PRESSURE_PCT", "1"));
+
+    /**
+     * Cumulative counters at one point in time, ticks are USER_HZ as in /proc/stat.
+     */
+    public static class Sample {
+        public final long ms;
+        public long totalTicks;
+        public long idleTicks;
+        public long stealTicks;
+        public long ownTicks;
+        public long throttleEvents;
+        public long cpuStallUs = -1;
+        public long memoryStallUs = -1;
+        public double load1;
+
+        public Sample(long ms) {
+            this.ms = ms;
+        }
+    }
+
+    public static class Verdict {
+        public final boolean noisy;
+        public final List<String> reasons;
+        public final double stealPct;
+        public final double otherCpuPct;
+        public final double peakOtherCpuPct;
+        public final double maxLoad1;
+        public final long throttleEvents;
+        public final double cpuPressurePct;
+        public final double memoryPressurePct;
+
+        public Verdict(List<String> reasons, double stealPct, double otherCpuPct, double peakOtherCpuPct, double maxLoad1,
+                long throttleEvents, double cpuPressurePct, double memoryPressurePct) {
+            this.noisy = !reasons.isEmpty();
+            this.reasons = reasons;
+            this.stealPct = stealPct;
+            this.otherCpuPct = otherCpuPct;
+            this.peakOtherCpuPct = peakOtherCpuPct;
+            this.maxLoad1 = maxLoad1;
+            this.throttleEvents = throttleEvents;
+            this.cpuPressurePct = cpuPressurePct;
+            this.memoryPressurePct = memoryPressurePct;
+        }
+
+        public static Verdict valid() {
+            return new Verdict(List.of(), -1, -1, -1, -1, -1, -1, -1);
+        }
+
+        /**
+         * noise is a dimension in the results store, the rest are metrics.
+         */
+        public void toReport(Map<String, Object> report) {
+            report.put("noise", noisy ? "noisy" : "valid");
+            report.put("noiseStealPct", stealPct);
+            report.put("noiseOtherCpuPct", otherCpuPct);
+            report.put("noisePeakOtherCpuPct", peakOtherCpuPct);
+            report.put("noiseMaxLoad1", maxLoad1);
+            report.put("noiseThrottleEvents", throttleEvents);
+            report.put("noiseCpuPressurePct", cpuPressurePct);
+            report.put("noiseMemoryPressurePct", memoryPressurePct);
+        }
+
+        @Override
+        public String toString() {
+            return (noisy ? "noisy: " + String.join(", ", reasons) : "valid") + String.format(
+                    " (steal %.1f%%, other processes %.1f%% of CPU, peak %.1f%%, load %.2f, throttling %d, CPU pressure %.1f%%, memory pressure %.1f%%)",
+                    stealPct, otherCpuPct, peakOtherCpuPct, maxLoad1, throttleEvents, cpuPressurePct, memoryPressurePct);
+        }
+    }
+
+    private final List<Sample> samples = new ArrayList<>();
+    // CPU ticks per pid of ours when first and last seen, processes that exited keep their share.
+    // A process first seen mid-window counts from then on, not with the ticks it had before.
+    private final Map<Long, Long> firstTicksByPid = new HashMap<>();
+    private final Map<Long, Long> ownTicksByPid = new HashMap<>();
+    private final Set<Long> containerPids = new HashSet<>();
+    // Of the testsuite JVM when its affinity reaches beyond the measured CPUs, e.g. its HTTP client generating load:
+    // ticks per thread when last seen, and the ticks its threads spent since while last seen on the measured CPUs
+    private final Map<Long, Long> lastTicksByTid = new HashMap<>();
+    private long jvmTicks;
+    // null for all CPUs
+    private final BitSet cpus;
+    private final long startMs;
+    private Thread sampler;
+
+    private NoiseMonitor(BitSet cpus) {
+        this.cpus = cpus;
+        this.startMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Call right before the measured window.
+     *
+     * @param containers names of containers taking part in the measurement, e.g. the app and Hyperfoil,
+     *                   their processes are not children of the testsuite JVM
+     */
+    public static NoiseMonitor start(String... containers) {
+        final String measured = CpuSets.isPinning() ? CpuSets.PERF_CPUS :
+                CpuSets.isSplitting() ? CpuSets.APP_CPUS + "," + CpuSets.LOAD_CPUS : "";
+        final NoiseMonitor monitor = new NoiseMonitor(measured.isBlank() ? null : CpuSets.parse(measured));
+        if (!ENABLED || IS_THIS_WINDOWS || IS_THIS_MACOS) {
+            return monitor;
+        }
+        for (String container : containers) {
+            try {
+                final String pid = runCommand(getRunCommand(CONTAINER_RUNTIME, "inspect", "--format", "{{.State.Pid}}", container)).trim();
+                if (pid.matches("[0-9]+") && !"0".equals(pid)) {
+                    monitor.containerPids.add(Long.parseLong(pid));
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Noise monitor cannot find container " + container + ", its CPU counts as other processes': " + e.getMessage());
+            }
+        }
+        monitor.sample();
+        monitor.sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(SAMPLE_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                monitor.sample();
+            }
+        }, "noise-monitor");
+        monitor.sampler.setDaemon(true);
+        monitor.sampler.start();
+        return monitor;
+    }
+
+    /**
+     * The measured window as a resource, its verdict goes into the report when it closes, and the sampler stops
+     * when the window fails too, e.g. try (NoiseMonitor.Window ignored = NoiseMonitor.window(report)) { ... }
+     */
+    public static Window window(Map<String, Object> report, String... containers) {
+        return new Window(start(containers), report);
+    }
+
+    public static class Window implements AutoCloseable {
+        private final NoiseMonitor monitor;
+        private final Map<String, Object> report;
+
+        private Window(NoiseMonitor monitor, Map<String, Object> report) {
+            this.monitor = monitor;
+            this.report = report;
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            monitor.stop().toReport(report);
+        }
+    }
+
+    /**
+     * Call right after the measured window.
+     */
+    public Verdict stop() throws InterruptedException {
+        if (sampler == null) {
+            return Verdict.valid();
+        }
+        sampler.interrupt();
+        sampler.join(SAMPLE_MS * 2);
+        sample();
+        final int cpuCount = cpus == null ? Runtime.getRuntime().availableProcessors() : cpus.cardinality();
+        final Verdict verdict;
+        synchronized (samples) {
+            verdict = verdict(samples, cpuCount);
+        }
+        final String message = "Measurement window of " + (System.currentTimeMillis() - startMs) + " ms was " + verdict;
+        if (verdict.noisy) {
+            LOGGER.warn(message);
+        } else {
+            LOGGER.info(message);
+        }
+        return verdict;
+    }
+
+    public static Verdict verdict(List<Sample> samples, int cpuCount) {
+        final Sample first = samples.get(0);
+        final Sample last = samples.get(samples.size() - 1);
+        final long total = Math.max(1, last.totalTicks - first.totalTicks);
+        final double stealPct = (last.stealTicks - first.stealTicks) * 100.0 / total;
+        final double otherCpuPct = otherPct(first, last);
+        double peakOtherCpuPct = otherCpuPct;
+        double maxLoad1 = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            maxLoad1 = Math.max(maxLoad1, samples.get(i).load1);
+            if (i > 0) {
+                peakOtherCpuPct = Math.max(peakOtherCpuPct, otherPct(samples.get(i - 1), samples.get(i)));
+            }
+        }
+        final long throttleEvents = last.throttleEvents - first.throttleEvents;
+        final long windowUs = Math.max(1, (last.ms - first.ms) * 1000L);
+        final double cpuPressurePct = first.cpuStallUs < 0 ? -1 : (last.cpuStallUs - first.cpuStallUs) * 100.0 / windowUs;
+        final double memoryPressurePct = first.memoryStallUs < 0 ? -1 : (last.memoryStallUs - first.memoryStallUs) * 100.0 / windowUs;
+        final List<String> reasons = new ArrayList<>();
+        if (MAX_STEAL_PCT >= 0 && stealPct > MAX_STEAL_PCT) {
+            reasons.add(String.format("steal %.1f%% > %.1f%%", stealPct, MAX_STEAL_PCT));
+        }
+        if (MAX_OTHER_CPU_PCT >= 0 && otherCpuPct > MAX_OTHER_CPU_PCT) {
+            reasons.add(String.format("other processes %.1f%% of CPU > %.1f%%", otherCpuPct, MAX_OTHER_CPU_PCT));
+        }
+        if (MAX_LOAD_PER_CPU >= 0 && maxLoad1 / cpuCount > MAX_LOAD_PER_CPU) {
+            reasons.add(String.format("load %.2f > %.2f per CPU", maxLoad1, MAX_LOAD_PER_CPU));
+        }
+        if (MAX_THROTTLE_EVENTS >= 0 && throttleEvents > MAX_THROTTLE_EVENTS) {
+            reasons.add("thermal throttling " + throttleEvents + " > " + MAX_THROTTLE_EVENTS);
+        }
+        if (MAX_CPU_PRESSURE_PCT >= 0 && cpuPressurePct > MAX_CPU_PRESSURE_PCT) {
+            reasons.add(String.format("CPU pressure %.1f%% > %.1f%%", cpuPressurePct, MAX_CPU_PRESSURE_PCT));
+        }
+        if (MAX_MEMORY_PRESSURE_PCT >= 0 && memoryPressurePct > MAX_MEMORY_PRESSURE_PCT) {
+            reasons.add(String.format("memory pressure %.1f%% > %.1f%%", memoryPressurePct, MAX_MEMORY_PRESSURE_PCT));
+        }
+        return new Verdict(reasons, stealPct, otherCpuPct, peakOtherCpuPct, maxLoad1, throttleEvents, cpuPressurePct, memoryPressurePct);
+    }
+
+    /**
+     * Busy ticks of the CPUs not accounted for by our processes, of all ticks of the CPUs.
+     */
+    private static double otherPct(Sample a, Sample b) {
+        final long total = b.totalTicks - a.totalTicks;
+        if (total <= 0) {
+            return 0;
+        }
+        final long busy = total - (b.idleTicks - a.idleTicks) - (b.stealTicks - a.stealTicks);
+        return Math.max(0, busy - (b.ownTicks - a.ownTicks)) * 100.0 / total;
+    }
+
+    private void sample() {
+        final Sample s = new Sample(System.currentTimeMillis());
+        try {
+            final long[] ticks = cpuTicks(Files.readAllLines(Path.of("/proc", "stat"), UTF_8), cpus);
+            s.totalTicks = ticks[0];
+            s.idleTicks = ticks[1];
+            s.stealTicks = ticks[2];
+            s.load1 = Double.parseDouble(Files.readString(Path.of("/proc", "loadavg"), UTF_8).split(" ")[0]);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Noise monitor, /proc/stat: " + e.getMessage());
+        }
+        s.cpuStallUs = stallUs(Path.of("/proc", "pressure", "cpu"));
+        s.memoryStallUs = stallUs(Path.of("/proc", "pressure", "memory"));
+        s.throttleEvents = throttleEvents();
+        final List<ProcessHandle> ours = new ArrayList<>();
+        ours.add(ProcessHandle.current());
+        ProcessHandle.current().descendants().forEach(ours::add);
+        for (long pid : containerPids) {
+            ProcessHandle.of(pid).ifPresent(ph -> {
+                ours.add(ph);
+                ph.descendants().forEach(ours::add);
+            });
+        }
+        synchronized (samples) {
+            for (ProcessHandle ph : ours) {
+                final Path proc = Path.of("/proc", Long.toString(ph.pid()));
+                try {
+                    // Processes off the measured CPUs, e.g. builds of functional tests on SHARED_CPUS, do not count
+                    if (cpus != null) {
+                        final BitSet allowed = CpuSets.parse(CpuSets.affinity(ph.pid()));
+                        allowed.andNot(cpus);
+                        if (!allowed.isEmpty()) {
+                            if (ph.pid() == ProcessHandle.current().pid()) {
+                                sampleThreads(proc);
+                            }
+                            continue;
+                        }
+                    }
+                    final long ticks = processTicks(Files.readString(proc.resolve("stat"), UTF_8));
+                    firstTicksByPid.putIfAbsent(ph.pid(), ticks);
+                    ownTicksByPid.put(ph.pid(), ticks);
+                } catch (IOException | RuntimeException e) {
+                    // The process might have just exited.
+                    LOGGER.debug("Noise monitor, pid " + ph.pid() + ": " + e.getMessage());
+                }
+            }
+            s.ownTicks = jvmTicks + ownTicksByPid.entrySet().stream().mapToLong(e -> e.getValue() - firstTicksByPid.get(e.getKey())).sum();
+            samples.add(s);
+        }
+    }
+
+    /**
+     * Threads of the process count as ours by the CPU they last ran on, i.e. a thread's ticks since the previous
+     * sample count if it is on the measured CPUs now. A thread first seen counts from then on.
+     */
+    private void sampleThreads(Path proc) {
+        try (DirectoryStream<Path> tasks = Files.newDirectoryStream(proc.resolve("task"))) {
+            for (Path task : tasks) {
+                try {
+                    final String stat = Files.readString(task.resolve("stat"), UTF_8);
+                    final long ticks = processTicks(stat);
+                    final Long last = lastTicksByTid.put(Long.parseLong(task.getFileName().toString()), ticks);
+                    if (last != null && cpus.get(lastCpu(stat))) {
+                        jvmTicks += ticks - last;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // The thread might have just exited.
+                    LOGGER.debug("Noise monitor, " + task + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Noise monitor, " + proc + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param procStat lines of /proc/stat
+     * @param cpus     CPUs to sum the cpuN lines of, null for the cpu line, i.e. all of them
+     * @return total, idle including iowait and steal ticks
+     */
+    public static long[] cpuTicks(List<String> procStat, BitSet cpus) {
+        final long[] result = new long[3];
+        for (String line : procStat) {
+            if (!line.startsWith("cpu")) {
+                continue;
+            }
+            final String[] f = line.trim().split("\\s+");
+            if (cpus == null ? !"cpu".equals(f[0]) : "cpu".equals(f[0]) || !cpus.get(Integer.parseInt(f[0].substring(3)))) {
+                continue;
+            }
+            // user nice system idle iowait irq softirq steal, guest time is part of user already
+            for (int i = 1; i <= 8 && i < f.length; i++) {
+                result[0] += Long.parseLong(f[i]);
+            }
+            result[1] += Long.parseLong(f[4]) + Long.parseLong(f[5]);
+            result[2] += f.length > 8 ? Long.parseLong(f[8]) : 0;
+        }
+        return result;
+    }
+
+    /**
+     * @param stat /proc/[pid]/stat
+     * @return utime + stime ticks
+     */
+    public static long processTicks(String stat) {
+        // Skip the comm field, it might contain spaces. utime and stime are the 14th and 15th fields.
+        final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        return Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+    }
+
+    /**
+     * @param stat /proc/[pid]/task/[tid]/stat
+     * @return the CPU the thread last ran on
+     */
+    public static int lastCpu(String stat) {
+        // processor is the 39th field
+        final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        return Integer.parseInt(fields[36]);
+    }
+
+    /**
+     * @param pressure lines of /proc/pressure/[resource], e.g. some avg10=0.00 avg60=0.00 avg300=0.00 total=12345
+     * @return total microseconds some task stalled, -1 if unknown
+     */
+    public static long stallUs(List<String> pressure) {
+        for (String line : pressure) {
+            if (line.startsWith("some ")) {
+                for (String kv : line.split(" ")) {
+                    if (kv.startsWith("total=")) {
+                        return Long.parseLong(kv.substring(6));
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long stallUs(Path pressure) {
+        try {
+            return stallUs(Files.readAllLines(pressure, UTF_8));
+        } catch (IOException | RuntimeException e) {
+            // No PSI in the kernel or no permission
+            return -1;
+        }
+    }
+
+    private long throttleEvents() {
+        long events = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(Path.of("/sys", "devices", "system", "cpu"), "cpu[0-9]*")) {
+            for (Path dir : dirs) {
+                if (cpus != null && !cpus.get(Integer.parseInt(dir.getFileName().toString().substring(3)))) {
+                    continue;
+                }
+                for (String counter : List.of("core_throttle_count", "package_throttle_count")) {
+                    final Path c = dir.resolve("thermal_throttle").resolve(counter);
+                    if (Files.isReadable(c)) {
+                        events += Long.parseLong(Files.readString(c, UTF_8).trim());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Noise monitor, thermal throttling: " + e.getMessage());
+        }
+        return events;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.RuntimesSmokeTest.BASE_DIR;
+
+/**
+ * Request bodies read once and kept memory mapped, so as sending a request
+ * does not read the body from disk again, i.e. the client does not pollute perf stat
+ * measurements of the app with its own I/O. Each request gets a read-only view
+ * of the same mapped buffer, nothing is copied on the client side.
+ */
+public class PayloadCache {
+
+    private static final Logger LOGGER = Logger.getLogger(PayloadCache.class.getName());
+
+    // Chunks handed to the HttpClient, it is a view, not a copy.
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final Map<Path, ByteBuffer> CACHE = new ConcurrentHashMap<>();
+
+    // Generated bodies, not in the app source tree, and their sizes as written
+    public static final Path SIZED_DIR = Path.of(BASE_DIR, "testsuite", "target", "payloads");
+    private static final Map<Path, Long> SIZED = new ConcurrentHashMap<>();
+
+    /**
+     * @param body file, mapped on the first call, note that it must not change afterwards
+     * @return read-only buffer with the whole body
+     */
+    public static ByteBuffer get(Path body) {
+        return CACHE.computeIfAbsent(body.toAbsolutePath(), p -> {
+            try (FileChannel fc = FileChannel.open(p, StandardOpenOption.READ)) {
+                final MappedByteBuffer b = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+                // Touch the pages now, not while sending the first request.
+                b.load();
+                LOGGER.infof("Mapped %s, %d bytes", p, fc.size());
+                return b;
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot map " + p, e);
+            }
+        });
+    }
+
+    public static HttpRequest.BodyPublisher publisher(Path body) {
+        final ByteBuffer buffer = get(body);
+        return HttpRequest.BodyPublishers.fromPublisher(subscriber -> subscriber.onSubscribe(
+                new ChunkSubscription(buffer.asReadOnlyBuffer(), subscriber)), buffer.capacity());
+    }
+
+    /**
+     * Must be called before the file is rewritten, e.g. downloaded again.
+     */
+    public static void evict(Path body) {
+        CACHE.remove(body.toAbsolutePath());
+    }
+
+    /**
+     * Writes a JSON object of roughly targetBytes (at least one record) to SIZED_DIR,
+     * repeating the first record of the template under new keys, e.g. the /dump
+     * output of quarkus-json, i.e. Map&lt;Integer, Record&gt;. Reused within the run while its size
+     * is the one written, deleted by clear().
+     *
+     * @param template    JSON object of records
+     * @param targetBytes body size wanted, e.g. 1 kB to 100 MB
+     * @return path of the sized body, use it with publisher(...)
+     */
+    public static Path sized(Path template, long targetBytes) throws IOException {
+        final Path sized = SIZED_DIR.resolve(template.getFileName().toString().replace(".json", "") + "-" + targetBytes + ".json");
+        final Long size = SIZED.get(sized);
+        if (size != null && Files.exists(sized) && Files.size(sized) == size) {
+            return sized;
+        }
+        evict(sized);
+        Files.createDirectories(SIZED_DIR);
+        final JSONObject records = new JSONObject(Files.readString(template, UTF_8));
+        final String record = records.getJSONObject(records.keys().next()).toString();
+        long written = 1;
+        int i = 0;
+        try (BufferedWriter w = Files.newBufferedWriter(sized, UTF_8)) {
+            w.write('{');
+            do {
+                final String entry = (i > 0 ? "," : "") + "\"" + i + "\":" + record;
+                w.write(entry);
+                written += entry.getBytes(UTF_8).length;
+                i++;
+            } while (written + 1 < targetBytes);
+            w.write('}');
+        }
+        SIZED.put(sized, written + 1);
+        LOGGER.infof("Created %s with %d records, %d bytes", sized, i, written + 1);
+        return sized;
+    }
+
+    /**
+     * Unmaps all bodies and deletes the sized ones.
+     */
+    public static void clear() {
+        CACHE.clear();
+        for (Path sized : SIZED.keySet()) {
+            try {
+                Files.deleteIfExists(sized);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete " + sized + ": " + e.getMessage());
+            }
+            SIZED.remove(sized);
+        }
+    }
+
+    private static class ChunkSubscription implements Flow.Subscription {
+        private final ByteBuffer buffer;
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private long demand = 0;
+        private boolean emitting = false;
+
+        ChunkSubscription(ByteBuffer buffer, Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.buffer = buffer;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled.set(true);
+                subscriber.onError(new IllegalArgumentException("n must be a positive long, was: " + n));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                // request(...) might be called from onNext, do not recurse.
+                if (emitting) {
+                    return;
+                }
+                emitting = true;
+            }
+            while (true) {
+                synchronized (this) {
+                    if (demand == 0 || cancelled.get()) {
+                        emitting = false;
+                        return;
+                    }
+                    demand--;
+                }
+                if (!buffer.hasRemaining()) {
+                    cancelled.set(true);
+                    subscriber.onComplete();
+                    continue;
+                }
+                final ByteBuffer chunk = buffer.slice();
+                chunk.limit(Math.min(CHUNK_SIZE, chunk.remaining()));
+                buffer.position(buffer.position() + chunk.limit());
+                subscriber.onNext(chunk);
+                if (!buffer.hasRemaining()) {
+                    cancelled.set(true);
+                    subscriber.onComplete();
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.graalvm.tests.integration.utils.versions.UsedVersion;
+import org.jboss.logging.Logger;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.RuntimesSmokeTest.BASE_DIR;
+import static org.graalvm.tests.integration.utils.Commands.ARCH;
+import static org.graalvm.tests.integration.utils.Commands.QUARKUS_VERSION;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.graalvm.tests.integration.utils.versions.UsedVersion.getVersion;
+
+/**
+ * Local history of all measurements, so as trends and regressions can be looked at without the collector.
+ * Every measurements.csv line and every PerfCheckTest-like report is also appended as one JSON line to
+ * RESULTS_STORE, by default results-store/results.jsonl in the repository, i.e. out of target, so as it survives mvn clean.
+ *
+ * A record has dimensions, i.e. timestamp, app, mode, test, Mandrel, JDK and Quarkus versions, runner, arch and os,
+ * plus any text values of the report, e.g. gc or xmx, numeric metrics and histograms. Queries pick records by dimensions and
+ * aggregate one metric per build, e.g. p99 of timeToFirstOKRequestMs of JFR_PERFORMANCE over the last 30 Mandrel builds:
+ *
+ * java -cp testsuite/target/test-classes:$(cat cp.txt) org.graalvm.tests.integration.utils.ResultsStore \
+ *     --app JFR_PERFORMANCE --metric timeToFirstOKRequestMs --stat p99 --last 30
+ *
+ * See README for the class path. RESULTS_STORE=false turns recording off.
+ */
+public class ResultsStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ResultsStore.class.getName());
+
+    public static final String RESULTS_STORE = getProperty("RESULTS_STORE",
+            Path.of(BASE_DIR, "results-store", "results.jsonl").toString());
+
+    private static Map<String, String> environment = null;
+
+    public static class Record {
+        public final long timestamp;
+        public final Map<String, String> dimensions;
+        public final Map<String, Double> metrics;
+
+        public Record(long timestamp, Map<String, String> dimensions, Map<String, Double> metrics) {
+            this.timestamp = timestamp;
+            this.dimensions = dimensions;
+            this.metrics = metrics;
+        }
+
+        public String get(String dimension) {
+            return dimensions.getOrDefault(dimension, "");
+        }
+    }
+
+    /**
+     * One value of a trend, i.e. the metric aggregated over the runs of one build.
+     */
+    public static class Point {
+        public final String build;
+        public final long firstTimestamp;
+        public final int runs;
+        public final double value;
+
+        public Point(String build, long firstTimestamp, int runs, double value) {
+            this.build = build;
+            this.firstTimestamp = firstTimestamp;
+            this.runs = runs;
+            this.value = value;
+        }
+    }
+
+    public static class Query {
+        // Dimension name -> required value, e.g. app -> JFR_PERFORMANCE
+        public final Map<String, String> where = new TreeMap<>();
+        public String metric;
+        // min, max, mean, last or pNN, e.g. p99
+        public String stat = "mean";
+        // Dimension the trend goes along
+        public String by = "mandrelVersion";
+        // Last N builds, 0 means all
+        public int last = 0;
+        // Records younger than that many days, 0 means all
+        public int days = 0;
+
+        public Query where(String dimension, String value) {
+            where.put(dimension, value);
+            return this;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(RESULTS_STORE);
+    }
+
+    /**
+     * @param measurementsCSV e.g. target/archived-logs/[class]/[method]/measurements.csv, the test is taken from the path
+     */
+    public static void add(LogBuilder.Log log, Path measurementsCSV) {
+        final String[] header = log.headerCSV.split(",");
+        final String[] line = log.lineCSV.split(",");
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < header.length && i < line.length; i++) {
+            try {
+                values.put(header[i], Long.parseLong(line[i]));
+            } catch (NumberFormatException e) {
+                values.put(header[i], line[i]);
+            }
+        }
+        final Path dir = measurementsCSV.toAbsolutePath().getParent();
+        final String app = String.valueOf(values.remove("App"));
+        // e.g. JFR_PERFORMANCE_JVM_JFR, rows without the suffix are native runs
+        values.put("mode", (app.contains("_JVM") ? Logs.Mode.JVM : Logs.Mode.NATIVE).toString());
+        add(dir.getParent().getFileName().toString(), dir.getFileName().toString(), app, List.of(values));
+    }
+
+    /**
+     * @param reports e.g. PerfCheckTest records, numbers are metrics, everything else dimensions
+     */
+    public static void add(String testClass, String testMethod, Object app, List<Map<String, Object>> reports) {
+        if (!isEnabled()) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JSONWriter jw = new JSONWriter(out)) {
+            for (Map<String, Object> report : reports) {
+                final Map<String, Object> dimensions = new TreeMap<>(environment());
+                final Map<String, Object> metrics = new TreeMap<>();
+                final Map<String, Object> histograms = new TreeMap<>();
+                dimensions.put("testClass", testClass);
+                dimensions.put("testMethod", testMethod);
+                dimensions.put("app", String.valueOf(app));
+                report.forEach((k, v) -> {
+                    if (v instanceof Number) {
+                        metrics.put(k, v);
+                    } else if (v instanceof JSONWriter.Histogram) {
+                        histograms.put(k, v);
+                    } else if (v != null && !(v instanceof long[]) && !"testMethod".equals(k)) {
+                        dimensions.put(k, String.valueOf(v));
+                    }
+                });
+                dimensions.putIfAbsent("mode", Logs.Mode.NONE.toString());
+                jw.beginObject().name("timestamp").value(now).name("dimensions").value(dimensions).name("metrics").value(metrics)
+                        .name("histograms").value(histograms).endObject();
+                jw.rawValue("\n");
+            }
+        } catch (IOException e) {
+            LOGGER.error("Cannot serialize results: " + e.getMessage());
+            return;
+        }
+        final Path store = Path.of(RESULTS_STORE);
+        try {
+            Files.createDirectories(store.toAbsolutePath().getParent());
+            try (FileChannel fc = FileChannel.open(store, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    FileLock ignored = fc.lock()) {
+                // Parallel test JVMs append to the same store.
+                fc.write(ByteBuffer.wrap(out.toByteArray()));
+            }
+        } catch (IOException e) {
+            LOGGER.error("Cannot write results to " + store + ": " + e.getMessage());
+        }
+    }
+
+    public static List<Record> load(Path store) throws IOException {
+        final List<Record> records = new ArrayList<>();
+        if (Files.notExists(store)) {
+            return records;
+        }
+        for (String line : Files.readAllLines(store, UTF_8)) {
+            if (line.isBlank() || !line.endsWith("}")) {
+                continue;
+            }
+            final JSONObject o = new JSONObject(line);
+            final Map<String, String> dimensions = new TreeMap<>();
+            final JSONObject d = o.getJSONObject("dimensions");
+            for (String k : d.keySet()) {
+                dimensions.put(k, String.valueOf(d.get(k)));
+            }
+            final Map<String, Double> metrics = new TreeMap<>();
+            final JSONObject m = o.getJSONObject("metrics");
+            for (String k : m.keySet()) {
+                if (m.get(k) instanceof Number) {
+                    metrics.put(k, ((Number) m.get(k)).doubleValue());
+                }
+            }
+            records.add(new Record(o.getLong("timestamp"), dimensions, metrics));
+        }
+        return records;
+    }
+
+    public static List<Record> select(List<Record> records, Query q) {
+        final long since = q.days > 0 ? System.currentTimeMillis() - q.days * 24L * 3600_000L : 0;
+        return records.stream()
+                .filter(r -> r.timestamp >= since)
+                .filter(r -> q.where.entrySet().stream().allMatch(w -> w.getValue().equals(r.get(w.getKey()))))
+                .filter(r -> q.metric == null || r.metrics.containsKey(q.metric))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return one point per value of q.by, oldest build first, builds ordered by when they were first measured
+     */
+    public static List<Point> trend(List<Record> records, Query q) {
+        final Map<String, List<Record>> builds = select(records, q).stream()
+                .collect(Collectors.groupingBy(r -> r.get(q.by), LinkedHashMap::new, Collectors.toList()));
+        final List<Point> points = new ArrayList<>();
+        builds.forEach((build, runs) -> {
+            runs.sort(Comparator.comparingLong(r -> r.timestamp));
+            final double[] values = runs.stream().mapToDouble(r -> r.metrics.get(q.metric)).toArray();
+            points.add(new Point(build, runs.get(0).timestamp, runs.size(), aggregate(values, q.stat)));
+        });
+        points.sort(Comparator.comparingLong(p -> p.firstTimestamp));
+        return q.last > 0 && points.size() > q.last ? points.subList(points.size() - q.last, points.size()) : points;
+    }
+
+    /**
+     * @param stat min, max, mean, last or pNN, e.g. p50, nearest rank
+     */
+    public static double aggregate(double[] values, String stat) {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        switch (stat) {
+            case "min":
+                return Arrays.stream(values).min().getAsDouble();
+            case "max":
+                return Arrays.stream(values).max().getAsDouble();
+            case "mean":
+                return Arrays.stream(values).average().getAsDouble();
+            case "last":
+                return values[values.length - 1];
+            default:
+                if (!stat.matches("p\\d{1,3}")) {
+                    throw new IllegalArgumentException("Unknown stat " + stat + ", expected min, max, mean, last or pNN");
+                }
+                final double[] sorted = values.clone();
+                Arrays.sort(sorted);
+                final int p = Integer.parseInt(stat.substring(1));
+                final int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+                return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+        }
+    }
+
+    public static String toMarkdown(Query q, List<Point> points) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s of %s by %s, %s%n%n", q.stat, q.metric, q.by, q.where));
+        sb.append("| ").append(q.by).append(" | first measured | runs | ").append(q.stat).append(" | change |\n|---|---|---|---|---|\n");
+        Point previous = null;
+        for (Point p : points) {
+            sb.append(String.format("| %s | %tF %<tR | %d | %.1f | %s |%n", p.build, p.firstTimestamp, p.runs, p.value,
+                    previous != null && previous.value != 0 ? String.format("%+.1f%%", (p.value - previous.value) * 100.0 / previous.value) : ""));
+            previous = p;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Versions and the runner of this JVM, resolved once.
+     */
+    private static synchronized Map<String, String> environment() {
+        if (environment == null) {
+            final Map<String, String> e = new TreeMap<>();
+            e.put("arch", ARCH);
+            e.put("os", System.getProperty("os.name"));
+            e.put("quarkusVersion", QUARKUS_VERSION.isSnapshot() ?
+                    QUARKUS_VERSION.getGitSHA() + '.' + QUARKUS_VERSION.getVersionString() : QUARKUS_VERSION.getVersionString());
+            try {
+                e.put("mandrelVersion", getVersion(false).toString());
+                e.put("jdkVersion", String.format("%s.%s.%s", UsedVersion.jdkFeature(false),
+                        UsedVersion.jdkInterim(false), UsedVersion.jdkUpdate(false)));
+            } catch (Exception ex) {
+                // e.g. only the builder image is used
+                LOGGER.warn("Cannot get local Mandrel version for the results store: " + ex.getMessage());
+                e.put("mandrelVersion", "unknown");
+                e.put("jdkVersion", "unknown");
+            }
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (IOException ex) {
+                host = "unknown";
+            }
+            e.put("runner", getProperty("PERF_APP_RUNNER_DESCRIPTION", host));
+            environment = e;
+        }
+        return environment;
+    }
+
+    /**
+     * e.g. --app JFR_PERFORMANCE --metric responseTime99PercentileNs --stat p99 --last 30 [--mode NATIVE] [--by quarkusVersion]
+     * [--days 90] [--where gc=serial] [--store path], without --metric it lists the metrics recorded for the selection.
+     */
+    public static void main(String[] args) throws IOException {
+        final Query q = new Query();
+        Path store = Path.of(RESULTS_STORE);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--app":
+                    q.where("app", args[i + 1]);
+                    break;
+                case "--mode":
+                    q.where("mode", args[i + 1]);
+                    break;
+                case "--where":
+                    final String[] kv = args[i + 1].split("=", 2);
+                    q.where(kv[0], kv.length > 1 ? kv[1] : "");
+                    break;
+                case "--metric":
+                    q.metric = args[i + 1];
+                    break;
+                case "--stat":
+                    q.stat = args[i + 1];
+                    break;
+                case "--by":
+                    q.by = args[i + 1];
+                    break;
+                case "--last":
+                    q.last = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--days":
+                    q.days = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--store":
+                    store = Path.of(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        final List<Record> records = load(store);
+        if (q.metric == null) {
+            final Map<String, Integer> metrics = new TreeMap<>();
+            select(records, q).forEach(r -> r.metrics.keySet().forEach(m -> metrics.merge(m, 1, Integer::sum)));
+            System.out.println("| metric | records |\n|---|---|");
+            metrics.forEach((m, n) -> System.out.printf("| %s | %d |%n", m, n));
+            return;
+        }
+        System.out.print(toMarkdown(q, trend(records, q)));
+    }
+}
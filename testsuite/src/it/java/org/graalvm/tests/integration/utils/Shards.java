@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.RuntimesSmokeTest.BASE_DIR;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+
+/**
+ * Splits the suite among runner nodes. A coordinator packs test methods into N shards by their historical
+ * durations, longest first into the least loaded shard, and writes the plan. Each node runs the whole suite
+ * with -Dshard=i/N -Dshard.plan=plan.properties, i from 1, and this extension skips the tests of the other shards.
+ * Tests tagged SHARD_PINNED_TAGS, i.e. perf-sensitive ones, get the last SHARD_PINNED_SHARDS shards to themselves,
+ * so as builds of other apps do not skew their numbers. Without a plan, each node computes it from its own
+ * durations, i.e. the nodes must share the durations file then.
+ *
+ * Durations of every test, sharded or not, are appended to SHARD_DURATIONS, by default
+ * results-store/test-durations.csv next to ResultsStore. A test is estimated by the median of its last
+ * SHARD_DURATIONS_RUNS runs, unknown tests by the median of all known tests.
+ *
+ * plan --shards N [--out shard-plan.properties] [--include-tags a,b] [--exclude-tags c]
+ * merge --out testsuite/target/archived-logs [--store results.jsonl] shard1/archived-logs shard2/archived-logs...
+ * merge-lines --out results-store/results.jsonl shard1/results.jsonl shard2/results.jsonl...
+ *
+ * The extension is registered by autodetection, see junit-platform.properties.
+ */
+public class Shards implements ExecutionCondition, BeforeEachCallback, AfterEachCallback {
+
+    private static final Logger LOGGER = Logger.getLogger(Shards.class.getName());
+
+    public static final String SHARD = getProperty("SHARD", "");
+    public static final String SHARD_PLAN = getProperty("SHARD_PLAN", "");
+    public static final String SHARD_DURATIONS = getProperty("SHARD_DURATIONS",
+            Path.of(BASE_DIR, "results-store", "test-durations.csv").toString());
+    public static final int SHARD_DURATIONS_RUNS = Integer.parseInt(getProperty("SHARD_DURATIONS_RUNS", "5"));
+    public static final Set<String> SHARD_PINNED_TAGS = tags(getProperty("SHARD_PINNED_TAGS", "perfcheck,jfr-perf"));
+    public static final int SHARD_PINNED_SHARDS = Integer.parseInt(getProperty("SHARD_PINNED_SHARDS", "1"));
+    // Estimate of a test when no test has a recorded duration yet
+    public static final long SHARD_DEFAULT_DURATION_MS = Long.parseLong(getProperty("SHARD_DEFAULT_DURATION_MS", "60000"));
+
+    private static final String START = "start";
+    private static Map<String, Integer> assignment = null;
+
+    /**
+     * Test method id, e.g. org.graalvm.tests.integration.AppReproducersTest#timezonesBakedIn
+     */
+    public static String id(Class<?> c, Method m) {
+        return c.getName() + "#" + m.getName();
+    }
+
+    /**
+     * @return {i, N} of -Dshard=i/N, i from 1, or null when not sharding
+     */
+    public static int[] parseShard(String shard) {
+        if (shard == null || shard.isBlank()) {
+            return null;
+        }
+        final String[] iN = shard.trim().split("/");
+        if (iN.length != 2) {
+            throw new IllegalArgumentException("Expected shard=i/N, e.g. 2/4, got " + shard);
+        }
+        final int i = Integer.parseInt(iN[0].trim());
+        final int n = Integer.parseInt(iN[1].trim());
+        if (n < 1 || i < 1 || i > n) {
+            throw new IllegalArgumentException("Shard " + shard + " out of range, i goes from 1 to N");
+        }
+        return new int[] { i, n };
+    }
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        final int[] shard = parseShard(SHARD);
+        if (shard == null || context.getTestMethod().isEmpty() || shard[1] == 1) {
+            return ConditionEvaluationResult.enabled("Not sharded");
+        }
+        final String id = id(context.getRequiredTestClass(), context.getRequiredTestMethod());
+        final int s = shardOf(id, shard[1]);
+        return s == shard[0]
+                ? ConditionEvaluationResult.enabled("Shard " + SHARD)
+                : ConditionEvaluationResult.disabled(id + " runs on shard " + s + "/" + shard[1]);
+    }
+
+    private static synchronized int shardOf(String id, int n) {
+        if (assignment == null) {
+            try {
+                if (!SHARD_PLAN.isBlank()) {
+                    assignment = readPlan(Path.of(SHARD_PLAN), n);
+                } else {
+                    LOGGER.info("No SHARD_PLAN, computing it from " + SHARD_DURATIONS + ", all nodes must have the same file.");
+                    assignment = plan(discover(includeTags(), excludeTags()), estimates(Path.of(SHARD_DURATIONS)), n);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load the shard plan: " + e.getMessage(), e);
+            }
+        }
+        final Integer s = assignment.get(id);
+        if (s != null) {
+            return s;
+        }
+        // Test unknown to the coordinator, e.g. added after the plan was made, stays on a stable non-pinned shard.
+        final int general = Math.max(1, n - SHARD_PINNED_SHARDS);
+        return Math.floorMod(id.hashCode(), general) + 1;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(ExtensionContext.Namespace.create(Shards.class, context.getUniqueId())).put(START, System.currentTimeMillis());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        final Long start = context.getStore(ExtensionContext.Namespace.create(Shards.class, context.getUniqueId())).remove(START, Long.class);
+        if (start == null || "false".equalsIgnoreCase(SHARD_DURATIONS)) {
+            return;
+        }
+        final String line = String.format("%d,%s,%d%n", System.currentTimeMillis(),
+                id(context.getRequiredTestClass(), context.getRequiredTestMethod()), System.currentTimeMillis() - start);
+        final Path durations = Path.of(SHARD_DURATIONS);
+        try {
+            Files.createDirectories(durations.toAbsolutePath().getParent());
+            try (FileChannel fc = FileChannel.open(durations, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    FileLock ignored = fc.lock()) {
+                fc.write(ByteBuffer.wrap(line.getBytes(UTF_8)));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot record test duration to " + durations + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return test id -> median of its last SHARD_DURATIONS_RUNS durations in ms
+     */
+    public static Map<String, Long> estimates(Path durations) throws IOException {
+        final Map<String, List<Long>> runs = new HashMap<>();
+        if (Files.exists(durations)) {
+            try (Stream<String> lines = Files.lines(durations, UTF_8)) {
+                lines.map(l -> l.split(",")).filter(c -> c.length == 3 && c[2].matches("\\d+"))
+                        .forEach(c -> runs.computeIfAbsent(c[1], k -> new ArrayList<>()).add(Long.parseLong(c[2])));
+            }
+        }
+        final Map<String, Long> estimates = new TreeMap<>();
+        runs.forEach((id, d) -> {
+            final long[] last = d.subList(Math.max(0, d.size() - SHARD_DURATIONS_RUNS), d.size()).stream().mapToLong(Long::longValue).sorted().toArray();
+            estimates.put(id, last[last.length / 2]);
+        });
+        return estimates;
+    }
+
+    /**
+     * Test id -> its tags, both class and method ones. A test is pinned when it has any of SHARD_PINNED_TAGS.
+     */
+    public static Map<String, Integer> plan(Map<String, Set<String>> tests, Map<String, Long> estimates, int n) {
+        final long[] known = estimates.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        final long unknown = known.length > 0 ? known[known.length / 2] : SHARD_DEFAULT_DURATION_MS;
+        final int pinnedShards = n > SHARD_PINNED_SHARDS ? SHARD_PINNED_SHARDS : 0;
+        final long[] load = new long[n];
+        final Map<String, Integer> plan = new TreeMap<>();
+        // Longest first, name breaks ties, so as every node computes the same plan.
+        final List<String> ids = tests.keySet().stream()
+                .sorted(Comparator.comparingLong((String id) -> estimates.getOrDefault(id, unknown)).reversed().thenComparing(id -> id))
+                .collect(Collectors.toList());
+        for (String id : ids) {
+            final boolean pinned = pinnedShards > 0 && tests.get(id).stream().anyMatch(SHARD_PINNED_TAGS::contains);
+            final int from = pinned ? n - pinnedShards : 0;
+            final int to = pinned ? n : n - pinnedShards;
+            int least = from;
+            for (int s = from + 1; s < to; s++) {
+                if (load[s] < load[least]) {
+                    least = s;
+                }
+            }
+            load[least] += estimates.getOrDefault(id, unknown);
+            plan.put(id, least + 1);
+        }
+        return plan;
+    }
+
+    /**
+     * Test methods of the test classes next to this one, with their class and method tags.
+     */
+    public static Map<String, Set<String>> discover(Set<String> includeTags, Set<String> excludeTags) throws IOException {
+        final Path root;
+        try {
+            root = Path.of(Shards.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        final Map<String, Set<String>> tests = new TreeMap<>();
+        final List<String> classes;
+        try (Stream<Path> files = Files.walk(root)) {
+            classes = files.map(f -> root.relativize(f).toString())
+                    .filter(f -> f.endsWith(".class") && !f.contains("$"))
+                    .map(f -> f.substring(0, f.length() - ".class".length()).replace('/', '.').replace('\\', '.'))
+                    .collect(Collectors.toList());
+        }
+        for (String name : classes) {
+            final Class<?> c;
+            try {
+                c = Class.forName(name, false, Shards.class.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue;
+            }
+            if (Modifier.isAbstract(c.getModifiers())) {
+                continue;
+            }
+            for (Method m : c.getDeclaredMethods()) {
+                if (!m.isAnnotationPresent(Test.class) && !m.isAnnotationPresent(ParameterizedTest.class)) {
+                    continue;
+                }
+                final Set<String> tags = new TreeSet<>();
+                Arrays.stream(c.getAnnotationsByType(Tag.class)).forEach(t -> tags.add(t.value()));
+                Arrays.stream(m.getAnnotationsByType(Tag.class)).forEach(t -> tags.add(t.value()));
+                if ((includeTags.isEmpty() || tags.stream().anyMatch(includeTags::contains))
+                        && tags.stream().noneMatch(excludeTags::contains)) {
+                    tests.put(id(c, m), tags);
+                }
+            }
+        }
+        return tests;
+    }
+
+    private static Set<String> includeTags() {
+        return tags(getProperty("includeTags", ""));
+    }
+
+    private static Set<String> excludeTags() {
+        return tags(getProperty("excludeTags", ""));
+    }
+
+    private static Set<String> tags(String list) {
+        return Arrays.stream(list.split(",")).map(String::trim).filter(t -> !t.isEmpty()).collect(Collectors.toSet());
+    }
+
+    public static void writePlan(Map<String, Integer> plan, Map<String, Long> estimates, int n, Path out) throws IOException {
+        final long[] load = new long[n];
+        final long[] known = estimates.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        final long unknown = known.length > 0 ? known[known.length / 2] : SHARD_DEFAULT_DURATION_MS;
+        plan.forEach((id, s) -> load[s - 1] += estimates.getOrDefault(id, unknown));
+        final StringBuilder sb = new StringBuilder();
+        sb.append("# shards=").append(n).append('\n');
+        for (int s = 1; s <= n; s++) {
+            final int shard = s;
+            sb.append(String.format("# shard %d/%d: %d tests, estimated %d s%n", s, n,
+                    plan.values().stream().filter(v -> v == shard).count(), load[s - 1] / 1000));
+        }
+        plan.forEach((id, s) -> sb.append(id).append('=').append(s).append('\n'));
+        Files.writeString(out, sb.toString(), UTF_8);
+        System.out.print(sb.toString().lines().filter(l -> l.startsWith("#")).collect(Collectors.joining("\n", "", "\n")));
+    }
+
+    public static Map<String, Integer> readPlan(Path plan, int n) throws IOException {
+        final Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(plan, UTF_8)) {
+            p.load(r);
+        }
+        final String shards = Files.readAllLines(plan, UTF_8).stream().filter(l -> l.startsWith("# shards="))
+                .map(l -> l.substring("# shards=".length())).findFirst().orElse(String.valueOf(n));
+        if (Integer.parseInt(shards.trim()) != n) {
+            throw new IllegalArgumentException("Plan " + plan + " is for " + shards + " shards, not " + n);
+        }
+        final Map<String, Integer> assignment = new HashMap<>();
+        p.stringPropertyNames().forEach(id -> assignment.put(id, Integer.parseInt(p.getProperty(id).trim())));
+        return assignment;
+    }
+
+    /**
+     * Merges archived-logs of shard nodes: measurements.csv and aggregated-report.md are concatenated,
+     * other files copied, a clashing file is kept with a .shardK suffix.
+     */
+    public static void merge(Path out, List<Path> shardLogs) throws IOException {
+        Files.createDirectories(out);
+        for (int k = 0; k < shardLogs.size(); k++) {
+            final Path in = shardLogs.get(k);
+            final List<Path> files;
+            try (Stream<Path> walk = Files.walk(in)) {
+                files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            for (Path f : files) {
+                final Path dest = out.resolve(in.relativize(f).toString());
+                Files.createDirectories(dest.getParent());
+                final String name = f.getFileName().toString();
+                if (Files.notExists(dest)) {
+                    Files.copy(f, dest);
+                } else if ("measurements.csv".equals(name) || "aggregated-report.md".equals(name)) {
+                    // Header of measurements.csv is its first line, aggregated-report.md starts with "# Aggregated Report" and a blank line.
+                    final List<String> lines = Files.readAllLines(f, UTF_8);
+                    final int skip = "measurements.csv".equals(name) ? 1 : 2;
+                    final List<String> body = lines.subList(Math.min(skip, lines.size()), lines.size());
+                    if (!body.isEmpty()) {
+                        Files.write(dest, body, UTF_8, StandardOpenOption.APPEND);
+                    }
+                } else if (Files.mismatch(f, dest) != -1) {
+                    Files.copy(f, dest.resolveSibling(name + ".shard" + (k + 1)), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    /**
+     * Line-wise union of JSONL or CSV files, e.g. results.jsonl or test-durations.csv of shard nodes, duplicate and
+     * truncated lines dropped.
+     */
+    public static void mergeLines(Path out, List<Path> inputs) throws IOException {
+        final Set<String> lines = new LinkedHashSet<>();
+        if (Files.exists(out)) {
+            lines.addAll(Files.readAllLines(out, UTF_8));
+        }
+        for (Path in : inputs) {
+            Files.readAllLines(in, UTF_8).stream()
+                    .filter(l -> !l.isBlank() && (!l.startsWith("{") || l.endsWith("}")))
+                    .forEach(lines::add);
+        }
+        if (out.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(out.toAbsolutePath().getParent());
+        }
+        Files.write(out, lines, UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Expected plan, merge or merge-lines, see Shards javadoc.");
+        }
+        final Map<String, String> options = new HashMap<>();
+        final List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            } else {
+                inputs.add(Path.of(args[i]));
+            }
+        }
+        switch (args[0]) {
+            case "plan":
+                final int n = Integer.parseInt(options.getOrDefault("--shards", "2"));
+                final Map<String, Long> estimates = estimates(Path.of(options.getOrDefault("--durations", SHARD_DURATIONS)));
+                final Map<String, Integer> plan = plan(discover(tags(options.getOrDefault("--include-tags", "")),
+                        tags(options.getOrDefault("--exclude-tags", ""))), estimates, n);
+                writePlan(plan, estimates, n, Path.of(options.getOrDefault("--out", "shard-plan.properties")));
+                break;
+            case "merge":
+                final Path out = Path.of(options.getOrDefault("--out", Logs.getLogsDir().toString()));
+                merge(out, inputs);
+                if (options.containsKey("--store")) {
+                    Dashboard.generate(Path.of(options.get("--store")), out, out.resolve("dashboard.html"));
+                }
+                System.out.println("Merged " + inputs.size() + " shards to " + out.toAbsolutePath());
+                break;
+            case "merge-lines":
+                mergeLines(Path.of(options.get("--out")), inputs);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + args[0]);
+        }
+    }
+}
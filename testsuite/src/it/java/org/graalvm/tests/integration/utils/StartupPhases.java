@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_MACOS;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_WINDOWS;
+import static org.graalvm.tests.integration.utils.Commands.runCommand;
+
+/**
+ * Splits the time to the first OK request into phases. All values are in ms since the moment
+ * the harness asked for the process to be spawned:
+ *
+ * PROCESS_START    - process start time as the kernel sees it, /proc/[pid]/stat, 10ms resolution on most systems
+ * FIRST_OUTPUT     - the process wrote anything to its stdout/stderr
+ * STARTED_LOG      - the framework logged it is started, e.g. Quarkus "started in 0.021s" or Helidon "WEB server is up!"
+ * LISTEN           - the port is in LISTEN state, /proc/net/tcp[6]
+ *
+ * The last phase, the first OK request, is the existing timeToFirstOKRequestMs measured by WebpageTester.
+ * The /proc based phases are Linux only and stay -1 elsewhere. It monitors the very process it is given,
+ * i.e. not a child process e.g. in case the app is wrapped in perf stat or a container.
+ */
+public class StartupPhases {
+
+    private static final Logger LOGGER = Logger.getLogger(StartupPhases.class.getName());
+
+    public static final Pattern STARTED_PATTERN = Pattern.compile(".*(started in [0-9.]+s|WEB server is up!).*");
+    public static final long MONITOR_TIMEOUT_MS = Long.parseLong(Commands.getProperty("STARTUP_PHASES_MONITOR_TIMEOUT_MS", "60000"));
+    // Resolution of the phases. A finer poll competes for CPU with the very startup it measures.
+    public static final long POLL_MS = Long.parseLong(Commands.getProperty("STARTUP_PHASES_POLL_MS", "10"));
+    static final long CLK_TCK = clockTicks();
+
+    public enum Phase {
+        PROCESS_START("timeToProcessStartMs", "time.to.process.start.threshold.ms", "to start the process"),
+        FIRST_OUTPUT("timeToFirstOutputMs", "time.to.first.output.threshold.ms", "to write the first output"),
+        STARTED_LOG("timeToStartedLogMs", "time.to.started.log.threshold.ms", "to log it was started"),
+        LISTEN("timeToListenMs", "time.to.listen.threshold.ms", "to listen on its port");
+
+        public final String header;
+        public final String thresholdKey;
+        public final String description;
+
+        Phase(String header, String thresholdKey, String description) {
+            this.header = header;
+            this.thresholdKey = thresholdKey;
+            this.description = description;
+        }
+    }
+
+    private final Map<Phase, Long> phases = Collections.synchronizedMap(new EnumMap<>(Phase.class));
+    private final long spawnMs;
+    private final long spawnUptimeMs;
+    private final long logOffset;
+    private Thread monitor;
+
+    private StartupPhases(long spawnMs, long spawnUptimeMs, long logOffset) {
+        this.spawnMs = spawnMs;
+        this.spawnUptimeMs = spawnUptimeMs;
+        this.logOffset = logOffset;
+        for (Phase p : Phase.values()) {
+            phases.put(p, -1L);
+        }
+    }
+
+    /**
+     * Call right before runCommand.
+     *
+     * @param processLog log the process output is going to be appended to
+     */
+    public static StartupPhases beforeSpawn(File processLog) {
+        return new StartupPhases(System.currentTimeMillis(), uptimeMs(), processLog.exists() ? processLog.length() : 0L);
+    }
+
+    /**
+     * Call right after runCommand. It starts a daemon thread polling the log, /proc/[pid]/stat and /proc/net/tcp[6].
+     *
+     * @param process    the app process
+     * @param processLog log the process output is appended to
+     * @param port       app port
+     */
+    public StartupPhases monitor(Process process, File processLog, int port) {
+        // runCommand writes the command line, e.g. as pinned by CpuSets, to the log first, then the process appends its output.
+        final long outputOffset = afterFirstLine(processLog, logOffset);
+        final String hexPort = String.format(":%04X", port);
+        monitor = new Thread(() -> {
+            final long deadline = System.currentTimeMillis() + MONITOR_TIMEOUT_MS;
+            long position = outputOffset;
+            final StringBuilder pending = new StringBuilder();
+            while (System.currentTimeMillis() < deadline && !Thread.currentThread().isInterrupted() &&
+                    (phases.get(Phase.PROCESS_START) == -1 && !IS_THIS_WINDOWS && !IS_THIS_MACOS ||
+                            phases.get(Phase.FIRST_OUTPUT) == -1 ||
+                            phases.get(Phase.STARTED_LOG) == -1 ||
+                            phases.get(Phase.LISTEN) == -1 && !IS_THIS_WINDOWS && !IS_THIS_MACOS)) {
+                try {
+                    if (phases.get(Phase.PROCESS_START) == -1) {
+                        record(Phase.PROCESS_START, processStartMs(process.pid()));
+                    }
+                    if (processLog.length() > position) {
+                        record(Phase.FIRST_OUTPUT, System.currentTimeMillis() - spawnMs);
+                        if (phases.get(Phase.STARTED_LOG) == -1) {
+                            position = readLines(processLog, position, pending);
+                        }
+                    }
+                    if (phases.get(Phase.LISTEN) == -1 && isListening(hexPort)) {
+                        record(Phase.LISTEN, System.currentTimeMillis() - spawnMs);
+                    }
+                    if (!process.isAlive()) {
+                        break;
+                    }
+                    Thread.sleep(POLL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    LOGGER.debug("Startup phases monitor: " + e.getMessage());
+                }
+            }
+        }, "startup-phases-" + process.pid());
+        monitor.setDaemon(true);
+        monitor.start();
+        return this;
+    }
+
+    /**
+     * Call after the first OK request. It stops the monitor after giving it
+     * a moment to notice the phases that already happened.
+     */
+    public StartupPhases stop() throws InterruptedException {
+        if (monitor != null) {
+            monitor.join(1000);
+            monitor.interrupt();
+        }
+        LOGGER.info("Startup phases: " + phases);
+        return this;
+    }
+
+    public long get(Phase phase) {
+        return phases.get(phase);
+    }
+
+    public Map<Phase, Long> getPhases() {
+        return phases;
+    }
+
+    public LogBuilder toLogBuilder(LogBuilder logBuilder) {
+        if (get(Phase.PROCESS_START) != -1) {
+            logBuilder.timeToProcessStartMs(get(Phase.PROCESS_START));
+        }
+        if (get(Phase.FIRST_OUTPUT) != -1) {
+            logBuilder.timeToFirstOutputMs(get(Phase.FIRST_OUTPUT));
+        }
+        if (get(Phase.STARTED_LOG) != -1) {
+            logBuilder.timeToStartedLogMs(get(Phase.STARTED_LOG));
+        }
+        if (get(Phase.LISTEN) != -1) {
+            logBuilder.timeToListenMs(get(Phase.LISTEN));
+        }
+        return logBuilder;
+    }
+
+    /**
+     * Median of each phase across trials, ignoring trials where the phase was not observed.
+     */
+    public static StartupPhases aggregate(List<StartupPhases> trials) {
+        final StartupPhases result = new StartupPhases(-1L, -1L, 0L);
+        for (Phase p : Phase.values()) {
+            final long[] values = trials.stream().mapToLong(t -> t.get(p)).filter(v -> v != -1L).sorted().toArray();
+            if (values.length > 0) {
+                result.phases.put(p, values.length % 2 == 1 ? values[values.length / 2] :
+                        (values[values.length / 2 - 1] + values[values.length / 2]) / 2);
+            }
+        }
+        return result;
+    }
+
+    private void record(Phase phase, long value) {
+        if (value >= 0 && phases.get(phase) == -1) {
+            phases.put(phase, value);
+        }
+    }
+
+    /**
+     * @return position right past the first line at or after the offset, the offset if there is no complete line
+     */
+    static long afterFirstLine(File processLog, long offset) {
+        try (RandomAccessFile raf = new RandomAccessFile(processLog, "r")) {
+            raf.seek(offset);
+            int b;
+            while ((b = raf.read()) != -1) {
+                if (b == '\n') {
+                    return raf.getFilePointer();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read " + processLog + ": " + e.getMessage());
+        }
+        return offset;
+    }
+
+    private long readLines(File processLog, long position, StringBuilder pending) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(processLog, "r")) {
+            raf.seek(position);
+            final byte[] buffer = new byte[(int) Math.min(raf.length() - position, 1024 * 1024)];
+            raf.readFully(buffer);
+            pending.append(new String(buffer, UTF_8));
+            int nl;
+            while ((nl = pending.indexOf("\n")) != -1) {
+                if (STARTED_PATTERN.matcher(pending.substring(0, nl)).matches()) {
+                    record(Phase.STARTED_LOG, System.currentTimeMillis() - spawnMs);
+                }
+                pending.delete(0, nl + 1);
+            }
+            return position + buffer.length;
+        }
+    }
+
+    private long processStartMs(long pid) throws IOException {
+        if (IS_THIS_WINDOWS || IS_THIS_MACOS || spawnUptimeMs == -1) {
+            return -1L;
+        }
+        final String stat = Files.readString(Path.of("/proc", Long.toString(pid), "stat"), UTF_8);
+        // Skip the comm field, it might contain spaces. starttime is the 22nd field.
+        final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        final long startTicks = Long.parseLong(fields[19]);
+        // Both uptime and starttime have a coarse resolution, the process cannot have started before we asked for it.
+        return Math.max(0L, startTicks * 1000L / CLK_TCK - spawnUptimeMs);
+    }
+
+    private static boolean isListening(String hexPort) throws IOException {
+        if (IS_THIS_WINDOWS || IS_THIS_MACOS) {
+            return false;
+        }
+        for (String tcp : new String[] { "/proc/net/tcp", "/proc/net/tcp6" }) {
+            final Path p = Path.of(tcp);
+            if (Files.exists(p)) {
+                for (String line : Files.readAllLines(p, UTF_8)) {
+                    // sl local_address rem_address st ..., 0A is LISTEN
+                    final String[] cols = line.trim().split("\\s+");
+                    if (cols.length > 3 && cols[1].endsWith(hexPort) && "0A".equals(cols[3])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long uptimeMs() {
+        if (IS_THIS_WINDOWS || IS_THIS_MACOS) {
+            return -1L;
+        }
+        try {
+            final String uptime = Files.readString(Path.of("/proc/uptime"), UTF_8).split(" ")[0];
+            return Math.round(Double.parseDouble(uptime) * 1000.0);
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.error("Cannot read /proc/uptime", e);
+            return -1L;
+        }
+    }
+
+    private static long clockTicks() {
+        if (IS_THIS_WINDOWS || IS_THIS_MACOS) {
+            return 100L;
+        }
+        try {
+            final String ticks = runCommand(Arrays.asList("getconf", "CLK_TCK")).trim();
+            return Long.parseLong(ticks);
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Cannot determine CLK_TCK, assuming 100. " + e.getMessage());
+            return 100L;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.jboss.resteasy.spi.HttpResponseCodes.SC_CREATED;
+import static org.jboss.resteasy.spi.HttpResponseCodes.SC_OK;
+import static org.jboss.resteasy.spi.HttpResponseCodes.SC_SERVICE_UNAVAILABLE;
+import static org.jboss.resteasy.spi.HttpResponseCodes.SC_UNAUTHORIZED;
+
+/**
+ * Stand-in for the perf collector on localhost, for testing the uploader without one:
+ * POST /{context} takes runtime records, POST /{context}/import a buildtime payload and responds with its id,
+ * PUT /{context}/{id} a secondary payload. The first failFirst requests get 503, as from a collector
+ * being down, the first dropFirstPuts PUTs get the connection closed without a response.
+ * Point PERF_APP_ENDPOINT to endpoint() to use it with the whole testsuite.
+ */
+public class StubCollector implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(StubCollector.class.getName());
+
+    // e.g. "POST /api/v1/image-stats/import?t=... {...}"
+    public final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final HttpServer server;
+    private final AtomicInteger failures;
+    private final AtomicInteger putDrops;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    public StubCollector(int failFirst) throws IOException {
+        this(failFirst, 0);
+    }
+
+    public StubCollector(int failFirst, int dropFirstPuts) throws IOException {
+        failures = new AtomicInteger(failFirst);
+        putDrops = new AtomicInteger(dropFirstPuts);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        LOGGER.info("Stub collector listening on " + endpoint());
+    }
+
+    public String endpoint() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String body = new String(exchange.getRequestBody().readAllBytes(), UTF_8);
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().toString();
+        if ("PUT".equals(method) && putDrops.getAndDecrement() > 0) {
+            exchange.close();
+            return;
+        }
+        final int status;
+        String response = "{}";
+        if (exchange.getRequestHeaders().getFirst("token") == null) {
+            status = SC_UNAUTHORIZED;
+        } else if (failures.getAndDecrement() > 0) {
+            status = SC_SERVICE_UNAVAILABLE;
+        } else {
+            received.add(method + " " + path + " " + body);
+            if ("PUT".equals(method)) {
+                status = SC_OK;
+            } else {
+                status = SC_CREATED;
+                if (exchange.getRequestURI().getPath().endsWith("/import")) {
+                    response = "{\"id\":" + ids.incrementAndGet() + "}";
+                }
+            }
+        }
+        final byte[] bytes = response.getBytes(UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
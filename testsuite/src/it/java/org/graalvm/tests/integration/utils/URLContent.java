@@ -47,6 +47,9 @@ public enum URLContent {
             new String[]{"http://localhost:8887/dump"},
             new String[]{"http://localhost:8887/load"},
             new String[]{"http://localhost:8887/load/hash"},
+            new String[]{"http://localhost:8887/stream/dump"},
+            new String[]{"http://localhost:8887/stream/load"},
+            new String[]{"http://localhost:8887/stream/load/hash"},
     }),
 
     QUARKUS_BUILDER_IMAGE_ENCODING(new String[][]{
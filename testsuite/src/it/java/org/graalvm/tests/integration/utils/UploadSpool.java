@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.jboss.logging.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.platform.commons.util.StringUtils;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.jboss.resteasy.spi.HttpResponseCodes.SC_ACCEPTED;
+import static org.jboss.resteasy.spi.HttpResponseCodes.SC_CREATED;
+import static org.jboss.resteasy.spi.HttpResponseCodes.SC_OK;
+
+/**
+ * Durable queue of results for the collector, so as the test does not wait for the upload
+ * and a collector that is down or slow does not lose any perf data.
+ *
+ * Each result is appended, and synced, as one JSON line to spool.jsonl before append returns.
+ * A single drainer thread uploads the entries in batches of PERF_APP_UPLOAD_BATCH, runtime payloads
+ * for the same context are merged into one POST. Uploaded entries are recorded by id in acked.txt,
+ * once everything is acked both files are truncated. On a network error or a 408, 429 or 5xx response
+ * the drainer backs off exponentially and retries, other responses mean the collector is never going to take
+ * the entry, it is moved to rejected.jsonl for a human to look at. A buildtime entry with a secondary payload
+ * takes two requests, the id the collector gave the imported main payload is recorded in imported.txt,
+ * so as a retry only PUTs the secondary one. A new spool on the same directory, e.g. the next test run,
+ * uploads what was left behind.
+ */
+public class UploadSpool implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(UploadSpool.class.getName());
+
+    public static final String RUNTIME = "runtime";
+    public static final String BUILDTIME = "buildtime";
+    public static final String SPOOL_FILE = "spool.jsonl";
+    public static final String ACKED_FILE = "acked.txt";
+    public static final String REJECTED_FILE = "rejected.jsonl";
+    public static final String IMPORTED_FILE = "imported.txt";
+
+    public static final int BATCH_SIZE = Integer.parseInt(getProperty("PERF_APP_UPLOAD_BATCH", "20"));
+    public static final long BACKOFF_MIN_MS = Long.parseLong(getProperty("PERF_APP_UPLOAD_BACKOFF_MIN_MS", "1000"));
+    public static final long BACKOFF_MAX_MS = Long.parseLong(getProperty("PERF_APP_UPLOAD_BACKOFF_MAX_MS", "300000"));
+
+    private final Path dir;
+    private final String endpoint;
+    private final String token;
+    private final String runnerId;
+    private final long backoffMinMs;
+    private final long backoffMaxMs;
+    // Guards the files, never held during an upload
+    private final Object lock = new Object();
+    private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "upload-spool-drainer");
+        t.setDaemon(true);
+        return t;
+    });
+    // 0 means the last upload went through, i.e. new entries are uploaded right away
+    private volatile long backoffMs = 0;
+
+    public UploadSpool(Path dir, String endpoint, String token, String runnerId) throws IOException {
+        this(dir, endpoint, token, runnerId, BACKOFF_MIN_MS, BACKOFF_MAX_MS);
+    }
+
+    public UploadSpool(Path dir, String endpoint, String token, String runnerId, long backoffMinMs, long backoffMaxMs) throws IOException {
+        this.dir = dir;
+        this.endpoint = endpoint;
+        this.token = token;
+        this.runnerId = runnerId;
+        this.backoffMinMs = backoffMinMs;
+        this.backoffMaxMs = backoffMaxMs;
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Starts uploading entries left behind by previous runs, if any.
+     */
+    public void start() {
+        drainer.execute(this::drain);
+    }
+
+    /**
+     * @param kind     RUNTIME or BUILDTIME
+     * @param qversion Quarkus version, BUILDTIME only
+     * @param mversion Mandrel version, BUILDTIME only
+     * @param payloads the payload, BUILDTIME takes an optional secondary one too
+     * @return id of the entry
+     */
+    public String append(String kind, String context, String qversion, String mversion, String... payloads) throws IOException {
+        final JSONObject entry = new JSONObject();
+        final String id = UUID.randomUUID().toString();
+        entry.put("id", id);
+        entry.put("kind", kind);
+        entry.put("context", context);
+        entry.put("qversion", qversion == null ? "" : qversion);
+        entry.put("mversion", mversion == null ? "" : mversion);
+        final JSONArray p = new JSONArray();
+        for (String payload : payloads) {
+            p.put(payload);
+        }
+        entry.put("payloads", p);
+        synchronized (lock) {
+            // JSONObject escapes new lines, i.e. one entry is one line.
+            appendLine(dir.resolve(SPOOL_FILE), entry.toString());
+        }
+        LOGGER.infof("Spooled %s payload for %s, id %s", kind, context, id);
+        if (backoffMs == 0) {
+            drainer.execute(this::drain);
+        }
+        return id;
+    }
+
+    /**
+     * @return entries not uploaded yet, oldest first
+     */
+    public List<JSONObject> pending() throws IOException {
+        synchronized (lock) {
+            final Path spool = dir.resolve(SPOOL_FILE);
+            if (!Files.exists(spool)) {
+                return List.of();
+            }
+            final Path ackedFile = dir.resolve(ACKED_FILE);
+            final Set<String> acked = Files.exists(ackedFile) ? new HashSet<>(Files.readAllLines(ackedFile, UTF_8)) : Set.of();
+            // entry id -> id of its imported main payload
+            final Map<String, Integer> imported = new HashMap<>();
+            final Path importedFile = dir.resolve(IMPORTED_FILE);
+            if (Files.exists(importedFile)) {
+                for (String line : Files.readAllLines(importedFile, UTF_8)) {
+                    final String[] ids = line.split(" ");
+                    if (ids.length == 2 && ids[1].matches("-?[0-9]+")) {
+                        imported.put(ids[0], Integer.parseInt(ids[1]));
+                    }
+                }
+            }
+            final List<JSONObject> pending = new ArrayList<>();
+            for (String line : Files.readAllLines(spool, UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                final JSONObject entry;
+                try {
+                    entry = new JSONObject(line);
+                } catch (JSONException e) {
+                    // A line cut short by a crash while appending, it is never going to parse.
+                    LOGGER.warnf("Skipping a spool line that is not valid JSON: %s", e.getMessage());
+                    continue;
+                }
+                if (!acked.contains(entry.getString("id"))) {
+                    if (imported.containsKey(entry.getString("id"))) {
+                        entry.put("importedId", imported.get(entry.getString("id")));
+                    }
+                    pending.add(entry);
+                }
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Uploads what is pending, waiting for the collector for timeoutMs at most.
+     *
+     * @return true if nothing is pending anymore
+     */
+    public boolean flush(long timeoutMs) {
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                if (drainer.isShutdown()) {
+                    return pending().isEmpty();
+                }
+                if (drainer.submit(this::drainOnce).get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                Thread.sleep(Math.min(Math.max(backoffMs, backoffMinMs), Math.max(0, deadline - System.currentTimeMillis())));
+            }
+            return pending().isEmpty();
+        } catch (Exception e) {
+            LOGGER.warn("Flushing the upload spool failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        drainer.shutdownNow();
+    }
+
+    /**
+     * Uploads batches until nothing is pending, reschedules itself with backoff if the collector is not there.
+     */
+    private void drain() {
+        try {
+            if (drainOnce()) {
+                backoffMs = 0;
+                return;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Upload spool drainer failed: " + e.getMessage());
+        }
+        backoffMs = backoffMs == 0 ? backoffMinMs : Math.min(backoffMs * 2, backoffMaxMs);
+        LOGGER.infof("Upload spool: collector not available, retrying in %d ms", backoffMs);
+        if (!drainer.isShutdown()) {
+            drainer.schedule(this::drain, backoffMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return true if everything pending was uploaded or rejected, false if the collector is to be retried later
+     */
+    private boolean drainOnce() throws IOException {
+        if (StringUtils.isBlank(endpoint) || StringUtils.isBlank(token)) {
+            // Kept for a run that has the collector configured.
+            return pending().isEmpty();
+        }
+        List<JSONObject> pending = pending();
+        while (!pending.isEmpty()) {
+            final List<JSONObject> batch = pending.subList(0, Math.min(BATCH_SIZE, pending.size()));
+            // Runtime payloads are arrays of records, one POST per context takes them all.
+            final Map<String, List<JSONObject>> runtime = new LinkedHashMap<>();
+            for (JSONObject entry : batch) {
+                if (RUNTIME.equals(entry.getString("kind"))) {
+                    runtime.computeIfAbsent(entry.getString("context"), c -> new ArrayList<>()).add(entry);
+                } else if (!uploadBuildtime(entry)) {
+                    return false;
+                }
+            }
+            for (Map.Entry<String, List<JSONObject>> r : runtime.entrySet()) {
+                if (!uploadRuntime(r.getKey(), r.getValue())) {
+                    return false;
+                }
+            }
+            pending = pending();
+        }
+        compact();
+        return true;
+    }
+
+    private boolean uploadRuntime(String context, List<JSONObject> entries) throws IOException {
+        final HttpResponse<String> r;
+        try {
+            r = Uploader.postRuntimePayload(endpoint, token, context, JSONWriter.publisher(jw -> {
+                jw.beginArray();
+                for (JSONObject entry : entries) {
+                    final JSONArray payload = new JSONArray(entry.getJSONArray("payloads").getString(0));
+                    for (int i = 0; i < payload.length(); i++) {
+                        jw.rawValue(payload.get(i).toString());
+                    }
+                }
+                jw.endArray();
+            }));
+        } catch (Exception e) {
+            LOGGER.warnf("Upload of %d runtime payloads for %s failed: %s", entries.size(), context, e.getMessage());
+            return false;
+        }
+        if (r.statusCode() == SC_CREATED) {
+            ack(entries, null);
+            return true;
+        }
+        if (isTransient(r.statusCode())) {
+            LOGGER.warnf("Collector responded %d to %d runtime payloads for %s, retrying later", r.statusCode(), entries.size(), context);
+            return false;
+        }
+        ack(entries, r.statusCode() + " " + r.body());
+        return true;
+    }
+
+    private boolean uploadBuildtime(JSONObject entry) throws IOException {
+        final JSONArray p = entry.getJSONArray("payloads");
+        final String secondary = p.optString(1, "");
+        // The main payload is imported once, a retry after that only PUTs the secondary one.
+        if (!entry.has("importedId")) {
+            final HttpResponse<String> r;
+            try {
+                r = Uploader.postBuildtimePayload(endpoint, token, runnerId, entry.getString("context"),
+                        entry.getString("qversion"), entry.getString("mversion"), new String[] { p.getString(0) });
+            } catch (Exception e) {
+                LOGGER.warnf("Upload of buildtime payload %s failed: %s", entry.getString("id"), e.getMessage());
+                return false;
+            }
+            if (r == null) {
+                ack(List.of(entry), "invalid entry");
+                return true;
+            }
+            if (!isOk(r.statusCode())) {
+                if (isTransient(r.statusCode())) {
+                    LOGGER.warnf("Collector responded %d to buildtime payload %s, retrying later", r.statusCode(), entry.getString("id"));
+                    return false;
+                }
+                ack(List.of(entry), r.statusCode() + " " + r.body());
+                return true;
+            }
+            if (secondary.isEmpty()) {
+                ack(List.of(entry), null);
+                return true;
+            }
+            final int importedId;
+            try {
+                importedId = new JSONObject(r.body()).getInt("id");
+            } catch (JSONException e) {
+                ack(List.of(entry), "secondary payload not sent, no id in " + r.body());
+                return true;
+            }
+            synchronized (lock) {
+                appendLine(dir.resolve(IMPORTED_FILE), entry.getString("id") + " " + importedId);
+            }
+            entry.put("importedId", importedId);
+        }
+        final HttpResponse<String> r;
+        try {
+            r = Uploader.putSecondaryPayload(endpoint, token, entry.getString("context"), entry.getInt("importedId"), secondary);
+        } catch (Exception e) {
+            LOGGER.warnf("Upload of secondary buildtime payload %s failed: %s", entry.getString("id"), e.getMessage());
+            return false;
+        }
+        if (isOk(r.statusCode())) {
+            ack(List.of(entry), null);
+            return true;
+        }
+        if (isTransient(r.statusCode())) {
+            LOGGER.warnf("Collector responded %d to secondary buildtime payload %s, retrying later", r.statusCode(), entry.getString("id"));
+            return false;
+        }
+        ack(List.of(entry), "secondary payload " + r.statusCode() + " " + r.body());
+        return true;
+    }
+
+    /**
+     * @param rejection reason the collector did not take the entries, null if it did
+     */
+    private void ack(List<JSONObject> entries, String rejection) throws IOException {
+        synchronized (lock) {
+            for (JSONObject entry : entries) {
+                if (rejection != null) {
+                    LOGGER.errorf("Collector rejected %s payload %s: %s", entry.getString("kind"), entry.getString("id"), rejection);
+                    appendLine(dir.resolve(REJECTED_FILE), entry.put("rejection", rejection).toString());
+                }
+                appendLine(dir.resolve(ACKED_FILE), entry.getString("id"));
+            }
+        }
+        if (rejection == null) {
+            LOGGER.infof("Uploaded %d payloads", entries.size());
+        }
+    }
+
+    private void compact() throws IOException {
+        synchronized (lock) {
+            if (pending().isEmpty()) {
+                Files.deleteIfExists(dir.resolve(SPOOL_FILE));
+                Files.deleteIfExists(dir.resolve(ACKED_FILE));
+                Files.deleteIfExists(dir.resolve(IMPORTED_FILE));
+            }
+        }
+    }
+
+    private static boolean isOk(int statusCode) {
+        return statusCode == SC_CREATED || statusCode == SC_ACCEPTED || statusCode == SC_OK;
+    }
+
+    private static boolean isTransient(int statusCode) {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    private static void appendLine(Path file, String line) throws IOException {
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = fc.size();
+            final ByteBuffer last = ByteBuffer.allocate(1);
+            // A line cut short by a crash has no new line, the new one must not continue it.
+            final boolean cut = size > 0 && fc.read(last, size - 1) == 1 && last.get(0) != '\n';
+            fc.write(UTF_8.encode((cut ? "\n" : "") + line + "\n"), size);
+            fc.force(false);
+        }
+    }
+}
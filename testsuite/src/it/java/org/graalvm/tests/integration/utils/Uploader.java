@@ -10,7 +10,10 @@ import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
+import static org.graalvm.tests.integration.RuntimesSmokeTest.BASE_DIR;
 import static org.graalvm.tests.integration.utils.Commands.getProperty;
 import static org.jboss.resteasy.spi.HttpResponseCodes.SC_ACCEPTED;
 import static org.jboss.resteasy.spi.HttpResponseCodes.SC_CREATED;
@@ -24,37 +27,102 @@ public class Uploader {
     public static final String PERF_APP_SECRET_TOKEN = getProperty("PERF_APP_SECRET_TOKEN");
     public static final String PERF_APP_RUNNER_INFO_ID = getProperty("PERF_APP_RUNNER_INFO_ID");
 
+    // Results are spooled there first, point it out of target for the spool to survive mvn clean
+    public static final String PERF_APP_SPOOL_DIR = getProperty("PERF_APP_SPOOL_DIR",
+            Path.of(BASE_DIR, "testsuite", "target", "upload-spool").toString());
+    // How long the JVM exit waits for the spool to drain, what is left is uploaded by the next run
+    public static final long PERF_APP_UPLOAD_FLUSH_S = Long.parseLong(getProperty("PERF_APP_UPLOAD_FLUSH_S", "60"));
+
     public static final String USER_AGENT = "Mandrel Integration TS";
 
     private static HttpClient hc = null;
+    private static UploadSpool spool = null;
+
+    /**
+     * Spools the payload and returns, the upload happens in the background, see UploadSpool.
+     */
+    public static void enqueueRuntimePayload(final String appContext, final String jsonPayload) throws IOException {
+        spool().append(UploadSpool.RUNTIME, appContext, null, null, jsonPayload);
+    }
+
+    /**
+     * Spools the payloads and returns, the upload happens in the background, see UploadSpool.
+     */
+    public static void enqueueBuildtimePayload(final String appContext, final String qversion, final String mversion,
+            final String... jsonPayload) throws IOException {
+        if (jsonPayload.length < 1 || jsonPayload.length > 2) {
+            LOGGER.error("Invalid number of JSON payloads. Expected 1 or 2, got " + jsonPayload.length);
+            return;
+        }
+        spool().append(UploadSpool.BUILDTIME, appContext, qversion, mversion, jsonPayload);
+    }
+
+    /**
+     * The spool of this JVM. It starts with uploading what previous runs left behind and
+     * it is flushed, for PERF_APP_UPLOAD_FLUSH_S at most, when the JVM exits.
+     */
+    public static synchronized UploadSpool spool() throws IOException {
+        if (spool == null) {
+            if (StringUtils.isBlank(PERF_APP_ENDPOINT) || StringUtils.isBlank(PERF_APP_SECRET_TOKEN)) {
+                LOGGER.error("Both PERF_APP_ENDPOINT and PERF_APP_SECRET_TOKEN (or -Dperf.app.endpoint -Dperf.app.secret.token) must " +
+                        "be populated to use the uploader. Results are kept in " + PERF_APP_SPOOL_DIR + " until then.");
+            }
+            final UploadSpool s = new UploadSpool(Path.of(PERF_APP_SPOOL_DIR), PERF_APP_ENDPOINT, PERF_APP_SECRET_TOKEN, PERF_APP_RUNNER_INFO_ID);
+            s.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (!s.flush(TimeUnit.SECONDS.toMillis(PERF_APP_UPLOAD_FLUSH_S))) {
+                    LOGGER.warn("Not all results were uploaded, they stay in " + PERF_APP_SPOOL_DIR + " for the next run.");
+                }
+                s.close();
+            }));
+            spool = s;
+        }
+        return spool;
+    }
 
     public static HttpResponse<String> postRuntimePayload(final String appContext, final String jsonPayload) throws URISyntaxException, IOException, InterruptedException {
-        if (PERF_APP_ENDPOINT == null || PERF_APP_ENDPOINT.isEmpty() || PERF_APP_SECRET_TOKEN == null || PERF_APP_SECRET_TOKEN.isEmpty()) {
+        return postRuntimePayload(PERF_APP_ENDPOINT, PERF_APP_SECRET_TOKEN, appContext, jsonPayload);
+    }
+
+    public static HttpResponse<String> postRuntimePayload(final String endpoint, final String token, final String appContext,
+            final String jsonPayload) throws URISyntaxException, IOException, InterruptedException {
+        return postRuntimePayload(endpoint, token, appContext, HttpRequest.BodyPublishers.ofString(jsonPayload));
+    }
+
+    /**
+     * @param jsonPayload e.g. JSONWriter.publisher(...)
+     */
+    public static HttpResponse<String> postRuntimePayload(final String endpoint, final String token, final String appContext,
+            final HttpRequest.BodyPublisher jsonPayload) throws URISyntaxException, IOException, InterruptedException {
+        if (endpoint == null || endpoint.isEmpty() || token == null || token.isEmpty()) {
             LOGGER.error("Both PERF_APP_ENDPOINT and PERF_APP_SECRET_TOKEN (or -Dperf.app.endpoint -Dperf.app.secret.token) must" +
                     "be populated to use the uploader.");
             return null;
         }
-        if (hc == null) {
-            hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
-        }
         final String[] headers = new String[] {
                 "User-Agent", USER_AGENT,
-                "token", PERF_APP_SECRET_TOKEN,
+                "token", token,
                 "Content-Type", "application/json",
                 "Accept", "application/json"
         };
         final HttpRequest releaseRequest = HttpRequest.newBuilder()
-                .method("POST", HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .uri(new URI(PERF_APP_ENDPOINT + "/" + appContext))
+                .method("POST", jsonPayload)
+                .uri(new URI(endpoint + "/" + appContext))
                 .headers(headers)
                 .build();
         LOGGER.info("POSTing payload to " + releaseRequest.uri());
-        return hc.send(releaseRequest, HttpResponse.BodyHandlers.ofString());
+        return client().send(releaseRequest, HttpResponse.BodyHandlers.ofString());
     }
 
     public static HttpResponse<String> postBuildtimePayload(final String appContext, final String qversion, final String mversion,
             final String... jsonPayload) throws URISyntaxException, IOException, InterruptedException {
-        if (StringUtils.isBlank(PERF_APP_ENDPOINT) || StringUtils.isBlank(PERF_APP_SECRET_TOKEN)) {
+        return postBuildtimePayload(PERF_APP_ENDPOINT, PERF_APP_SECRET_TOKEN, PERF_APP_RUNNER_INFO_ID, appContext, qversion, mversion, jsonPayload);
+    }
+
+    public static HttpResponse<String> postBuildtimePayload(final String endpoint, final String token, final String runnerId,
+            final String appContext, final String qversion, final String mversion,
+            final String... jsonPayload) throws URISyntaxException, IOException, InterruptedException {
+        if (StringUtils.isBlank(endpoint) || StringUtils.isBlank(token)) {
             LOGGER.error("Both PERF_APP_ENDPOINT and PERF_APP_SECRET_TOKEN (or -Dperf.app.endpoint -Dperf.app.secret.token) must" +
                     "be populated to use the uploader.");
             return null;
@@ -63,37 +131,56 @@ public class Uploader {
             LOGGER.error("Invalid number of JSON payloads. Expected 1 or 2, got " + jsonPayload.length);
             return null;
         }
-        if (hc == null) {
-            hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
-        }
         final String[] headers = new String[] {
                 "User-Agent", USER_AGENT,
-                "token", PERF_APP_SECRET_TOKEN,
+                "token", token,
                 "Content-Type", "application/json",
                 "Accept", "application/json"
         };
         final HttpRequest mainPayload = HttpRequest.newBuilder()
                 .method("POST", HttpRequest.BodyPublishers.ofString(jsonPayload[0]))
-                .uri(new URI(PERF_APP_ENDPOINT + "/" + appContext + "/import?t=" + mversion + "," + qversion
-                        + (PERF_APP_RUNNER_INFO_ID != null ? "&runnerid=" + PERF_APP_RUNNER_INFO_ID : "")))
+                .uri(new URI(endpoint + "/" + appContext + "/import?t=" + mversion + "," + qversion
+                        + (runnerId != null ? "&runnerid=" + runnerId : "")))
                 .headers(headers)
                 .build();
         LOGGER.info("POSTing to " + mainPayload.uri() + ", payload: " + jsonPayload[0]);
-        final HttpResponse<String> r = hc.send(mainPayload, HttpResponse.BodyHandlers.ofString());
+        final HttpResponse<String> r = client().send(mainPayload, HttpResponse.BodyHandlers.ofString());
         if (jsonPayload.length == 2 && jsonPayload[1] != null && !jsonPayload[1].isEmpty()) {
             if (!(r.statusCode() == SC_CREATED || r.statusCode() == SC_ACCEPTED || r.statusCode() == SC_OK) || r.body().isEmpty()) {
                 LOGGER.error("Failed to POST main payload, SKIPPING secondary payload: " + jsonPayload[1]);
                 return r;
             }
             int id = (new JSONObject(r.body())).getInt("id");
-            final HttpRequest secondaryPayload = HttpRequest.newBuilder()
-                    .method("PUT", HttpRequest.BodyPublishers.ofString(jsonPayload[1]))
-                    .uri(new URI(PERF_APP_ENDPOINT + "/" + appContext + "/" + id))
-                    .headers(headers)
-                    .build();
-            LOGGER.info("POSTing payload to " + secondaryPayload.uri());
-            return hc.send(secondaryPayload, HttpResponse.BodyHandlers.ofString());
+            return putSecondaryPayload(endpoint, token, appContext, id, jsonPayload[1]);
         }
         return r;
     }
+
+    /**
+     * @param id of the main payload, from the response to its import
+     */
+    public static HttpResponse<String> putSecondaryPayload(final String endpoint, final String token, final String appContext,
+            final int id, final String jsonPayload) throws URISyntaxException, IOException, InterruptedException {
+        final String[] headers = new String[] {
+                "User-Agent", USER_AGENT,
+                "token", token,
+                "Content-Type", "application/json",
+                "Accept", "application/json"
+        };
+        final HttpRequest secondaryPayload = HttpRequest.newBuilder()
+                .method("PUT", HttpRequest.BodyPublishers.ofString(jsonPayload))
+                .uri(new URI(endpoint + "/" + appContext + "/" + id))
+                .headers(headers)
+                .build();
+        LOGGER.info("POSTing payload to " + secondaryPayload.uri());
+        return client().send(secondaryPayload, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Shared by the tests and the spool's drainer thread
+    private static synchronized HttpClient client() {
+        if (hc == null) {
+            hc = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build();
+        }
+        return hc;
+    }
 }
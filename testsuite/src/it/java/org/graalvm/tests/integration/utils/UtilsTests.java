@@ -19,16 +19,32 @@ package org.graalvm.tests.integration.utils;
  *
  */
 
+import org.apache.commons.io.FileUtils;
+import org.graalvm.tests.integration.GCMatrixTest;
+import org.graalvm.tests.integration.utils.versions.VersionCache;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static org.graalvm.tests.integration.RuntimesSmokeTest.BASE_DIR;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.graalvm.tests.integration.utils.Commands.parsePerfRecord;
 import static org.graalvm.tests.integration.utils.Commands.parseSerialGCLog;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Testing test suite...
@@ -97,4 +113,397 @@ public class UtilsTests {
                 pr.fullGCevents);
         assertEquals(expected, actual, "perf tool output parsing method was likely changed without updating the test");
     }
+
+    @Test
+    public void parseGCWindow() throws IOException {
+        final List<String> lines = Files.readAllLines(p, UTF_8);
+        // The log has one JVM run and two native runs, the whole log is taken as one window.
+        final Commands.GCWindow jvm = Commands.parseGCWindow(lines, true, -1);
+        final Commands.GCWindow nat = Commands.parseGCWindow(lines, false, -1);
+        final String expected = "" +
+                "jvm events 27 timeSpentInGCs 9.552758 allocatedKb 6285312 peakHeapKb 1750016 heapAfterKb 7168\n" +
+                "native events 58 timeSpentInGCs 23.746876 allocatedKb 14981544 peakHeapKb 2536554 heapAfterKb 1758314\n";
+        final String actual = String.format(
+                "jvm events %d timeSpentInGCs %f allocatedKb %d peakHeapKb %d heapAfterKb %d\n" +
+                        "native events %d timeSpentInGCs %f allocatedKb %d peakHeapKb %d heapAfterKb %d\n",
+                jvm.events, jvm.timeSpentInGCs, jvm.allocatedKb, jvm.peakHeapKb, jvm.heapAfterKb,
+                nat.events, nat.timeSpentInGCs, nat.allocatedKb, nat.peakHeapKb, nat.heapAfterKb);
+        assertEquals(expected, actual, "GC log parsing method was likely changed without updating the test");
+    }
+
+    @Test
+    public void parsePausesUs() {
+        final List<String> jvm = List.of(
+                "[1.203s][info][gc       ] GC(3) Pause Young (Normal) (G1 Evacuation Pause) 24M->3M(256M) 2.345ms",
+                "[1.203s][info][safepoint] Safepoint \"G1CollectForAllocation\", Time since last: 312004871 ns, Reaching safepoint: 80375 ns, Cleanup: 1200 ns, At safepoint: 2390512 ns, Total: 2472087 ns",
+                "[2.001s][info][safepoint] Total time for which application threads were stopped: 0.0012500 seconds, Stopping threads took: 0.0000400 seconds");
+        final List<String> nat = List.of(
+                "[Incremental GC (CollectOnAllocation) 262144K->84992K, 0.2600996 secs]",
+                "[Full GC (CollectOnAllocation) 440320K->271360K, 0.0451848 secs]",
+                "[0.512s][info][gc] GC(1) Pause Young (Normal) 40M->10M(512M) 1.500ms");
+        assertEquals(List.of(2472L, 1250L), Commands.parsePausesUs(jvm, true), "JVM safepoint log parsing method was likely changed without updating the test");
+        assertEquals(List.of(260100L, 45185L, 1500L), Commands.parsePausesUs(nat, false), "Native GC log parsing method was likely changed without updating the test");
+    }
+
+    @Test
+    public void parseSmaps() throws IOException {
+        final Path smaps = Path.of(BASE_DIR, "testsuite", "src", "test", "resources", "smaps-native-startup.txt");
+        final Commands.SmapsRecord r = Commands.parseSmaps(smaps, "/home/tester/apps/quarkus-full-microprofile/target/quarkus-runner");
+        final String expected = "" +
+                "executableTextRssKb 9816\n" +
+                "executableDataRssKb 17320\n" +
+                "executableDataAnonymousKb 4128\n" +
+                "anonymousRssKb 11528\n" +
+                "otherRssKb 1232\n" +
+                "totalRssKb 39896\n";
+        final String actual = String.format(
+                "executableTextRssKb %d\n" +
+                        "executableDataRssKb %d\n" +
+                        "executableDataAnonymousKb %d\n" +
+                        "anonymousRssKb %d\n" +
+                        "otherRssKb %d\n" +
+                        "totalRssKb %d\n"
+                ,
+                r.executableTextRssKb,
+                r.executableDataRssKb,
+                r.executableDataAnonymousKb,
+                r.anonymousRssKb,
+                r.otherRssKb,
+                r.totalRssKb());
+        assertEquals(expected, actual, "smaps parsing method was likely changed without updating the test");
+    }
+
+    @Test
+    public void parseBuildStages() throws IOException {
+        final Path log = Path.of(BASE_DIR, "testsuite", "src", "test", "resources", "parse-serial-gc-build-and-run.log");
+        final List<BuildProfiler.Stage> stages = BuildProfiler.parseStages(Files.readAllLines(log));
+        assertEquals(14, stages.size(), "Two native-image builds, 7 stages each expected");
+        assertEquals("[1/7] Initializing 8.8s @ 0.18GB", stages.get(0).toString());
+        assertEquals("[2/7] Performing analysis 42.5s @ 1.53GB", stages.get(1).toString());
+        assertEquals("[6/7] Compiling methods 52.3s @ 4.67GB", stages.get(5).toString());
+        assertEquals("[7/7] Creating image 9.9s @ 4.05GB", stages.get(13).toString());
+    }
+
+    @Test
+    public void buildCacheFingerprints() throws IOException {
+        final Path app = Files.createTempDirectory("build-cache");
+        try {
+            Files.writeString(app.resolve("pom.xml"), "<project/>", UTF_8);
+            final String sources = BuildCache.sourcesFingerprint(app.toFile());
+            Files.createDirectories(app.resolve("target"));
+            Files.writeString(app.resolve("target").resolve("quarkus-runner"), "ELF", UTF_8);
+            assertEquals(sources, BuildCache.sourcesFingerprint(app.toFile()), "Build outputs must not change the sources fingerprint");
+            final List<String> jar = List.of("mvn", "--batch-mode", "package");
+            final List<String> nativeImage = List.of("mvn", "--batch-mode", "package", "-Pnative");
+            assertEquals(BuildCache.Stage.JAR, BuildCache.Stage.of(jar));
+            assertEquals(BuildCache.Stage.NATIVE_IMAGE, BuildCache.Stage.of(nativeImage));
+            final String jarFingerprint = BuildCache.fingerprint(sources, jar, null);
+            assertEquals(jarFingerprint, BuildCache.fingerprint(sources, jar, null), "Fingerprint must be stable");
+            assertNotEquals(jarFingerprint, BuildCache.fingerprint(sources, jar, Map.of("NATIVE_IMAGE_OPTIONS", "-J-Xmx4g")),
+                    "Environment must change the fingerprint");
+            Files.writeString(app.resolve("pom.xml"), "<project></project>", UTF_8);
+            assertNotEquals(sources, BuildCache.sourcesFingerprint(app.toFile()), "Sources change must change the fingerprint");
+        } finally {
+            FileUtils.deleteDirectory(app.toFile());
+        }
+    }
+
+    @Test
+    public void uploadSpoolRetriesAndResumes() throws IOException {
+        final Path dir = Files.createTempDirectory("upload-spool");
+        try (StubCollector collector = new StubCollector(2)) {
+            // Collector is down, appending must not wait for it and nothing gets lost.
+            try (UploadSpool spool = new UploadSpool(dir, "http://127.0.0.1:1", "secret", null, 10, 100)) {
+                spool.append(UploadSpool.RUNTIME, "api/v1/image-stats/runtime", null, null, "[{\"app\":\"a\",\"rss\":1}]");
+                spool.append(UploadSpool.BUILDTIME, "api/v1/image-stats", "3.15.1", "24.2.0", "{\"image\":\"b\"}", "{\"total\":\n2}");
+                assertFalse(spool.flush(200), "Nothing is listening, entries must stay in the spool");
+                assertEquals(2, spool.pending().size());
+            }
+            // Next run resumes, the first two requests fail with 503 and are retried with backoff.
+            try (UploadSpool spool = new UploadSpool(dir, collector.endpoint(), "secret", null, 10, 100)) {
+                spool.append(UploadSpool.RUNTIME, "api/v1/image-stats/runtime", null, null, "[{\"app\":\"c\",\"rss\":2}]");
+                assertTrue(spool.flush(10_000), "Spool must be drained once the collector is up");
+            }
+            assertEquals(3, collector.received.size(), "Expected one import, one secondary PUT and one merged runtime POST: " + collector.received);
+            assertTrue(collector.received.stream().anyMatch(r -> r.startsWith("POST /api/v1/image-stats/runtime") &&
+                    r.contains("\"a\"") && r.contains("\"c\"")), "Runtime payloads must be merged: " + collector.received);
+            assertTrue(collector.received.contains("PUT /api/v1/image-stats/1 {\"total\":\n2}"), "Secondary payload must be intact: " + collector.received);
+            assertFalse(Files.exists(dir.resolve(UploadSpool.SPOOL_FILE)), "Drained spool must be compacted");
+        } finally {
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+    }
+
+    @Test
+    public void uploadSpoolImportsOnceAndSkipsCutLines() throws IOException {
+        final Path dir = Files.createTempDirectory("upload-spool");
+        try (StubCollector collector = new StubCollector(0, 2)) {
+            // As left behind by a crash while appending
+            Files.writeString(dir.resolve(UploadSpool.SPOOL_FILE), "{\"id\":\"cut\",\"kind\":\"buildt", UTF_8);
+            try (UploadSpool spool = new UploadSpool(dir, "http://127.0.0.1:1", "secret", null, 10, 100)) {
+                spool.append(UploadSpool.BUILDTIME, "api/v1/image-stats", "3.15.1", "24.2.0", "{\"image\":\"b\"}", "{\"total\":2}");
+                assertEquals(1, spool.pending().size(), "The new entry must not continue the cut line");
+            }
+            // The first two PUTs fail with no response, the main payload is already imported by then.
+            try (UploadSpool spool = new UploadSpool(dir, collector.endpoint(), "secret", null, 10, 100)) {
+                assertTrue(spool.flush(10_000), "Spool must be drained once the collector is up");
+            }
+            assertEquals(1, collector.received.stream().filter(r -> r.startsWith("POST /api/v1/image-stats/import")).count(),
+                    "The main payload must be imported once: " + collector.received);
+            assertTrue(collector.received.contains("PUT /api/v1/image-stats/1 {\"total\":2}"), "Secondary payload must be retried: " + collector.received);
+            assertFalse(Files.exists(dir.resolve(UploadSpool.REJECTED_FILE)), "Nothing is to be rejected");
+        } finally {
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+    }
+
+    @Test
+    public void jsonWriterTypesAndEscaping() {
+        final Map<String, Object> report = new TreeMap<>();
+        report.put("app", "quarkus \"json\"\n\\");
+        report.put("rssKb", 1024L);
+        report.put("cores", 8);
+        report.put("secondsTimeElapsed", 0.5);
+        report.put("requestsPerS", Double.NaN);
+        report.put("pgo", true);
+        report.put("parseOnce", null);
+        report.put("version", "007");
+        report.put("pausesUs", JSONWriter.Histogram.of(new long[] { 1, 3, 4, 700 }));
+        assertEquals("[{\"app\":\"quarkus \\\"json\\\"\\n\\\\\",\"cores\":8,\"parseOnce\":null," +
+                        "\"pausesUs\":{\"count\":4,\"min\":1,\"max\":700,\"upperBounds\":[1,2,4,8,16,32,64,128,256,512,1024]," +
+                        "\"counts\":[1,0,2,0,0,0,0,0,0,0,1]},\"pgo\":true,\"requestsPerS\":null,\"rssKb\":1024," +
+                        "\"secondsTimeElapsed\":0.5,\"version\":\"007\"},{}]",
+                JSONWriter.toJSON(List.of(report, Map.of())));
+    }
+
+    @Test
+    public void resultsStoreTrend() throws IOException {
+        final Path store = Files.createTempFile("results", ".jsonl");
+        try {
+            Files.writeString(store, record(1000, "JFR_PERFORMANCE", "24.2.0", Map.of("p99", 100)) +
+                    record(1001, "JFR_PERFORMANCE", "24.2.0", Map.of("p99", 300)) +
+                    record(1002, "JFR_PLAINTEXT", "24.2.0", Map.of("p99", 5000)) +
+                    record(2000, "JFR_PERFORMANCE", "24.2.1", Map.of("p99", 200)) +
+                    record(3000, "JFR_PERFORMANCE", "25.0.0", Map.of("p99", 150)) +
+                    "{\"timestamp\":4000,\"dimen", UTF_8);
+            final List<ResultsStore.Record> records = ResultsStore.load(store);
+            assertEquals(5, records.size(), "Truncated last line must be skipped");
+            final ResultsStore.Query q = new ResultsStore.Query().where("app", "JFR_PERFORMANCE");
+            q.metric = "p99";
+            q.stat = "max";
+            q.last = 2;
+            final List<ResultsStore.Point> trend = ResultsStore.trend(records, q);
+            assertEquals(2, trend.size());
+            assertEquals("24.2.1", trend.get(0).build);
+            assertEquals("25.0.0", trend.get(1).build);
+            q.last = 0;
+            assertEquals(300.0, ResultsStore.trend(records, q).get(0).value);
+            assertEquals(2, ResultsStore.trend(records, q).get(0).runs);
+            assertEquals(200.0, ResultsStore.aggregate(new double[] { 300, 100, 200 }, "p50"));
+            assertEquals(300.0, ResultsStore.aggregate(new double[] { 300, 100, 200 }, "p99"));
+        } finally {
+            Files.deleteIfExists(store);
+        }
+    }
+
+    @Test
+    public void dashboardRegressionsAndComparisons() throws IOException {
+        final Path dir = Files.createTempDirectory("dashboard");
+        final Path store = dir.resolve("results.jsonl");
+        final Path html = dir.resolve("dashboard.html");
+        try {
+            final Map<String, Object> jfrPerfTest = Map.of("testMethod", "jfrPerfTest");
+            Files.writeString(store, record(1000, "JFR_PERFORMANCE", "24.2.0", jfrPerfTest, Map.of("rssKb", 100000, "requestsPerS", 5000), Map.of()) +
+                    record(2000, "JFR_PERFORMANCE", "24.2.1", jfrPerfTest, Map.of("rssKb", 101000, "requestsPerS", 5100), Map.of()) +
+                    record(3000, "JFR_PERFORMANCE", "25.0.0", jfrPerfTest, Map.of("rssKb", 130000, "requestsPerS", 4000), Map.of()) +
+                    record(3001, "PLAINTEXT_PERFORMANCE", "25.0.0", jfrPerfTest, Map.of("rssKb", 90000, "requestsPerS", 6000), Map.of()) +
+                    record(1003, "GC_MATRIX", "24.2.0", Map.of("gc", "serial"), Map.of("rssKb", 100000), Map.of()) +
+                    record(2003, "GC_MATRIX", "24.2.1", Map.of("gc", "serial"), Map.of("rssKb", 100000), Map.of()) +
+                    record(3003, "GC_MATRIX", "25.0.0", Map.of("gc", "G1"), Map.of("rssKb", 200000), Map.of()) +
+                    record(3002, "DEBUG_SYMBOLS_SMOKE", "25.0.0", Map.of("gc", "serial"), Map.of(),
+                            Map.of("pauseHistogramUs", JSONWriter.Histogram.of(new long[] { 1, 4, 7 }))), UTF_8);
+            final List<String[]> regressions = Dashboard.findRegressions(ResultsStore.load(store));
+            assertEquals(2, regressions.size(), "RSS up and throughput down by more than 10%, G1 is not compared to serial");
+            assertEquals("rssKb", regressions.get(0)[2]);
+            assertEquals("25.0.0", regressions.get(0)[3]);
+            assertEquals("requestsPerS", regressions.get(1)[2]);
+            Dashboard.generate(store, dir, html);
+            final String page = Files.readString(html, UTF_8);
+            assertTrue(page.contains("no JFR vs. JFR, jfrPerfTest JFR_PERFORMANCE"), "JFR A/B comparison missing");
+            assertTrue(page.contains("pauseHistogramUs serial"), "Histogram missing");
+            assertFalse(page.contains("<script") || page.contains("http://") && !page.contains("http://www.w3.org/2000/svg"),
+                    "Dashboard must work offline");
+        } finally {
+            Files.deleteIfExists(store);
+            Files.deleteIfExists(html);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void shardPlanBalancesAndPinsPerfTests() {
+        final Map<String, Set<String>> tests = new TreeMap<>();
+        final Map<String, Long> estimates = new TreeMap<>();
+        final long[] durations = { 700, 500, 400, 300, 300, 200, 100 };
+        for (int i = 0; i < durations.length; i++) {
+            tests.put("Reproducers#t" + i, Set.of("reproducers"));
+            estimates.put("Reproducers#t" + i, durations[i]);
+        }
+        tests.put("PerfCheckTest#p0", Set.of("perfcheck"));
+        tests.put("PerfCheckTest#unknown", Set.of("perfcheck"));
+        estimates.put("PerfCheckTest#p0", 9000L);
+        final Map<String, Integer> plan = Shards.plan(tests, estimates, 3);
+        assertEquals(3, (int) plan.get("PerfCheckTest#p0"), "Perf tests must get the last shard to themselves");
+        assertEquals(3, (int) plan.get("PerfCheckTest#unknown"));
+        final long[] load = new long[4];
+        plan.forEach((id, s) -> load[s] += estimates.getOrDefault(id, 0L));
+        assertEquals(2500, load[1] + load[2]);
+        assertTrue(Math.abs(load[1] - load[2]) <= 100, "Reproducers should be split evenly, longest first");
+        assertEquals(plan, Shards.plan(tests, estimates, 3), "Every node must compute the same plan");
+        assertEquals(2, Shards.parseShard("2/3")[0]);
+    }
+
+    @Test
+    public void cpuSetsListsAndPinning() {
+        assertEquals("0-3,6,8-9", CpuSets.format(CpuSets.parse("0-2, 3,6,8-9")));
+        assertEquals(List.of("taskset", "-c", "4-7", "./target/app"), CpuSets.pin(List.of("./target/app"), "4-7"));
+        assertEquals(List.of(Commands.CONTAINER_RUNTIME, "run", "--cpuset-cpus=0-3", "--rm", "image"),
+                CpuSets.pin(List.of(Commands.CONTAINER_RUNTIME, "run", "--rm", "image"), "0-3"));
+        assertEquals(List.of("./target/app"), CpuSets.pin(List.of("./target/app"), null), "No CPU set, no pinning");
+        assertEquals("", CpuSets.complement(""));
+        assertEquals("4-5", CpuSets.half("4-7", true));
+        assertEquals("6-7", CpuSets.half("4-7", false));
+        assertEquals("0,2", CpuSets.half("0,2,4", true), "The app gets the odd CPU");
+        assertEquals(List.of(Commands.CONTAINER_RUNTIME, "run", "--cpuset-cpus=6-7", "hyperfoil"),
+                CpuSets.pin(CpuSets.pin(List.of(Commands.CONTAINER_RUNTIME, "run", "hyperfoil"), "6-7"), "0-3"), "Pinned once");
+        assertEquals(3L, CpuSets.nrMigrations(List.of("se.exec_start    :    1.5", "se.nr_migrations                   :                    3")));
+    }
+
+    @Test
+    public void noiseMonitorVerdicts() {
+        final List<String> stat = List.of(
+                "cpu  400 0 100 1000 0 0 0 50 0 0",
+                "cpu0 100 0 50 500 0 0 0 0 0 0",
+                "cpu1 300 0 50 500 0 0 0 50 0 0",
+                "intr 12345");
+        assertArrayEquals(new long[] { 1550, 1000, 50 }, NoiseMonitor.cpuTicks(stat, null));
+        assertArrayEquals(new long[] { 900, 500, 50 }, NoiseMonitor.cpuTicks(stat, CpuSets.parse("1")));
+        assertEquals(42L, NoiseMonitor.processTicks("1234 (java (main)) S 1 1234 1234 0 -1 4194560 1 0 0 0 30 12 0 0 20 0 40 0"));
+        final String threadStat = "1240 (HttpClient-1-Wo) S 1 1234 1234 0 -1 4194560 1 0 0 0 30 12 0 0 20 0 40 0 100 1000 200 " +
+                "1 2 3 4 5 0 0 0 0 0 0 0 17 3 5 0";
+        assertEquals(42L, NoiseMonitor.processTicks(threadStat));
+        assertEquals(5, NoiseMonitor.lastCpu(threadStat));
+        assertEquals(8000L, NoiseMonitor.stallUs(List.of("some avg10=0.00 avg60=0.00 avg300=0.00 total=8000",
+                "full avg10=0.00 avg60=0.00 avg300=0.00 total=100")));
+
+        final NoiseMonitor.Sample a = new NoiseMonitor.Sample(0);
+        final NoiseMonitor.Sample b = new NoiseMonitor.Sample(1000);
+        b.totalTicks = 400;
+        b.idleTicks = 200;
+        b.ownTicks = 190;
+        b.memoryStallUs = 0;
+        a.memoryStallUs = 0;
+        assertFalse(NoiseMonitor.verdict(List.of(a, b), 4).noisy, "10 ticks of 400 are someone else's, i.e. 2.5%");
+        b.ownTicks = 100;
+        b.stealTicks = 20;
+        final NoiseMonitor.Verdict v = NoiseMonitor.verdict(List.of(a, b), 4);
+        assertTrue(v.noisy);
+        assertEquals(2, v.reasons.size(), "Steal 5% and other processes 20%: " + v.reasons);
+    }
+
+    @Test
+    public void versionCacheStamps() throws IOException {
+        final Path dir = Files.createTempDirectory("version-cache");
+        try {
+            final Path file = dir.resolve("versions.properties");
+            final List<String> out = List.of("native-image 21.0.2 2024-01-16",
+                    "OpenJDK Runtime Environment Mandrel-23.1.2.0-Final (build 21.0.2+13)",
+                    "OpenJDK 64-Bit Server VM Mandrel-23.1.2.0-Final (build 21.0.2+13, mixed mode)");
+            assertNull(VersionCache.get(file, "local /opt/mandrel/bin/native-image", "1 100"), "Nothing cached yet");
+            VersionCache.put(file, "local /opt/mandrel/bin/native-image", "1 100", out);
+            VersionCache.put(file, "image quay.io/quarkus/ubi-quarkus-mandrel-builder-image:jdk-21", "sha256:0123456789abcdef", List.of("native-image 21"));
+            assertEquals(out, VersionCache.get(file, "local /opt/mandrel/bin/native-image", "1 100"));
+            assertNull(VersionCache.get(file, "local /opt/mandrel/bin/native-image", "2 100"), "The binary changed");
+            VersionCache.put(file, "local /opt/mandrel/bin/native-image", "2 100", out.subList(0, 1));
+            assertEquals(out.subList(0, 1), VersionCache.get(file, "local /opt/mandrel/bin/native-image", "2 100"), "Replaced");
+            assertEquals(List.of("native-image 21"),
+                    VersionCache.get(file, "image quay.io/quarkus/ubi-quarkus-mandrel-builder-image:jdk-21", "sha256:0123456789abcdef"));
+        } finally {
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+    }
+
+    @Test
+    public void startupPhasesSkipPinnedCommandLine() throws IOException {
+        final Path log = Files.createTempFile("build-and-run", ".log");
+        try {
+            Files.writeString(log, "previous run\n", UTF_8);
+            final long offset = Files.size(log);
+            // As runCommand writes it, pinned by CpuSets, i.e. longer than the command the test passed
+            Files.writeString(log, "Command: taskset -c 2-3 ./target/app -Xmx64m\nstarted in 0.01s\n", UTF_8, StandardOpenOption.APPEND);
+            assertEquals(offset + "Command: taskset -c 2-3 ./target/app -Xmx64m\n".length(), StartupPhases.afterFirstLine(log.toFile(), offset));
+            final long end = Files.size(log);
+            assertEquals(end, StartupPhases.afterFirstLine(log.toFile(), end), "No complete line yet");
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    @Test
+    public void gcMatrixUnsupportedGC() {
+        assertTrue(GCMatrixTest.unsupportedGC("G1").matcher(
+                "Error: Could not find option 'UseG1GC'. Use -H:PrintFlags= to list all available options.").matches());
+        assertTrue(GCMatrixTest.unsupportedGC("G1").matcher("[ERROR] Error: The G1 GC is not supported on this platform.").matches());
+        assertFalse(GCMatrixTest.unsupportedGC("serial").matcher("[ERROR] Error: Image build request failed with exit status 137").matches(),
+                "An OOM killed build is a failure, not an unsupported GC");
+        assertFalse(GCMatrixTest.unsupportedGC("G1").matcher("Error: Could not find option 'UseSerialGC'.").matches());
+    }
+
+    @Test
+    public void vthreadsBenchParseAndDiff() {
+        final List<VThreadsBench> jvmRuns = VThreadsBench.parse(List.of(
+                "Command: java -jar target/vthread_props.jar bench threads=10000,1000000",
+                "=== BENCH threads=10000 park=0.5 pin=0.01 elapsedMs=50 throughputPerS=200000 schedP50Us=10 schedP90Us=40 " +
+                        "schedP99Us=100 schedMaxUs=900 monitorParks=100 pinnedEvents=0 peakRssKb=100000 errors=0 ===",
+                "=== BENCH threads=1000000 park=0.5 pin=0.01 elapsedMs=2000 throughputPerS=500000 schedP50Us=20 schedP90Us=80 " +
+                        "schedP99Us=200 schedMaxUs=9000 monitorParks=10000 pinnedEvents=0 peakRssKb=400000 errors=0 ==="));
+        final List<VThreadsBench> nativeRuns = VThreadsBench.parse(List.of(
+                "JFR is not available, pinned events are not counted",
+                "=== BENCH threads=1000000 park=0.5 pin=0.01 elapsedMs=2500 throughputPerS=400000 schedP50Us=20 schedP90Us=80 " +
+                        "schedP99Us=300 schedMaxUs=9000 monitorParks=10000 pinnedEvents=-1 peakRssKb=200000 errors=0 ==="));
+        assertEquals(2, jvmRuns.size());
+        assertEquals(1000000, jvmRuns.get(1).threads);
+        assertEquals(10000, jvmRuns.get(1).monitorParks);
+        assertEquals(500000, jvmRuns.get(1).get(VThreadsBench.Metric.THROUGHPUT));
+        assertFalse(nativeRuns.get(0).has(VThreadsBench.Metric.PINNED_EVENTS), "-1 is not measured");
+        final VThreadsBench diff = VThreadsBench.diff(nativeRuns.get(0), jvmRuns.get(1));
+        assertEquals(20, diff.get(VThreadsBench.Metric.THROUGHPUT), "Native is 20% slower");
+        assertEquals(50, diff.get(VThreadsBench.Metric.SCHEDULING_P99), "Native p99 is 50% higher");
+        assertEquals(-50, diff.get(VThreadsBench.Metric.PEAK_RSS), "Native uses half the memory");
+        assertEquals(0, diff.get(VThreadsBench.Metric.SCHEDULING_P50));
+        assertFalse(diff.has(VThreadsBench.Metric.PINNED_EVENTS));
+        final Map<String, Object> report = jvmRuns.get(0).toReport(new TreeMap<>());
+        assertEquals(200000L, report.get("vthreads10000ThroughputPerS"));
+        assertEquals(100L, report.get("vthreads10000MonitorParks"));
+    }
+
+    /**
+     * @return one ResultsStore line, i.e. a fixture for the store and dashboard tests
+     */
+    private static String record(long timestamp, String app, String mandrelVersion, Map<String, Object> metrics) throws IOException {
+        return record(timestamp, app, mandrelVersion, Map.of(), metrics, Map.of());
+    }
+
+    private static String record(long timestamp, String app, String mandrelVersion, Map<String, Object> dimensions,
+                                 Map<String, Object> metrics, Map<String, Object> histograms) throws IOException {
+        final Map<String, Object> d = new TreeMap<>(dimensions);
+        d.put("app", app);
+        d.put("mandrelVersion", mandrelVersion);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JSONWriter jw = new JSONWriter(out)) {
+            jw.beginObject().name("timestamp").value(timestamp).name("dimensions").value(d).name("metrics").value(metrics)
+                    .name("histograms").value(histograms).endObject();
+        }
+        return out.toString(UTF_8) + "\n";
+    }
 }
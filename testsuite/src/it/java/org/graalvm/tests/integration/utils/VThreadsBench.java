@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One thread count of the vthread_props benchmark mode, i.e. one line of its output:
+ *
+ * === BENCH threads=1000000 park=0.5 pin=0.01 elapsedMs=... throughputPerS=... schedP50Us=... ... errors=0 ===
+ *
+ * The app prints -1 for what it cannot measure, e.g. pinnedEvents without JFR, such metrics are left out.
+ * A diff of native and JVM holds percentages instead, positive when native is worse, e.g. slower or bigger.
+ */
+public class VThreadsBench {
+
+    public static final Pattern BENCH_PATTERN = Pattern.compile(".*=== BENCH (?<pairs>.*) ===.*");
+    private static final Pattern PAIR_PATTERN = Pattern.compile("(?<key>[a-zA-Z0-9]+)=(?<value>\\S+)");
+
+    public enum Metric {
+        THROUGHPUT("throughputPerS", "throughput.threshold.per.s", "throughput", "virtual threads/s", false, true),
+        SCHEDULING_P50("schedP50Us", "scheduling.p50.threshold.us", "p50 scheduling latency", "us", true, true),
+        SCHEDULING_P90("schedP90Us", "scheduling.p90.threshold.us", "p90 scheduling latency", "us", true, true),
+        SCHEDULING_P99("schedP99Us", "scheduling.p99.threshold.us", "p99 scheduling latency", "us", true, true),
+        PEAK_RSS("peakRssKb", "peak.RSS.threshold.kB", "peak RSS", "kB", true, false),
+        PINNED_EVENTS("pinnedEvents", "pinned.events.threshold", "carrier thread pinning events", "events", true, false);
+
+        public final String header;
+        public final String thresholdKey;
+        public final String description;
+        public final String unit;
+        public final boolean lowerIsBetter;
+        public final boolean timeSensitive;
+
+        Metric(String header, String thresholdKey, String description, String unit, boolean lowerIsBetter, boolean timeSensitive) {
+            this.header = header;
+            this.thresholdKey = thresholdKey;
+            this.description = description;
+            this.unit = unit;
+            this.lowerIsBetter = lowerIsBetter;
+            this.timeSensitive = timeSensitive;
+        }
+    }
+
+    public final int threads;
+    public final long errors;
+    public final long monitorParks;
+    private final Map<Metric, Long> metrics = new EnumMap<>(Metric.class);
+
+    private VThreadsBench(int threads, long errors, long monitorParks) {
+        this.threads = threads;
+        this.errors = errors;
+        this.monitorParks = monitorParks;
+    }
+
+    /**
+     * @return one run per BENCH line, in the order the app printed them
+     */
+    public static List<VThreadsBench> parse(List<String> lines) {
+        final List<VThreadsBench> runs = new ArrayList<>();
+        for (String line : lines) {
+            final Matcher m = BENCH_PATTERN.matcher(line);
+            if (!m.matches()) {
+                continue;
+            }
+            final Map<String, String> pairs = new LinkedHashMap<>();
+            final Matcher p = PAIR_PATTERN.matcher(m.group("pairs"));
+            while (p.find()) {
+                pairs.put(p.group("key"), p.group("value"));
+            }
+            final VThreadsBench run = new VThreadsBench(Integer.parseInt(pairs.get("threads")),
+                    Long.parseLong(pairs.getOrDefault("errors", "-1")), Long.parseLong(pairs.getOrDefault("monitorParks", "-1")));
+            for (Metric metric : Metric.values()) {
+                final String value = pairs.get(metric.header);
+                if (value != null && Long.parseLong(value) != -1L) {
+                    run.metrics.put(metric, Long.parseLong(value));
+                }
+            }
+            runs.add(run);
+        }
+        return runs;
+    }
+
+    /**
+     * Percentage by which native is worse than JVM, per metric both have and JVM's is not 0.
+     */
+    public static VThreadsBench diff(VThreadsBench nativeRun, VThreadsBench jvmRun) {
+        final VThreadsBench diff = new VThreadsBench(nativeRun.threads, nativeRun.errors, nativeRun.monitorParks);
+        for (Metric metric : Metric.values()) {
+            if (nativeRun.has(metric) && jvmRun.has(metric) && jvmRun.get(metric) != 0) {
+                final long n = nativeRun.get(metric);
+                final long j = jvmRun.get(metric);
+                diff.metrics.put(metric, Math.round(100.0 * (metric.lowerIsBetter ? n - j : j - n) / j));
+            }
+        }
+        return diff;
+    }
+
+    public boolean has(Metric metric) {
+        return metrics.containsKey(metric);
+    }
+
+    public long get(Metric metric) {
+        return metrics.getOrDefault(metric, -1L);
+    }
+
+    public Map<Metric, Long> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Puts e.g. vthreads1000000ThroughputPerS for ResultsStore and the runtime payload.
+     */
+    public Map<String, Object> toReport(Map<String, Object> report) {
+        final String prefix = "vthreads" + threads;
+        metrics.forEach((metric, value) -> report.put(prefix + Character.toUpperCase(metric.header.charAt(0)) + metric.header.substring(1), value));
+        report.put(prefix + "MonitorParks", monitorParks);
+        return report;
+    }
+
+    public static String headerMarkdown() {
+        return "| mode | threads | throughput/s | sched p50 us | sched p90 us | sched p99 us | monitor parks | pinned events | peak RSS kB |\n" +
+                "|---|---|---|---|---|---|---|---|---|\n";
+    }
+
+    public String lineMarkdown(Logs.Mode mode) {
+        return String.format("| %s | %d | %d | %d | %d | %d | %d | %d | %d |%n", mode, threads, get(Metric.THROUGHPUT),
+                get(Metric.SCHEDULING_P50), get(Metric.SCHEDULING_P90), get(Metric.SCHEDULING_P99), monitorParks,
+                get(Metric.PINNED_EVENTS), get(Metric.PEAK_RSS));
+    }
+}
@@ -226,6 +226,15 @@ public enum WhitelistLogLines {
             return p.toArray(new Pattern[0]);
         }
     },
+    QUARKUS_JSON_PERF_GC_MATRIX {
+        @Override
+        public Pattern[] get(boolean inContainer) {
+            final List<Pattern> p = new ArrayList<>(List.of(QUARKUS_FULL_MICROPROFILE.get(inContainer)));
+            // Some cells combine options a GC ignores, e.g. -Xmn with ZGC, HotSpot says so.
+            p.add(Pattern.compile(".*OpenJDK 64-Bit Server VM warning: .*"));
+            return p.toArray(new Pattern[0]);
+        }
+    },
     QUARKUS_MP_ORM_DBS_AWT {
         @Override
         public Pattern[] get(boolean inContainer) {
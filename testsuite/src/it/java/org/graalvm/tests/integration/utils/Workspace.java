@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.graalvm.tests.integration.RuntimesSmokeTest.BASE_DIR;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_WINDOWS;
+import static org.graalvm.tests.integration.utils.Commands.cleanTarget;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+
+/**
+ * App directory of one test invocation. Tests that share apps/[dir]/target, logs and fixed ports cannot run
+ * concurrently, so with WORKSPACE_ISOLATION each invocation gets its own copy of the app under
+ * testsuite/target/workspaces, copy-on-write where cp --reflink can do it, without build outputs. The tests
+ * run concurrently, i.e. @Execution(CONCURRENT), do not listen on ports, so the copy is all they need.
+ * Isolation is on by default when JUnit parallel execution is, i.e. junit.jupiter.execution.parallel.enabled
+ * as a system property or in junit-platform.properties. Apps run as containers always use the shared directory
+ * as their build commands mount it and their container names are fixed.
+ *
+ * Without isolation, the workspace is the shared apps/[dir], i.e. nothing changes.
+ */
+public class Workspace {
+
+    private static final Logger LOGGER = Logger.getLogger(Workspace.class.getName());
+
+    public static final boolean ISOLATION = Boolean.parseBoolean(getProperty("WORKSPACE_ISOLATION",
+            junitConfig("junit.jupiter.execution.parallel.enabled", "false")));
+    // Keeps the copies for inspection after the run
+    public static final boolean KEEP = Boolean.parseBoolean(getProperty("WORKSPACE_KEEP", "false"));
+    public static final Path ROOT = Path.of(BASE_DIR, "testsuite", "target", "workspaces");
+
+    // Produced by builds and runs, see Commands.cleanTarget, a copy starts without them
+    private static final Set<String> OUTPUTS = Set.of("target", "logs", "sources", "reports");
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    public final Apps app;
+    public final File dir;
+    public final boolean isolated;
+    private final Path root;
+
+    private Workspace(Apps app, File dir, Path root) {
+        this.app = app;
+        this.dir = dir;
+        this.root = root;
+        this.isolated = root != null;
+    }
+
+    /**
+     * @return the shared apps/[dir], e.g. for tests that do not run concurrently
+     */
+    public static Workspace shared(Apps app) {
+        return new Workspace(app, Path.of(BASE_DIR, app.dir).toFile(), null);
+    }
+
+    public static Workspace of(Apps app, String cn, String mn) throws IOException {
+        if (!ISOLATION || app.runtimeContainer != ContainerNames.NONE) {
+            return shared(app);
+        }
+        final String simpleName = cn.substring(cn.lastIndexOf('.') + 1);
+        final Path root = ROOT.resolve(simpleName + "-" + mn + "-" + COUNTER.incrementAndGet());
+        final Path copy = root.resolve(app.dir);
+        FileUtils.deleteDirectory(root.toFile());
+        Files.createDirectories(copy);
+        // Apps' poms have the repository's pom as their parent, ../../pom.xml
+        Files.copy(Path.of(BASE_DIR, "pom.xml"), root.resolve("pom.xml"));
+        final File source = Path.of(BASE_DIR, app.dir).toFile();
+        final File[] entries = source.listFiles();
+        if (entries != null) {
+            for (File entry : entries) {
+                if (!OUTPUTS.contains(entry.getName())) {
+                    copy(entry, copy.toFile());
+                }
+            }
+        }
+        LOGGER.infof("Workspace of %s#%s: %s", simpleName, mn, copy);
+        return new Workspace(app, copy.toFile(), root);
+    }
+
+    /**
+     * The configuration parameter as JUnit resolves it, i.e. the system property first, then junit-platform.properties.
+     */
+    static String junitConfig(String key, String defaultValue) {
+        final String value = System.getProperty(key);
+        if (value != null) {
+            return value;
+        }
+        try (InputStream in = Workspace.class.getClassLoader().getResourceAsStream("junit-platform.properties")) {
+            if (in != null) {
+                final Properties properties = new Properties();
+                properties.load(in);
+                return properties.getProperty(key, defaultValue).trim();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read junit-platform.properties: " + e.getMessage());
+        }
+        return defaultValue;
+    }
+
+    private static void copy(File entry, File destDir) throws IOException {
+        if (!IS_THIS_WINDOWS) {
+            final Process p = new ProcessBuilder("cp", "-a", "--reflink=auto", entry.getAbsolutePath(), destDir.getAbsolutePath())
+                    .redirectErrorStream(true).start();
+            try {
+                if (p.waitFor(5, TimeUnit.MINUTES) && p.exitValue() == 0) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            LOGGER.warnf("cp --reflink failed for %s, copying it plainly", entry);
+        }
+        if (entry.isDirectory()) {
+            FileUtils.copyDirectoryToDirectory(entry, destDir);
+        } else {
+            FileUtils.copyFileToDirectory(entry, destDir);
+        }
+    }
+
+    /**
+     * Before the test, a copy is clean already.
+     */
+    public void clean() {
+        if (!isolated) {
+            cleanTarget(app);
+        }
+    }
+
+    /**
+     * After the test, logs are archived by then.
+     */
+    public void close() {
+        if (!isolated) {
+            cleanTarget(app);
+        } else if (!KEEP) {
+            try {
+                FileUtils.deleteDirectory(root.toFile());
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete workspace " + root + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -38,7 +38,8 @@ import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
 
 /**
  * Lazy loads Mandrel version either from a container or from
- * the local installation, being thread safe about it.
+ * the local installation, being thread safe about it. The version output
+ * is cached between JVMs, see VersionCache.
  *
  * Supported `native-image --version' output (old single-line):
  *
@@ -77,6 +78,12 @@ import static org.graalvm.tests.integration.utils.Commands.getRunCommand;
  * GraalVM Runtime Environment GraalVM CE 22-dev+15.1 (build 22+15-jvmci-b01)
  * Substrate VM GraalVM CE 22-dev+15.1 (build 22+15, serial gc)
  *
+ * or
+ *
+ * native-image 21.0.1 2023-10-17
+ * GraalVM Runtime Environment Oracle GraalVM 21.0.1+12.1 (build 21.0.1+12-jvmci-23.1-b19)
+ * Substrate VM Oracle GraalVM 21.0.1+12.1 (build 21.0.1+12, serial gc)
+ *
  * @author Michal Karm Babacek <karm@redhat.com>
  */
 public class UsedVersion {
@@ -102,6 +109,13 @@ public class UsedVersion {
         return inContainer ? InContainer.mVersion.jdkUpdate : Locally.mVersion.jdkUpdate;
     }
 
+    /**
+     * Oracle GraalVM, formerly GraalVM EE, as opposed to Mandrel or GraalVM CE, e.g. the distribution with PGO.
+     */
+    public static boolean isOracleGraalVM(boolean inContainer) {
+        return inContainer ? InContainer.mVersion.oracleGraalVM : Locally.mVersion.oracleGraalVM;
+    }
+
     // Implements version parsing after https://github.com/oracle/graal/pull/6302
     static final class VersionParseHelper {
 
@@ -113,6 +127,7 @@ public class UsedVersion {
         //@formatter:on
         private static final String JVMCI_BUILD_PREFIX = "jvmci-";
         private static final String MANDREL_VERS_PREFIX = "Mandrel-";
+        private static final String ORACLE_GRAALVM_VENDOR = "Oracle GraalVM";
 
         // Java version info (suitable for Runtime.Version.parse()). See java.lang.VersionProps
         private static final String VNUM = "(?<VNUM>[1-9][0-9]*(?:(?:\\.0)*\\.[1-9][0-9]*)*)";
@@ -172,6 +187,7 @@ public class UsedVersion {
                         .jdkInterim(v.interim())
                         .jdkUpdate(v.update())
                         .version(vers)
+                        .oracleGraalVM(vendorVersion != null && vendorVersion.startsWith(ORACLE_GRAALVM_VENDOR))
                         .build();
             } else {
                 return MVersion.UNKNOWN_VERSION;
@@ -242,7 +258,7 @@ public class UsedVersion {
      * Mandrel Version plus additional metadata, e.g. jdkUsesSysLibs
      */
     private static final class MVersion {
-        private static final MVersion UNKNOWN_VERSION = new MVersion(null, false, UNDEFINED, UNDEFINED, UNDEFINED, "beta-unknown");
+        private static final MVersion UNKNOWN_VERSION = new MVersion(null, false, UNDEFINED, UNDEFINED, UNDEFINED, "beta-unknown", false);
         private static final Logger LOGGER = Logger.getLogger(MVersion.class.getName());
         private static final Pattern VERSION_PATTERN = Pattern.compile(
                 "(?:GraalVM|native-image)(?: Version)? (?<version>[^ ]*).*" +
@@ -254,14 +270,16 @@ public class UsedVersion {
         private final int jdkInterim;
         private final int jdkUpdate;
         private final String betaBits;
+        private final boolean oracleGraalVM;
 
-        private MVersion(Version version, boolean jdkUsesSysLibs, int jdkFeature, int jdkInterim, int jdkUpdate, String betaBits) {
+        private MVersion(Version version, boolean jdkUsesSysLibs, int jdkFeature, int jdkInterim, int jdkUpdate, String betaBits, boolean oracleGraalVM) {
             this.version = version;
             this.jdkUsesSysLibs = jdkUsesSysLibs;
             this.jdkFeature = jdkFeature;
             this.jdkInterim = jdkInterim;
             this.jdkUpdate = jdkUpdate;
             this.betaBits = betaBits;
+            this.oracleGraalVM = oracleGraalVM;
         }
 
         public static MVersion of(boolean inContainer) {
@@ -303,6 +321,8 @@ public class UsedVersion {
             final String lastLine = lines.get(lines.size() - 1).trim();
             final VersionBuilder builder = new VersionBuilder();
             builder.jdkUsesSysLibs(lastLine.contains("-LTS"));
+            // e.g. GraalVM 22.3.0 Java 17 EE (Java Version 17.0.5+9-LTS-jvmci-22.3-b07)
+            builder.oracleGraalVM(lastLine.contains(" EE "));
             if (inContainer && !lastLine.contains("Mandrel")) {
                 LOGGER.warn("You are probably running GraalVM and not Mandrel container. " +
                         "It might not work as tests might expect certain paths such as /opt/mandrel/.");
@@ -342,8 +362,8 @@ public class UsedVersion {
         }
 
         private static List<String> runNativeImageVersion(boolean inContainer) {
-            final String out;
             if (inContainer) {
+                // Even on a cache hit, the entry is stamped with the id of the local image, i.e. a tag that moved is run again.
                 final List<String> pullCmd = List.of(CONTAINER_RUNTIME, "pull", BUILDER_IMAGE);
                 LOGGER.info("Running command " + pullCmd + " so as to pull Mandrel image locally.");
                 try {
@@ -351,6 +371,14 @@ public class UsedVersion {
                 } catch (IOException e) {
                     throw new RuntimeException("Failing to pull " + BUILDER_IMAGE, e);
                 }
+            }
+            final List<String> cached = VersionCache.get(VersionCache.key(inContainer));
+            if (cached != null) {
+                LOGGER.info("Using native-image version output cached in " + VersionCache.FILE);
+                return cached;
+            }
+            final String out;
+            if (inContainer) {
                 final List<String> cmd = List.of(CONTAINER_RUNTIME, "run", "-t", BUILDER_IMAGE, "native-image", "--version");
                 LOGGER.info("Running command " + cmd + " to determine Mandrel version used.");
                 try {
@@ -370,7 +398,12 @@ public class UsedVersion {
                             "correct profile for running without locally installed native-image.", e);
                 }
             }
-            return Arrays.asList(out.split(System.lineSeparator()));
+            final List<String> lines = Arrays.asList(out.split(System.lineSeparator()));
+            // Failures, e.g. a missing image or PATH, are not cached
+            if (lines.stream().anyMatch(l -> l.startsWith("GraalVM") || l.startsWith("native-image"))) {
+                VersionCache.put(VersionCache.key(inContainer), lines);
+            }
+            return lines;
         }
     }
 
@@ -383,6 +416,7 @@ public class UsedVersion {
         private boolean jdkUsesSysLibs;
         private Version version;
         private String betaBits;
+        private boolean oracleGraalVM;
 
         VersionBuilder jdkInterim(int jdkInterim) {
             this.jdkInterim = jdkInterim;
@@ -414,8 +448,13 @@ public class UsedVersion {
             return this;
         }
 
+        VersionBuilder oracleGraalVM(boolean oracleGraalVM) {
+            this.oracleGraalVM = oracleGraalVM;
+            return this;
+        }
+
         MVersion build() {
-            return new MVersion(version, jdkUsesSysLibs, jdkFeature, jdkInterim, jdkUpdate, betaBits);
+            return new MVersion(version, jdkUsesSysLibs, jdkFeature, jdkInterim, jdkUpdate, betaBits, oracleGraalVM);
         }
     }
 
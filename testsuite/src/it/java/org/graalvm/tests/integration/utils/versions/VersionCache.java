@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, Red Hat Inc. All rights reserved.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.graalvm.tests.integration.utils.versions;
+
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.graalvm.tests.integration.utils.Commands.BUILDER_IMAGE;
+import static org.graalvm.tests.integration.utils.Commands.CONTAINER_RUNTIME;
+import static org.graalvm.tests.integration.utils.Commands.IS_THIS_WINDOWS;
+import static org.graalvm.tests.integration.utils.Commands.getProperty;
+import static org.graalvm.tests.integration.utils.Commands.runCommand;
+
+/**
+ * Keeps `native-image --version' output between JVMs, i.e. surefire forks and runs, so as UsedVersion does not
+ * run native-image, or pull and start the builder image, each time. The output is stored rather than the parsed
+ * version, parsing it is cheap and stays in one place.
+ *
+ * A local native-image is identified by its real path, i.e. the GRAALVM_HOME it comes from, and stamped with its
+ * modification time and size. The builder image is identified by BUILDER_IMAGE and stamped with the id of the image
+ * present locally, UsedVersion pulls it before the lookup, so a tag that moved on gets a new stamp. An entry whose stamp
+ * differs is run again and replaced. Fake native-image scripts, FAKE_NATIVE_IMAGE_DIR, are rewritten in place by
+ * tests within the same second, they are never cached. VERSION_CACHE=false turns it off.
+ */
+public class VersionCache {
+
+    private static final Logger LOGGER = Logger.getLogger(VersionCache.class.getName());
+
+    public static final boolean ENABLED = Boolean.parseBoolean(getProperty("VERSION_CACHE", "true"));
+    public static final Path FILE = Path.of(getProperty("VERSION_CACHE_FILE",
+            Path.of(System.getProperty("user.home"), ".cache", "mandrel-integration-tests", "native-image-versions.properties").toString()));
+
+    /**
+     * @return id and stamp of the native-image used, null if it is not to be cached
+     */
+    static String[] key(boolean inContainer) {
+        if (!ENABLED) {
+            return null;
+        }
+        return inContainer ? containerKey() : localKey();
+    }
+
+    private static String[] localKey() {
+        if (!System.getProperty("FAKE_NATIVE_IMAGE_DIR", "").isEmpty()) {
+            return null;
+        }
+        final String name = IS_THIS_WINDOWS ? "native-image.cmd" : "native-image";
+        final String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            final Path nativeImage = Path.of(dir, name);
+            if (Files.isExecutable(nativeImage)) {
+                try {
+                    return stamp(nativeImage.toRealPath());
+                } catch (IOException e) {
+                    LOGGER.debug("Version cache, " + nativeImage + ": " + e.getMessage());
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static String[] stamp(Path nativeImage) throws IOException {
+        return new String[] { "local " + nativeImage, Files.getLastModifiedTime(nativeImage).toMillis() + " " + Files.size(nativeImage) };
+    }
+
+    private static String[] containerKey() {
+        try {
+            final String id = runCommand(List.of(CONTAINER_RUNTIME, "image", "inspect", "--format", "{{.Id}}", BUILDER_IMAGE)).trim();
+            // Error: ... image not known, i.e. not pulled yet
+            return id.matches("(sha256:)?[0-9a-f]{12,}") ? new String[] { "image " + BUILDER_IMAGE, id } : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the cached output lines, null if there are none for the stamp
+     */
+    static List<String> get(String[] key) {
+        return key == null ? null : get(FILE, key[0], key[1]);
+    }
+
+    static void put(String[] key, List<String> lines) {
+        if (key != null) {
+            put(FILE, key[0], key[1], lines);
+        }
+    }
+
+    public static List<String> get(Path file, String id, String stamp) {
+        final String value = load(file).getProperty(id);
+        if (value == null || !value.startsWith(stamp + "\n")) {
+            return null;
+        }
+        return Arrays.asList(value.substring(stamp.length() + 1).split("\n"));
+    }
+
+    /**
+     * Replaces the entry of the id. Concurrent forks might lose each other's entry, they are run again next time then.
+     */
+    public static void put(Path file, String id, String stamp, List<String> lines) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            final Properties p = load(file);
+            p.setProperty(id, stamp + "\n" + String.join("\n", lines));
+            final Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, UTF_8)) {
+                p.store(w, "native-image --version outputs, see VersionCache");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write version cache " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Properties load(Path file) {
+        final Properties p = new Properties();
+        if (Files.isReadable(file)) {
+            try (Reader r = Files.newBufferedReader(file, UTF_8)) {
+                p.load(r);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.warn("Ignoring unreadable version cache " + file + ": " + e.getMessage());
+            }
+        }
+        return p;
+    }
+}